@@ -1,5 +1,7 @@
 package com.camjewell;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.IntFunction;
 import java.util.function.IntUnaryOperator;
@@ -101,7 +103,7 @@ class ArenaStateService {
     }
 
     void clearRunTrackingCollections(
-            Map<Integer, Integer> lastCombinedSnapshot,
+            ItemQuantityTable lastCombinedSnapshot,
             Map<?, ?> lootByWave,
             Map<Integer, Integer> previousLootSnapshot,
             Map<Integer, Integer> totalSuppliesConsumed,
@@ -113,12 +115,17 @@ class ArenaStateService {
         initialSupplySnapshot.clear();
     }
 
-    void archiveConsumedSupplies(
+    /**
+     * Merges consumed supplies into the historical aggregates and returns one entry per
+     * archived item so the caller can journal exactly what was added.
+     */
+    List<ItemAggregate> archiveConsumedSupplies(
             Map<Integer, Integer> totalSuppliesConsumed,
             Map<String, ItemAggregate> historicalSuppliesUsed,
             IntFunction<String> getBasePotionNameByItemId,
             IntUnaryOperator getPricePerDoseByItemId,
             IntUnaryOperator getMaxDoseByItemId) {
+        List<ItemAggregate> archived = new ArrayList<>();
         for (Map.Entry<Integer, Integer> entry : totalSuppliesConsumed.entrySet()) {
             int itemId = entry.getKey();
             int quantity = entry.getValue();
@@ -126,17 +133,25 @@ class ArenaStateService {
             int pricePerItem = getPricePerDoseByItemId.applyAsInt(itemId);
             int maxDose = getMaxDoseByItemId.applyAsInt(itemId);
 
-            if (historicalSuppliesUsed.containsKey(itemName)) {
-                ItemAggregate existing = historicalSuppliesUsed.get(itemName);
-                existing.add(quantity, pricePerItem);
-                if (maxDose > existing.maxDosesForDisplay) {
-                    existing.maxDosesForDisplay = maxDose;
-                }
-            } else {
-                ItemAggregate agg = new ItemAggregate(itemName, quantity, pricePerItem);
-                agg.maxDosesForDisplay = maxDose;
-                historicalSuppliesUsed.put(itemName, agg);
+            ItemAggregate supply = new ItemAggregate(itemName, quantity, pricePerItem);
+            supply.maxDosesForDisplay = maxDose;
+            mergeArchivedSupply(historicalSuppliesUsed, supply);
+            archived.add(supply);
+        }
+        return archived;
+    }
+
+    static void mergeArchivedSupply(Map<String, ItemAggregate> historicalSuppliesUsed, ItemAggregate supply) {
+        ItemAggregate existing = historicalSuppliesUsed.get(supply.name);
+        if (existing != null) {
+            existing.add(supply.totalQuantity, supply.pricePerItem);
+            if (supply.maxDosesForDisplay > existing.maxDosesForDisplay) {
+                existing.maxDosesForDisplay = supply.maxDosesForDisplay;
             }
+        } else {
+            ItemAggregate agg = new ItemAggregate(supply.name, supply.totalQuantity, supply.pricePerItem);
+            agg.maxDosesForDisplay = supply.maxDosesForDisplay;
+            historicalSuppliesUsed.put(supply.name, agg);
         }
     }
 }
@@ -0,0 +1,119 @@
+package com.camjewell;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces files without ever leaving a half-written target behind: content goes to a
+ * temp file in the same directory, is forced to disk, and is then renamed over the target.
+ * Optionally keeps rotating copies of the previous generations ({@code name.bak1} newest).
+ */
+final class AtomicFileWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private interface ChannelContent {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    static void write(File target, int backupGenerations, Content content) throws IOException {
+        writeChannel(target, backupGenerations, channel -> {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            content.writeTo(out);
+            out.flush();
+        });
+    }
+
+    /** Writes the remaining bytes of {@code content} straight to the channel. */
+    static void write(File target, int backupGenerations, ByteBuffer content) throws IOException {
+        writeChannel(target, backupGenerations, channel -> {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        });
+    }
+
+    private static void writeChannel(File target, int backupGenerations, ChannelContent content) throws IOException {
+        Path targetPath = target.toPath();
+        Path tempPath = new File(target.getParentFile(), target.getName() + TEMP_SUFFIX).toPath();
+
+        try (FileChannel channel = FileChannel.open(tempPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            content.writeTo(channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+
+        if (backupGenerations > 0 && Files.exists(targetPath)) {
+            rotateBackups(target, backupGenerations);
+        }
+
+        try {
+            Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target.getParentFile());
+    }
+
+    /** Backup generations of {@code target}, newest first. Files may not exist. */
+    static List<File> backupFiles(File target, int backupGenerations) {
+        List<File> backups = new ArrayList<>();
+        for (int generation = 1; generation <= backupGenerations; generation++) {
+            backups.add(backupFile(target, generation));
+        }
+        return backups;
+    }
+
+    private static File backupFile(File target, int generation) {
+        return new File(target.getParentFile(), target.getName() + BACKUP_SUFFIX + generation);
+    }
+
+    private static void rotateBackups(File target, int backupGenerations) throws IOException {
+        Files.deleteIfExists(backupFile(target, backupGenerations).toPath());
+        for (int generation = backupGenerations - 1; generation >= 1; generation--) {
+            Path from = backupFile(target, generation).toPath();
+            if (Files.exists(from)) {
+                Files.move(from, backupFile(target, generation + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        // A hard link keeps the old contents once the target is renamed over, without copying.
+        Path newest = backupFile(target, 1).toPath();
+        try {
+            Files.createLink(newest, target.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target.toPath(), newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void forceDirectory(File directory) {
+        // Makes the rename itself durable; not supported on every platform (e.g. Windows).
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Best effort.
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.camjewell;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.runelite.api.widgets.Widget;
+
+/**
+ * Reads per-wave completion counts from the Dom scoreboard widget tree. The first parse
+ * walks the whole tree and remembers which widget lines held each wave's level and count;
+ * later parses read just those lines, and fall back to the full walk as soon as any of
+ * them moved, changed shape or no longer reads as expected.
+ */
+final class DomScoreboardParser {
+    private static final Pattern WAVE_KEYWORD_LINE_PATTERN = Pattern
+            .compile("(?i)\\bwave\\s*(\\d+\\+?)\\b\\s*[:\\-]?\\s*([\\d,]+)");
+    // The separator is required so a bare count cell such as "57" is not read as wave 5.
+    private static final Pattern WAVE_COMPACT_LINE_PATTERN = Pattern
+            .compile("^(\\d+\\+?)(?:\\s*[:\\-]\\s*|\\s+)([\\d,]+)$");
+    private static final Pattern LEVEL_COMPLETION_LINE_PATTERN = Pattern
+            .compile("(?i)\\blevel\\s*(\\d+\\+?)\\b\\s+([\\d,]+)(?:\\s+[a-z])?");
+    private static final Pattern LEVEL_ONLY_LINE_PATTERN = Pattern
+            .compile("(?i)^level\\s*(\\d+\\+?)$");
+    private static final Pattern COUNT_ONLY_LINE_PATTERN = Pattern
+            .compile("^([\\d,]+)(?:\\s+[a-z])?$");
+    private static final int NO_WAVE = -1;
+    // Widget child lists: children, dynamic, static and nested.
+    private static final int CHILD_LIST_COUNT = 4;
+
+    /** A non-empty line of widget text and where it was found. */
+    private static final class TextToken {
+        final String line;
+        final int[] path;
+        final int lineIndex;
+
+        TextToken(String line, int[] path, int lineIndex) {
+            this.line = line;
+            this.path = path;
+            this.lineIndex = lineIndex;
+        }
+    }
+
+    /**
+     * Where a wave's completion count was read from: a "Level N" line and a separate count
+     * line, or a single line holding both when {@code combined}.
+     */
+    private static final class WaveCell {
+        final int wave;
+        final int[] levelPath;
+        final int levelLine;
+        final int[] countPath;
+        final int countLine;
+        final boolean combined;
+
+        WaveCell(int wave, int[] levelPath, int levelLine, int[] countPath, int countLine, boolean combined) {
+            this.wave = wave;
+            this.levelPath = levelPath;
+            this.levelLine = levelLine;
+            this.countPath = countPath;
+            this.countLine = countLine;
+            this.combined = combined;
+        }
+    }
+
+    private List<WaveCell> waveCells;
+    private int waveCellsRootId;
+
+    /**
+     * Completion counts by wave (1 to 9) shown in the scoreboard under {@code root}, or an
+     * empty map if the tree does not look like the scoreboard.
+     */
+    Map<Integer, Long> parse(Widget root) {
+        Map<Integer, Long> cached = readCachedWaveCells(root);
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<Integer, Long> parsed = new HashMap<>();
+        List<TextToken> tokens = new ArrayList<>();
+        collectWidgetTextTokens(root, new int[8], 0, tokens);
+
+        List<WaveCell> cells = new ArrayList<>();
+        boolean sawExpectedFormat = collectWaveCompletionsFromLines(tokens, parsed, cells);
+        parseWaveCompletionsFromStructuredTokens(tokens, parsed, cells);
+
+        if (!sawExpectedFormat || parsed.isEmpty()) {
+            waveCells = null;
+            return new HashMap<>();
+        }
+
+        waveCells = cells;
+        waveCellsRootId = root.getId();
+        return parsed;
+    }
+
+    /**
+     * Reads the level and count cells learned by the last full scan directly. Returns null
+     * if nothing was learned or any cell moved, changed shape or no longer reads as
+     * expected, so the caller falls back to a full scan.
+     */
+    private Map<Integer, Long> readCachedWaveCells(Widget root) {
+        List<WaveCell> cells = waveCells;
+        if (cells == null || cells.isEmpty() || root.getId() != waveCellsRootId) {
+            return null;
+        }
+
+        Map<Integer, Long> parsed = new HashMap<>();
+        for (WaveCell cell : cells) {
+            String levelLine = lineAt(resolvePath(root, cell.levelPath), cell.levelLine);
+            if (levelLine == null) {
+                return null;
+            }
+            if (cell.combined) {
+                // Lines holding both numbers come in several formats; re-match just this line.
+                if (parseWaveCompletionLine(levelLine, parsed) != cell.wave) {
+                    return null;
+                }
+                continue;
+            }
+
+            if (!startsWithIgnoreCase(levelLine, "level") || parseLevelCell(levelLine) != cell.wave) {
+                return null;
+            }
+            String countLine = lineAt(resolvePath(root, cell.countPath), cell.countLine);
+            long count = countLine != null ? parseCountCell(countLine) : -1;
+            if (count < 0) {
+                return null;
+            }
+            parsed.merge(normalizeWaveKey(cell.wave), count, Math::max);
+        }
+        return parsed;
+    }
+
+    private static boolean collectWaveCompletionsFromLines(List<TextToken> tokens, Map<Integer, Long> parsed,
+            List<WaveCell> cells) {
+        boolean sawExpectedFormat = false;
+        for (TextToken token : tokens) {
+            String lowered = token.line.toLowerCase(Locale.ROOT);
+            if (lowered.contains("personal completions") || lowered.contains("level")) {
+                sawExpectedFormat = true;
+            }
+            int wave = parseWaveCompletionLine(token.line, parsed);
+            if (wave != NO_WAVE) {
+                sawExpectedFormat = true;
+                cells.add(new WaveCell(wave, token.path, token.lineIndex, token.path, token.lineIndex, true));
+            }
+        }
+        return sawExpectedFormat;
+    }
+
+    /** Parses a line holding both a wave and its count; returns the wave, or NO_WAVE. */
+    private static int parseWaveCompletionLine(String line, Map<Integer, Long> parsed) {
+        Matcher keywordMatcher = WAVE_KEYWORD_LINE_PATTERN.matcher(line);
+        if (keywordMatcher.find()) {
+            Integer wave = parseWaveToken(keywordMatcher.group(1));
+            Long count = parseCountToken(keywordMatcher.group(2));
+            if (wave != null && count != null) {
+                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
+                return wave;
+            }
+        }
+
+        Matcher compactMatcher = WAVE_COMPACT_LINE_PATTERN.matcher(line);
+        if (compactMatcher.find()) {
+            Integer wave = parseWaveToken(compactMatcher.group(1));
+            Long count = parseCountToken(compactMatcher.group(2));
+            if (wave != null && count != null && wave >= 1 && wave <= 99) {
+                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
+                return wave;
+            }
+        }
+
+        Matcher levelMatcher = LEVEL_COMPLETION_LINE_PATTERN.matcher(line);
+        if (levelMatcher.find()) {
+            Integer wave = parseWaveToken(levelMatcher.group(1));
+            Long count = parseCountToken(levelMatcher.group(2));
+            if (wave != null && count != null) {
+                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
+                return wave;
+            }
+        }
+
+        return NO_WAVE;
+    }
+
+    private static void parseWaveCompletionsFromStructuredTokens(List<TextToken> tokens, Map<Integer, Long> parsed,
+            List<WaveCell> cells) {
+        Deque<Integer> pendingWaves = new ArrayDeque<>();
+        Deque<TextToken> pendingLevelTokens = new ArrayDeque<>();
+        for (TextToken token : tokens) {
+            Matcher levelOnlyMatcher = LEVEL_ONLY_LINE_PATTERN.matcher(token.line);
+            if (levelOnlyMatcher.find()) {
+                Integer wave = parseWaveToken(levelOnlyMatcher.group(1));
+                if (wave != null) {
+                    pendingWaves.addLast(wave);
+                    pendingLevelTokens.addLast(token);
+                }
+                continue;
+            }
+
+            if (pendingWaves.isEmpty()) {
+                continue;
+            }
+
+            Matcher countOnlyMatcher = COUNT_ONLY_LINE_PATTERN.matcher(token.line);
+            if (countOnlyMatcher.find()) {
+                Long count = parseCountToken(countOnlyMatcher.group(1));
+                if (count != null) {
+                    int wave = pendingWaves.removeFirst();
+                    TextToken levelToken = pendingLevelTokens.removeFirst();
+                    parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
+                    cells.add(new WaveCell(wave, levelToken.path, levelToken.lineIndex, token.path,
+                            token.lineIndex, false));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every non-empty line of text in the subtree of {@code widget}, in the order the
+     * parsers expect, with the path of child indices leading to it.
+     */
+    private static void collectWidgetTextTokens(Widget widget, int[] path, int depth, List<TextToken> tokens) {
+        if (widget == null || widget.isHidden()) {
+            return;
+        }
+
+        String text = widget.getText();
+        if (text != null && !text.isEmpty()) {
+            String[] lines = stripTags(text).split("\\r?\\n");
+            int[] widgetPath = null;
+            for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
+                String line = lines[lineIndex].trim();
+                if (!line.isEmpty()) {
+                    if (widgetPath == null) {
+                        widgetPath = Arrays.copyOf(path, depth);
+                    }
+                    tokens.add(new TextToken(line, widgetPath, lineIndex));
+                }
+            }
+        }
+
+        for (int list = 0; list < CHILD_LIST_COUNT; list++) {
+            Widget[] children = childList(widget, list);
+            if (children == null) {
+                continue;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            for (int index = 0; index < children.length; index++) {
+                path[depth] = pathStep(list, index, children.length);
+                collectWidgetTextTokens(children[index], path, depth + 1, tokens);
+            }
+        }
+    }
+
+    private static Widget[] childList(Widget widget, int list) {
+        switch (list) {
+            case 0:
+                return widget.getChildren();
+            case 1:
+                return widget.getDynamicChildren();
+            case 2:
+                return widget.getStaticChildren();
+            default:
+                return widget.getNestedChildren();
+        }
+    }
+
+    // A path step packs which child list was taken, the index in it and the list's length,
+    // so a cell whose container gained or lost rows no longer resolves.
+    private static int pathStep(int list, int index, int length) {
+        return (list << 30) | (Math.min(length, 0x7FFF) << 15) | Math.min(index, 0x7FFF);
+    }
+
+    private static Widget resolvePath(Widget root, int[] path) {
+        Widget widget = root;
+        for (int step : path) {
+            Widget[] children = childList(widget, step >>> 30);
+            int length = (step >>> 15) & 0x7FFF;
+            int index = step & 0x7FFF;
+            if (children == null || children.length != length || children[index] == null
+                    || children[index].isHidden()) {
+                return null;
+            }
+            widget = children[index];
+        }
+        return widget;
+    }
+
+    /** Line {@code lineIndex} of the widget's text with tags removed and trimmed, or null. */
+    private static String lineAt(Widget widget, int lineIndex) {
+        String text = widget != null ? widget.getText() : null;
+        if (text == null) {
+            return null;
+        }
+        String[] lines = stripTags(text).split("\\r?\\n");
+        return lineIndex < lines.length ? lines[lineIndex].trim() : null;
+    }
+
+    private static String stripTags(String text) {
+        if (text.indexOf('<') < 0) {
+            return text.replace(' ', ' ');
+        }
+        StringBuilder stripped = new StringBuilder(text.length());
+        boolean inTag = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inTag) {
+                if (c == '>') {
+                    inTag = false;
+                    stripped.append(' ');
+                }
+            } else if (c == '<' && text.indexOf('>', i) > 0) {
+                inTag = true;
+            } else {
+                stripped.append(c == ' ' ? ' ' : c);
+            }
+        }
+        return stripped.toString();
+    }
+
+    private static boolean startsWithIgnoreCase(String line, String prefix) {
+        return line.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /** The wave of a "Level N" or "Level N+" cell (9 for N+), or NO_WAVE. */
+    private static int parseLevelCell(String line) {
+        int i = "level".length();
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        int wave = 0;
+        int digits = 0;
+        for (; i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9' && digits < 9; i++) {
+            wave = wave * 10 + (line.charAt(i) - '0');
+            digits++;
+        }
+        if (digits == 0) {
+            return NO_WAVE;
+        }
+        if (i < line.length() && line.charAt(i) == '+') {
+            wave = 9;
+            i++;
+        }
+        return i == line.length() ? wave : NO_WAVE;
+    }
+
+    /** A count cell: digits with optional commas, optionally followed by one letter. -1 if not. */
+    private static long parseCountCell(String line) {
+        long value = 0;
+        int digits = 0;
+        int i = 0;
+        for (; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c != ',') {
+                break;
+            }
+        }
+        if (digits == 0 || digits > 18) {
+            return -1;
+        }
+        if (i == line.length()) {
+            return value;
+        }
+        String rest = line.substring(i).trim();
+        boolean letterSuffix = Character.isWhitespace(line.charAt(i)) && rest.length() == 1
+                && rest.charAt(0) >= 'a' && rest.charAt(0) <= 'z';
+        return letterSuffix ? value : -1;
+    }
+
+    private static Integer parseWaveToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        String cleaned = token.trim();
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        if (cleaned.endsWith("+")) {
+            return 9;
+        }
+        try {
+            return Integer.valueOf(cleaned);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static Long parseCountToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        String cleaned = token.replace(",", "").trim();
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        try {
+            long value = Long.parseLong(cleaned);
+            return value >= 0 ? value : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** True if the next parse will try the remembered cells before a full walk. */
+    boolean hasCachedCells() {
+        return waveCells != null;
+    }
+
+    static int normalizeWaveKey(int wave) {
+        if (wave < 1) {
+            return 1;
+        }
+        return wave >= 9 ? 9 : wave;
+    }
+}
@@ -1,15 +1,9 @@
 package com.camjewell;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,24 +11,20 @@ import org.slf4j.LoggerFactory;
 import net.runelite.api.Client;
 import net.runelite.api.gameval.InterfaceID;
 import net.runelite.api.widgets.Widget;
-import net.runelite.client.game.ItemManager;
 
+/**
+ * Syncs wave completions from the Dom scoreboard and unique counts from the collection
+ * log. Parsing is gated by widget events: an interface is only looked at while it is open,
+ * after it loaded or a script redrew something, and only re-parsed when a fingerprint of
+ * its text and item slots changed. While neither interface is open a tick costs nothing.
+ */
 class HighscoresSyncService {
     private static final Logger log = LoggerFactory.getLogger(HighscoresSyncService.class);
+    private static final int SCOREBOARD_GROUP_ID = InterfaceID.DomScoreboard.UNIVERSE >>> 16;
+    private static final int COLLECTION_LOG_GROUP_ID = InterfaceID.Collection.BOSS_TEXT >>> 16;
     private static final int COLLECTION_LOG_EXPECTED_UNIQUE_SLOTS = 4;
-    private static final Pattern WAVE_KEYWORD_LINE_PATTERN = Pattern
-            .compile("(?i)\\bwave\\s*(\\d+\\+?)\\b\\s*[:\\-]?\\s*([\\d,]+)");
-    private static final Pattern WAVE_COMPACT_LINE_PATTERN = Pattern
-            .compile("^(\\d+\\+?)\\s*[:\\-]?\\s*([\\d,]+)$");
-    private static final Pattern LEVEL_COMPLETION_LINE_PATTERN = Pattern
-            .compile("(?i)\\blevel\\s*(\\d+\\+?)\\b\\s+([\\d,]+)(?:\\s+[a-z])?");
-    private static final Pattern LEVEL_ONLY_LINE_PATTERN = Pattern
-            .compile("(?i)^level\\s*(\\d+\\+?)$");
-    private static final Pattern COUNT_ONLY_LINE_PATTERN = Pattern
-            .compile("^([\\d,]+)(?:\\s+[a-z])?$");
-
     private final Client client;
-    private final ItemManager itemManager;
+    private final ItemMetadataCache itemMetadata;
     private final Function<String, String> canonicalizeUniqueName;
     private final Map<Integer, Long> historicalCompletedRunsByWave;
     private final Map<Integer, Long> localCompletedRunsSinceLastSyncByWave;
@@ -42,15 +32,23 @@ class HighscoresSyncService {
 
     private boolean highscoresBaselineSynced;
 
+    private boolean scoreboardOpen;
+    private boolean scoreboardDirty;
+    private int scoreboardFingerprint;
+    private boolean collectionLogOpen;
+    private boolean collectionLogDirty;
+    private int collectionLogFingerprint;
+    private final DomScoreboardParser scoreboardParser = new DomScoreboardParser();
+
     HighscoresSyncService(
             Client client,
-            ItemManager itemManager,
+            ItemMetadataCache itemMetadata,
             Function<String, String> canonicalizeUniqueName,
             Map<Integer, Long> historicalCompletedRunsByWave,
             Map<Integer, Long> localCompletedRunsSinceLastSyncByWave,
             Map<String, Long> collectionLogClaimedUniqueCounts) {
         this.client = client;
-        this.itemManager = itemManager;
+        this.itemMetadata = itemMetadata;
         this.canonicalizeUniqueName = canonicalizeUniqueName;
         this.historicalCompletedRunsByWave = historicalCompletedRunsByWave;
         this.localCompletedRunsSinceLastSyncByWave = localCompletedRunsSinceLastSyncByWave;
@@ -65,28 +63,69 @@ class HighscoresSyncService {
         this.highscoresBaselineSynced = synced;
     }
 
-    boolean attemptHighscoresWidgetSync() {
-        Widget root = client.getWidget(InterfaceID.DomScoreboard.UNIVERSE);
-        Widget levels = client.getWidget(InterfaceID.DomScoreboard.PERSONAL);
-        boolean rootVisible = root != null && !root.isHidden();
-        boolean levelsVisible = levels != null && !levels.isHidden();
-        if (!rootVisible && !levelsVisible) {
-            return false;
+    void onWidgetLoaded(int groupId) {
+        if (groupId == SCOREBOARD_GROUP_ID) {
+            scoreboardOpen = true;
+            scoreboardDirty = true;
+            scoreboardFingerprint = 0;
+        } else if (groupId == COLLECTION_LOG_GROUP_ID) {
+            collectionLogOpen = true;
+            collectionLogDirty = true;
+            collectionLogFingerprint = 0;
         }
+    }
 
-        Map<Integer, Long> parsed = parseWaveCompletionsFromDomScoreboard();
-        if (parsed.isEmpty()) {
-            return false;
+    void onWidgetClosed(int groupId) {
+        if (groupId == SCOREBOARD_GROUP_ID) {
+            scoreboardOpen = false;
+        } else if (groupId == COLLECTION_LOG_GROUP_ID) {
+            collectionLogOpen = false;
         }
+    }
+
+    /** A script ran; open interfaces may have been redrawn (e.g. a collection log page change). */
+    void onScriptPostFired() {
+        scoreboardDirty = scoreboardOpen;
+        collectionLogDirty = collectionLogOpen;
+    }
 
-        return syncHistoricalRunsFromHighscoresData(parsed);
+    /**
+     * Parses the open interfaces whose content changed since the last call. Meant to run
+     * once per tick; returns true if synced data changed.
+     */
+    boolean syncOpenInterfaces() {
+        boolean changed = false;
+        if (scoreboardDirty) {
+            scoreboardDirty = false;
+            changed |= syncScoreboard();
+        }
+        if (collectionLogDirty) {
+            collectionLogDirty = false;
+            changed |= syncCollectionLog();
+        }
+        return changed;
     }
 
-    boolean attemptCollectionLogUniqueSync() {
-        return syncCollectionLogUniquesFromVisibleWidgets();
+    private boolean syncScoreboard() {
+        Widget root = findHighscoresWaveRoot();
+        if (root == null) {
+            return false;
+        }
+        int fingerprint = textFingerprint(root, 1);
+        if (fingerprint == scoreboardFingerprint) {
+            return false;
+        }
+        scoreboardFingerprint = fingerprint;
+
+        Map<Integer, Long> parsed = scoreboardParser.parse(root);
+        if (parsed.isEmpty() || !syncHistoricalRunsFromHighscoresData(parsed)) {
+            return false;
+        }
+        log.debug("[Mokha] Synced {} highscores wave buckets from DomScoreboard", parsed.size());
+        return true;
     }
 
-    boolean syncCollectionLogUniquesFromVisibleWidgets() {
+    private boolean syncCollectionLog() {
         Widget headerPanel = client.getWidget(InterfaceID.Collection.HEADER_TEXT);
         Widget itemsContainerWidget = client.getWidget(InterfaceID.Collection.ITEMS_CONTENTS);
 
@@ -98,6 +137,12 @@ class HighscoresSyncService {
             return false;
         }
 
+        int fingerprint = collectionLogFingerprint(headerPanel, itemsContainerWidget);
+        if (fingerprint == collectionLogFingerprint) {
+            return false;
+        }
+        collectionLogFingerprint = fingerprint;
+
         // Boss name is in the first child of the HEADER_TEXT panel, not the panel itself
         String bossName = getChildText(headerPanel, 0);
         if (bossName == null || !bossName.toLowerCase(Locale.ROOT).contains("doom of mokhaiotl")) {
@@ -121,6 +166,51 @@ class HighscoresSyncService {
         return true;
     }
 
+    /** Hash of all text in the subtree of {@code widget}; never 0. */
+    private static int textFingerprint(Widget widget, int hash) {
+        if (widget == null || widget.isHidden()) {
+            return hash;
+        }
+        String text = widget.getText();
+        hash = 31 * hash + (text != null ? text.hashCode() : 0);
+        hash = textFingerprint(widget.getChildren(), hash);
+        hash = textFingerprint(widget.getDynamicChildren(), hash);
+        hash = textFingerprint(widget.getStaticChildren(), hash);
+        hash = textFingerprint(widget.getNestedChildren(), hash);
+        return hash != 0 ? hash : 1;
+    }
+
+    private static int textFingerprint(Widget[] widgets, int hash) {
+        if (widgets != null) {
+            for (Widget widget : widgets) {
+                hash = textFingerprint(widget, hash);
+            }
+        }
+        return hash;
+    }
+
+    /** Hash of the page title and the unique slots parsed from it; never 0. */
+    private int collectionLogFingerprint(Widget headerPanel, Widget itemsContainerWidget) {
+        String bossName = getChildText(headerPanel, 0);
+        int hash = bossName != null ? bossName.hashCode() : 0;
+        Widget[] children = itemsContainerWidget.getChildren();
+        if (children == null || children.length == 0) {
+            children = itemsContainerWidget.getDynamicChildren();
+        }
+        if (children != null) {
+            int slots = Math.min(COLLECTION_LOG_EXPECTED_UNIQUE_SLOTS, children.length);
+            for (int slot = 0; slot < slots; slot++) {
+                Widget item = children[slot];
+                if (item != null && !item.isHidden()) {
+                    hash = 31 * hash + item.getItemId();
+                    hash = 31 * hash + item.getItemQuantity();
+                    hash = 31 * hash + item.getOpacity();
+                }
+            }
+        }
+        return hash != 0 ? hash : 1;
+    }
+
     private String getChildText(Widget parent, int childIndex) {
         Widget[] children = parent.getChildren();
         if (children == null || children.length <= childIndex) {
@@ -135,7 +225,7 @@ class HighscoresSyncService {
     boolean syncHistoricalRunsFromHighscoresData(Map<Integer, Long> parsed) {
         Map<Integer, Long> normalized = new HashMap<>();
         for (Map.Entry<Integer, Long> entry : parsed.entrySet()) {
-            int wave = normalizeWaveKey(entry.getKey());
+            int wave = DomScoreboardParser.normalizeWaveKey(entry.getKey());
             long parsedCount = Math.max(0, entry.getValue());
             normalized.put(wave, parsedCount);
         }
@@ -155,24 +245,6 @@ class HighscoresSyncService {
         return true;
     }
 
-    Map<Integer, Long> parseWaveCompletionsFromDomScoreboard() {
-        Map<Integer, Long> parsed = new HashMap<>();
-
-        Widget root = findHighscoresWaveRoot();
-        if (root == null) {
-            return parsed;
-        }
-
-        boolean sawExpectedFormat = collectWaveCompletionsFromWidget(root, parsed);
-        parseWaveCompletionsFromStructuredTokens(root, parsed);
-
-        if (!sawExpectedFormat || parsed.isEmpty()) {
-            return new HashMap<>();
-        }
-
-        return parsed;
-    }
-
     private Widget findHighscoresWaveRoot() {
         Widget preferred = client.getWidget(InterfaceID.DomScoreboard.PERSONAL);
         if (preferred != null && !preferred.isHidden()) {
@@ -184,187 +256,9 @@ class HighscoresSyncService {
             return primary;
         }
 
-        Widget[] roots = client.getWidgetRoots();
-        if (roots == null) {
-            return null;
-        }
-
-        for (Widget root : roots) {
-            if (root == null || root.isHidden()) {
-                continue;
-            }
-            if (root.getId() == InterfaceID.DomScoreboard.UNIVERSE) {
-                return root;
-            }
-        }
-
         return null;
     }
 
-    private boolean collectWaveCompletionsFromWidget(Widget widget, Map<Integer, Long> parsed) {
-        boolean sawExpectedFormat = false;
-        if (widget == null || widget.isHidden()) {
-            return false;
-        }
-
-        String text = widget.getText();
-        if (text != null && !text.isEmpty()) {
-            String stripped = text.replaceAll("<[^>]*>", " ").trim();
-            if (!stripped.isEmpty()) {
-                String[] lines = stripped.split("\\r?\\n|<br>|<br/>");
-                for (String rawLine : lines) {
-                    String line = rawLine == null ? "" : rawLine.replace(' ', ' ').trim();
-                    if (line.isEmpty()) {
-                        continue;
-                    }
-                    String lowered = line.toLowerCase(Locale.ROOT);
-                    if (lowered.contains("personal completions") || lowered.contains("level")) {
-                        sawExpectedFormat = true;
-                    }
-                    if (parseWaveCompletionLine(line, parsed)) {
-                        sawExpectedFormat = true;
-                    }
-                }
-            }
-        }
-
-        Widget[] children = widget.getChildren();
-        if (children != null) {
-            for (Widget child : children) {
-                sawExpectedFormat |= collectWaveCompletionsFromWidget(child, parsed);
-            }
-        }
-        Widget[] dynamicChildren = widget.getDynamicChildren();
-        if (dynamicChildren != null) {
-            for (Widget child : dynamicChildren) {
-                sawExpectedFormat |= collectWaveCompletionsFromWidget(child, parsed);
-            }
-        }
-        Widget[] staticChildren = widget.getStaticChildren();
-        if (staticChildren != null) {
-            for (Widget child : staticChildren) {
-                sawExpectedFormat |= collectWaveCompletionsFromWidget(child, parsed);
-            }
-        }
-        Widget[] nestedChildren = widget.getNestedChildren();
-        if (nestedChildren != null) {
-            for (Widget child : nestedChildren) {
-                sawExpectedFormat |= collectWaveCompletionsFromWidget(child, parsed);
-            }
-        }
-
-        return sawExpectedFormat;
-    }
-
-    private boolean parseWaveCompletionLine(String line, Map<Integer, Long> parsed) {
-        Matcher keywordMatcher = WAVE_KEYWORD_LINE_PATTERN.matcher(line);
-        if (keywordMatcher.find()) {
-            Integer wave = parseWaveToken(keywordMatcher.group(1));
-            Long count = parseCountToken(keywordMatcher.group(2));
-            if (wave != null && count != null) {
-                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
-                return true;
-            }
-        }
-
-        Matcher compactMatcher = WAVE_COMPACT_LINE_PATTERN.matcher(line);
-        if (compactMatcher.find()) {
-            Integer wave = parseWaveToken(compactMatcher.group(1));
-            Long count = parseCountToken(compactMatcher.group(2));
-            if (wave != null && count != null && wave >= 1 && wave <= 99) {
-                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
-                return true;
-            }
-        }
-
-        Matcher levelMatcher = LEVEL_COMPLETION_LINE_PATTERN.matcher(line);
-        if (levelMatcher.find()) {
-            Integer wave = parseWaveToken(levelMatcher.group(1));
-            Long count = parseCountToken(levelMatcher.group(2));
-            if (wave != null && count != null) {
-                parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private void parseWaveCompletionsFromStructuredTokens(Widget root, Map<Integer, Long> parsed) {
-        List<String> tokens = new ArrayList<>();
-        collectWidgetTextTokens(root, tokens);
-
-        Deque<Integer> pendingWaves = new ArrayDeque<>();
-        for (String token : tokens) {
-            Matcher levelOnlyMatcher = LEVEL_ONLY_LINE_PATTERN.matcher(token);
-            if (levelOnlyMatcher.find()) {
-                Integer wave = parseWaveToken(levelOnlyMatcher.group(1));
-                if (wave != null) {
-                    pendingWaves.addLast(wave);
-                }
-                continue;
-            }
-
-            if (pendingWaves.isEmpty()) {
-                continue;
-            }
-
-            Matcher countOnlyMatcher = COUNT_ONLY_LINE_PATTERN.matcher(token);
-            if (countOnlyMatcher.find()) {
-                Long count = parseCountToken(countOnlyMatcher.group(1));
-                if (count != null) {
-                    int wave = pendingWaves.removeFirst();
-                    parsed.merge(normalizeWaveKey(wave), count, (a, b) -> Math.max(a, b));
-                }
-            }
-        }
-    }
-
-    private void collectWidgetTextTokens(Widget widget, List<String> tokens) {
-        if (widget == null || widget.isHidden()) {
-            return;
-        }
-
-        String text = widget.getText();
-        if (text != null && !text.isEmpty()) {
-            String stripped = text.replaceAll("<[^>]*>", " ").replace(' ', ' ').trim();
-            if (!stripped.isEmpty()) {
-                String[] lines = stripped.split("\\r?\\n|<br>|<br/>");
-                for (String rawLine : lines) {
-                    String line = rawLine == null ? "" : rawLine.trim();
-                    if (!line.isEmpty()) {
-                        tokens.add(line);
-                    }
-                }
-            }
-        }
-
-        Widget[] children = widget.getChildren();
-        if (children != null) {
-            for (Widget child : children) {
-                collectWidgetTextTokens(child, tokens);
-            }
-        }
-        Widget[] dynamicChildren = widget.getDynamicChildren();
-        if (dynamicChildren != null) {
-            for (Widget child : dynamicChildren) {
-                collectWidgetTextTokens(child, tokens);
-            }
-        }
-        Widget[] staticChildren = widget.getStaticChildren();
-        if (staticChildren != null) {
-            for (Widget child : staticChildren) {
-                collectWidgetTextTokens(child, tokens);
-            }
-        }
-        Widget[] nestedChildren = widget.getNestedChildren();
-        if (nestedChildren != null) {
-            for (Widget child : nestedChildren) {
-                collectWidgetTextTokens(child, tokens);
-            }
-        }
-    }
-
     private Map<String, Long> parseCollectionLogUniqueCounts(Widget itemsContainerWidget) {
         Map<String, Long> parsed = new HashMap<>();
         Widget[] children = itemsContainerWidget.getChildren();
@@ -392,7 +286,7 @@ class HighscoresSyncService {
                 continue;
             }
 
-            String rawName = itemManager.getItemComposition(itemId).getName();
+            String rawName = itemMetadata.getName(itemId);
             String canonicalUniqueName = canonicalizeUniqueName.apply(rawName);
             if (canonicalUniqueName == null) {
                 continue;
@@ -404,45 +298,4 @@ class HighscoresSyncService {
 
         return parsed;
     }
-
-    private Integer parseWaveToken(String token) {
-        if (token == null) {
-            return null;
-        }
-        String cleaned = token.trim();
-        if (cleaned.isEmpty()) {
-            return null;
-        }
-        if (cleaned.endsWith("+")) {
-            return 9;
-        }
-        try {
-            return Integer.valueOf(cleaned);
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-    }
-
-    private Long parseCountToken(String token) {
-        if (token == null) {
-            return null;
-        }
-        String cleaned = token.replace(",", "").trim();
-        if (cleaned.isEmpty()) {
-            return null;
-        }
-        try {
-            long value = Long.parseLong(cleaned);
-            return value >= 0 ? value : null;
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-    }
-
-    private int normalizeWaveKey(int wave) {
-        if (wave < 1) {
-            return 1;
-        }
-        return wave >= 9 ? 9 : wave;
-    }
 }
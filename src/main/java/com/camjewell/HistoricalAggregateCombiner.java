@@ -35,6 +35,7 @@ final class HistoricalAggregateCombiner {
                                 aggregate.totalQuantity,
                                 aggregate.pricePerItem,
                                 aggregate.haPricePerItem);
+                        copy.itemId = aggregate.itemId;
                         copy.totalValue = aggregate.totalValue;
                         copy.totalHaValue = aggregate.totalHaValue;
                         combined.put(aggregate.name, copy);
@@ -0,0 +1,161 @@
+package com.camjewell;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persisted historical totals of one player profile.
+ *
+ * <p>Loot and supply maps are keyed by display name, not item ID. Noted and unnoted drops
+ * of an item share one entry, loot saved before IDs were kept has no ID until it is
+ * resolved, and supply entries group every dose of a potion. The item ID is kept on each
+ * {@link ItemAggregate} for repricing instead.
+ */
+class HistoricalData {
+    Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave;
+    Map<Integer, Long> historicalClaimedByWave;
+    Map<Integer, Long> historicalCompletedRunsByWave;
+    Map<String, Long> collectionLogClaimedUniqueCounts;
+    Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave;
+    Map<Integer, Long> historicalUnclaimedByWave;
+    Map<String, ItemAggregate> historicalSuppliesUsed;
+    long historicalTotalClaimed;
+    long historicalClaims;
+    long historicalDeaths;
+    // Sequence of the last journal record folded into this data.
+    long journalSequence;
+
+    /**
+     * Read-only copy for the persistence thread. Aggregates unchanged since their last
+     * {@link ItemAggregate#snapshot()}, and per-wave maps whose aggregates are all
+     * unchanged since {@code previous} was taken, are shared instead of copied again.
+     */
+    HistoricalData snapshot(HistoricalData previous) {
+        HistoricalData snapshot = new HistoricalData();
+        snapshot.historicalClaimedItemsByWave = snapshotItemsByWave(historicalClaimedItemsByWave,
+                previous != null ? previous.historicalClaimedItemsByWave : null);
+        snapshot.historicalUnclaimedItemsByWave = snapshotItemsByWave(historicalUnclaimedItemsByWave,
+                previous != null ? previous.historicalUnclaimedItemsByWave : null);
+        snapshot.historicalSuppliesUsed = snapshotItems(historicalSuppliesUsed,
+                previous != null ? previous.historicalSuppliesUsed : null);
+        snapshot.historicalClaimedByWave = copyMap(historicalClaimedByWave);
+        snapshot.historicalCompletedRunsByWave = copyMap(historicalCompletedRunsByWave);
+        snapshot.collectionLogClaimedUniqueCounts = copyMap(collectionLogClaimedUniqueCounts);
+        snapshot.historicalUnclaimedByWave = copyMap(historicalUnclaimedByWave);
+        snapshot.historicalTotalClaimed = historicalTotalClaimed;
+        snapshot.historicalClaims = historicalClaims;
+        snapshot.historicalDeaths = historicalDeaths;
+        snapshot.journalSequence = journalSequence;
+        return snapshot;
+    }
+
+    /**
+     * Like {@link #snapshot}, but only looks at the loot waves and supplies listed as
+     * changed since {@code previous} was taken; every other wave is shared with it as is.
+     * Costs O(changed aggregates) instead of O(history).
+     */
+    HistoricalData snapshotChanged(HistoricalData previous, Set<Integer> changedClaimedWaves,
+            Set<Integer> changedUnclaimedWaves, boolean suppliesChanged) {
+        HistoricalData snapshot = new HistoricalData();
+        snapshot.historicalClaimedItemsByWave = snapshotChangedWaves(historicalClaimedItemsByWave,
+                previous.historicalClaimedItemsByWave, changedClaimedWaves);
+        snapshot.historicalUnclaimedItemsByWave = snapshotChangedWaves(historicalUnclaimedItemsByWave,
+                previous.historicalUnclaimedItemsByWave, changedUnclaimedWaves);
+        snapshot.historicalSuppliesUsed = suppliesChanged
+                ? snapshotItems(historicalSuppliesUsed, previous.historicalSuppliesUsed)
+                : previous.historicalSuppliesUsed;
+        snapshot.historicalClaimedByWave = copyMap(historicalClaimedByWave);
+        snapshot.historicalCompletedRunsByWave = copyMap(historicalCompletedRunsByWave);
+        snapshot.collectionLogClaimedUniqueCounts = copyMap(collectionLogClaimedUniqueCounts);
+        snapshot.historicalUnclaimedByWave = copyMap(historicalUnclaimedByWave);
+        snapshot.historicalTotalClaimed = historicalTotalClaimed;
+        snapshot.historicalClaims = historicalClaims;
+        snapshot.historicalDeaths = historicalDeaths;
+        snapshot.journalSequence = journalSequence;
+        return snapshot;
+    }
+
+    /** Creates any missing collections so journal records can be folded in. */
+    void ensureCollections() {
+        if (historicalClaimedItemsByWave == null) {
+            historicalClaimedItemsByWave = new HashMap<>();
+        }
+        if (historicalClaimedByWave == null) {
+            historicalClaimedByWave = new HashMap<>();
+        }
+        if (historicalUnclaimedItemsByWave == null) {
+            historicalUnclaimedItemsByWave = new HashMap<>();
+        }
+        if (historicalUnclaimedByWave == null) {
+            historicalUnclaimedByWave = new HashMap<>();
+        }
+        if (historicalSuppliesUsed == null) {
+            historicalSuppliesUsed = new HashMap<>();
+        }
+    }
+
+    private static Map<Integer, Map<String, ItemAggregate>> snapshotItemsByWave(
+            Map<Integer, Map<String, ItemAggregate>> itemsByWave,
+            Map<Integer, Map<String, ItemAggregate>> previous) {
+        if (itemsByWave == null) {
+            return null;
+        }
+        Map<Integer, Map<String, ItemAggregate>> snapshot = new HashMap<>();
+        for (Map.Entry<Integer, Map<String, ItemAggregate>> entry : itemsByWave.entrySet()) {
+            snapshot.put(entry.getKey(), snapshotItems(entry.getValue(),
+                    previous != null ? previous.get(entry.getKey()) : null));
+        }
+        return snapshot;
+    }
+
+    private static Map<Integer, Map<String, ItemAggregate>> snapshotChangedWaves(
+            Map<Integer, Map<String, ItemAggregate>> itemsByWave,
+            Map<Integer, Map<String, ItemAggregate>> previous,
+            Set<Integer> changedWaves) {
+        if (itemsByWave == null || previous == null) {
+            return snapshotItemsByWave(itemsByWave, previous);
+        }
+        if (changedWaves.isEmpty()) {
+            return previous;
+        }
+        Map<Integer, Map<String, ItemAggregate>> snapshot = new HashMap<>(previous);
+        for (Integer wave : changedWaves) {
+            Map<String, ItemAggregate> items = itemsByWave.get(wave);
+            if (items != null) {
+                snapshot.put(wave, snapshotItems(items, previous.get(wave)));
+            } else {
+                snapshot.remove(wave);
+            }
+        }
+        return snapshot;
+    }
+
+    private static Map<String, ItemAggregate> snapshotItems(Map<String, ItemAggregate> items,
+            Map<String, ItemAggregate> previous) {
+        if (items == null) {
+            return null;
+        }
+        boolean unchanged = previous != null && previous.size() == items.size();
+        for (Map.Entry<String, ItemAggregate> entry : items.entrySet()) {
+            ItemAggregate aggregate = entry.getValue();
+            ItemAggregate snapshot = aggregate != null ? aggregate.snapshot() : null;
+            if (unchanged && (snapshot != previous.get(entry.getKey())
+                    || (snapshot == null && !previous.containsKey(entry.getKey())))) {
+                unchanged = false;
+            }
+        }
+        if (unchanged) {
+            return previous;
+        }
+        Map<String, ItemAggregate> snapshot = new HashMap<>();
+        for (Map.Entry<String, ItemAggregate> entry : items.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue() != null ? entry.getValue().snapshot() : null);
+        }
+        return snapshot;
+    }
+
+    private static <K, V> Map<K, V> copyMap(Map<K, V> map) {
+        return map != null ? new HashMap<>(map) : null;
+    }
+}
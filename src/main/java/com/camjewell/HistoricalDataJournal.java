@@ -0,0 +1,160 @@
+package com.camjewell;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Append-only log of one player's run events (claims, unclaimed runs, deaths, supply
+ * archives). Each record is one compact JSON line, so persisting a finished run costs
+ * O(one run) instead of rewriting the player's snapshot. Records carry a
+ * monotonically increasing sequence number; snapshots remember the last sequence
+ * they include so a record is never replayed twice.
+ */
+class HistoricalDataJournal {
+    private static final Logger log = LoggerFactory.getLogger(HistoricalDataJournal.class);
+
+    enum RecordType {
+        CLAIMED_RUN, UNCLAIMED_RUN, DEATH, SUPPLIES
+    }
+
+    static final class Record {
+        long sequence;
+        String playerKey;
+        RecordType type;
+        long timestamp;
+        Map<Integer, List<LootItem>> lootByWave;
+        List<ItemAggregate> supplies;
+    }
+
+    private final File journalFile;
+    private final Gson gson;
+
+    private boolean loaded;
+    // Read without the journal lock so checking it never waits on file I/O.
+    private final AtomicLong lastSequence = new AtomicLong();
+    private int recordCount;
+
+    HistoricalDataJournal(File journalFile, Gson gson) {
+        this.journalFile = journalFile;
+        this.gson = gson;
+    }
+
+    /** Highest sequence read from or appended to this journal, or folded into its snapshot. */
+    long getAssignedSequence() {
+        return lastSequence.get();
+    }
+
+    /** Appends a record whose sequence is higher than every earlier record's. */
+    synchronized void append(Record record) throws IOException {
+        ensureLoaded();
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(journalFile, true), StandardCharsets.UTF_8))) {
+            writer.write(gson.toJson(record));
+            writer.write('\n');
+        }
+
+        lastSequence.accumulateAndGet(record.sequence, Math::max);
+        recordCount++;
+    }
+
+    synchronized List<Record> readAll() throws IOException {
+        List<Record> records = new ArrayList<>();
+        boolean skippedRecords = false;
+        if (journalFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Record record = gson.fromJson(line, Record.class);
+                        if (record != null && record.type != null) {
+                            records.add(record);
+                            lastSequence.accumulateAndGet(record.sequence, Math::max);
+                        }
+                    } catch (JsonParseException e) {
+                        // A torn trailing line from a crash mid-append; everything before it is intact.
+                        log.warn("Skipping unreadable historical journal record", e);
+                        skippedRecords = true;
+                    }
+                }
+            }
+        }
+
+        if (skippedRecords) {
+            // Rewrite without the torn line so the next append does not land on the same line.
+            writeRecords(records);
+        }
+
+        loaded = true;
+        recordCount = records.size();
+        return records;
+    }
+
+    /** Drops every record up to and including {@code sequence}, keeping anything appended since. */
+    synchronized void discardThrough(long sequence) throws IOException {
+        List<Record> remaining = new ArrayList<>();
+        for (Record record : readAll()) {
+            if (record.sequence > sequence) {
+                remaining.add(record);
+            }
+        }
+
+        writeRecords(remaining);
+        recordCount = remaining.size();
+    }
+
+    /** Keeps new sequence numbers ahead of anything already folded into a snapshot. */
+    void ensureSequenceAtLeast(long sequence) {
+        lastSequence.accumulateAndGet(sequence, Math::max);
+    }
+
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    private void writeRecords(List<Record> records) throws IOException {
+        if (records.isEmpty()) {
+            if (journalFile.exists() && !journalFile.delete()) {
+                throw new IOException("Unable to delete historical journal " + journalFile.getAbsolutePath());
+            }
+            return;
+        }
+
+        AtomicFileWriter.write(journalFile, 0, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (Record record : records) {
+                writer.write(gson.toJson(record));
+                writer.write('\n');
+            }
+            writer.flush();
+        });
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (!loaded) {
+            readAll();
+        }
+    }
+}
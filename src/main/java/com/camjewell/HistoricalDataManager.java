@@ -1,16 +1,24 @@
 package com.camjewell;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
@@ -18,17 +26,83 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
 
 public class HistoricalDataManager {
     private static final Logger log = LoggerFactory.getLogger(HistoricalDataManager.class);
 
     private static final String MOKHALOOT_DIR = "mokhaloot";
-    private static final String DATA_FILE = "historical-data.json";
     private static final String DEFAULT_PLAYER_KEY = "default";
+    // Fold a player's journal back into their snapshot once it holds this many records.
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 50;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 10;
+
+    /** A player's data and run history as read by {@link #loadDataForPlayer}. */
+    public static final class LoadedPlayerData {
+        final String playerKey;
+        final HistoricalData data;
+        final RunHistoryStore runHistory;
+
+        LoadedPlayerData(String playerKey, HistoricalData data, RunHistoryStore runHistory) {
+            this.playerKey = playerKey;
+            this.data = data;
+            this.runHistory = runHistory;
+        }
+
+        public String getPlayerKey() {
+            return playerKey;
+        }
+
+        public boolean hasData() {
+            return HistoricalDataStore.hasData(data);
+        }
+    }
+
+    /** A snapshot waiting for the writer and how many of the player's journal records it includes. */
+    private static final class PendingSnapshot {
+        final HistoricalData data;
+        final long recordCount;
+
+        PendingSnapshot(HistoricalData data, long recordCount) {
+            this.data = data;
+            this.recordCount = recordCount;
+        }
+    }
 
-    private final File dataFile;
     private final Gson gson;
+    private final HistoricalDataStore store;
+
+    // All disk I/O runs on this single thread, in submission order. Callers only capture
+    // a snapshot and enqueue.
+    private final ExecutorService persistenceExecutor;
+    // Latest unwritten snapshot per player. A burst of saves replaces the entry and is
+    // written once by the already queued task.
+    private final Map<String, PendingSnapshot> pendingSnapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean snapshotWriteQueued = new AtomicBoolean();
+    // Last snapshot handed to the writer; unchanged parts of the next one are shared with it.
+    private HistoricalData lastSnapshot;
+    private String lastSnapshotPlayerKey;
+    // What changed since lastSnapshot, marked where the aggregates are mutated, so a save
+    // only copies those waves. Anything not covered by a finer mark sets historyChanged.
+    private final Set<Integer> changedClaimedWaves = new HashSet<>();
+    private final Set<Integer> changedUnclaimedWaves = new HashSet<>();
+    private boolean suppliesChanged;
+    private boolean historyChanged = true;
+    // Keeps record numbering and submission in the same order.
+    private final Object journalSubmitLock = new Object();
+    private final AtomicInteger queuedWrites = new AtomicInteger();
+    private volatile long lastWriteLatencyNanos;
+    // Journal records queued per player this session. Record n gets sequence
+    // journalBase + n on the writer thread, so queuing one never reads the player's files.
+    private final Map<String, AtomicLong> queuedRecordCounts = new ConcurrentHashMap<>();
+    // Writer thread only: the player's last journal sequence before this session.
+    private final Map<String, Long> journalBases = new HashMap<>();
+    // Claimed runs queued per player and not yet on disk, for hasDataForPlayer.
+    private final Map<String, AtomicInteger> queuedClaims = new ConcurrentHashMap<>();
+    // Per-run history of the active player; null until a player is loaded.
+    private volatile RunHistoryStore runHistory;
+
+    private final ItemIdDictionary itemIdDictionary = new ItemIdDictionary(this::queueItemIdDictionaryWrite);
+    private final AtomicBoolean itemIdDictionaryWriteQueued = new AtomicBoolean();
 
     private Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave;
     private Map<Integer, Long> historicalClaimedByWave;
@@ -48,8 +122,22 @@ public class HistoricalDataManager {
             mokhalootDir.mkdirs();
         }
 
-        this.dataFile = new File(mokhalootDir, DATA_FILE);
         this.gson = gson.newBuilder().setPrettyPrinting().create();
+        this.store = new HistoricalDataStore(mokhalootDir, gson);
+        this.persistenceExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "mokhaloot-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First task on the queue, so every later load or save sees the per-player layout.
+        submitWrite(() -> {
+            try {
+                store.migrateLegacyStorage();
+            } catch (IOException e) {
+                log.error("Failed to migrate historical data into per-player files", e);
+            }
+        });
+        submitWrite(() -> itemIdDictionary.load(store.readItemIds()));
 
         // Initialize with empty data
         this.historicalClaimedItemsByWave = new HashMap<>();
@@ -65,54 +153,364 @@ public class HistoricalDataManager {
         this.activePlayerKey = DEFAULT_PLAYER_KEY;
     }
 
-    public void loadData() {
-        loadDataForPlayer(DEFAULT_PLAYER_KEY);
+    /**
+     * Reads a player's data and opens their run history on the persistence thread, after
+     * every write queued before this call, and hands the result to {@code callback} there.
+     * Nothing changes here until the caller passes the result to {@link #applyLoadedData}.
+     */
+    public void loadDataForPlayer(String playerKey, Consumer<LoadedPlayerData> callback) {
+        String normalizedPlayerKey = normalizePlayerKey(playerKey);
+        submitWrite(() -> {
+            HistoricalData playerData;
+            try {
+                playerData = store.read(normalizedPlayerKey);
+            } catch (IOException e) {
+                log.error("Failed to load historical data for player '{}'", normalizedPlayerKey, e);
+                playerData = new HistoricalData();
+            }
+            callback.accept(new LoadedPlayerData(normalizedPlayerKey, playerData,
+                    openRunHistory(normalizedPlayerKey)));
+        });
+    }
+
+    /** Makes data read by {@link #loadDataForPlayer} the active player's. */
+    public void applyLoadedData(LoadedPlayerData loaded) {
+        this.activePlayerKey = loaded.playerKey;
+        applyDataToFields(loaded.data);
+        runHistory = loaded.runHistory;
+        if (loaded.data == null) {
+            log.info("No historical data found, starting fresh for player '{}'", loaded.playerKey);
+        } else {
+            log.info("Loaded historical data from file for player '{}'", loaded.playerKey);
+        }
+    }
+
+    public void saveData() {
+        saveDataForPlayer(activePlayerKey);
     }
 
-    public void loadDataForPlayer(String playerKey) {
+    /**
+     * Captures a detached copy of the current data and queues it for writing. Only the
+     * waves and supplies marked changed since the previous save are looked at. Saves issued
+     * before the writer gets to them collapse into a single write of the newest copy.
+     */
+    public void saveDataForPlayer(String playerKey) {
         String normalizedPlayerKey = normalizePlayerKey(playerKey);
 
-        if (!dataFile.exists()) {
-            this.activePlayerKey = normalizedPlayerKey;
-            applyDataToFields(new HistoricalData());
-            log.info("Historical data file does not exist, starting fresh for player '{}'", normalizedPlayerKey);
+        HistoricalData snapshot;
+        if (historyChanged || lastSnapshot == null || !normalizedPlayerKey.equals(lastSnapshotPlayerKey)) {
+            snapshot = snapshotCurrentData().snapshot(lastSnapshot);
+        } else {
+            snapshot = snapshotCurrentData().snapshotChanged(lastSnapshot, changedClaimedWaves,
+                    changedUnclaimedWaves, suppliesChanged);
+        }
+        lastSnapshot = snapshot;
+        lastSnapshotPlayerKey = normalizedPlayerKey;
+        changedClaimedWaves.clear();
+        changedUnclaimedWaves.clear();
+        suppliesChanged = false;
+        historyChanged = false;
+        synchronized (journalSubmitLock) {
+            // Every record queued so far is already reflected in the in-memory data.
+            pendingSnapshots.put(normalizedPlayerKey,
+                    new PendingSnapshot(snapshot, queuedRecordCount(normalizedPlayerKey).get()));
+        }
+        this.activePlayerKey = normalizedPlayerKey;
+
+        if (snapshotWriteQueued.compareAndSet(false, true)) {
+            if (!submitWrite(this::writePendingSnapshots)) {
+                snapshotWriteQueued.set(false);
+            }
+        }
+    }
+
+    /** Marks a wave of claimed loot as changed since the last save. */
+    public void markClaimedWaveChanged(int wave) {
+        changedClaimedWaves.add(wave);
+    }
+
+    /** Marks a wave of unclaimed loot as changed since the last save. */
+    public void markUnclaimedWaveChanged(int wave) {
+        changedUnclaimedWaves.add(wave);
+    }
+
+    /** Marks the supply aggregates as changed since the last save. */
+    public void markSuppliesChanged() {
+        suppliesChanged = true;
+    }
+
+    /**
+     * Marks all history as changed, for edits that touch aggregates across waves such as
+     * repricing, removals and clears. The next save walks every aggregate.
+     */
+    public void markAllHistoryChanged() {
+        historyChanged = true;
+    }
+
+    /**
+     * Queues a single run event for the journal instead of rewriting the snapshot. The
+     * in-memory aggregates must already include the event. Returns false if the record
+     * could not be queued, in which case the caller should fall back to a full save.
+     */
+    public boolean appendJournalRecord(
+            String playerKey,
+            HistoricalDataJournal.RecordType type,
+            Map<Integer, List<LootItem>> lootByWave,
+            List<ItemAggregate> supplies) {
+        HistoricalDataJournal.Record record = new HistoricalDataJournal.Record();
+        record.playerKey = normalizePlayerKey(playerKey);
+        record.type = type;
+        record.timestamp = System.currentTimeMillis();
+        record.lootByWave = lootByWave != null ? copyLootByWave(lootByWave) : null;
+        record.supplies = supplies != null ? copyAggregates(supplies) : null;
+
+        boolean claim = type == HistoricalDataJournal.RecordType.CLAIMED_RUN;
+        synchronized (journalSubmitLock) {
+            long recordNumber = queuedRecordCount(record.playerKey).incrementAndGet();
+            if (claim) {
+                queuedClaims.computeIfAbsent(record.playerKey, key -> new AtomicInteger()).incrementAndGet();
+            }
+            if (submitWrite(() -> appendRecord(record, recordNumber, claim))) {
+                return true;
+            }
+            // Never queued: numbering must not skip it, or a later snapshot would claim it.
+            queuedRecordCount(record.playerKey).decrementAndGet();
+            if (claim) {
+                queuedClaims.get(record.playerKey).decrementAndGet();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Adds a finished run to the active player's run history and queues it for writing.
+     * Returns the run ID for {@link #amendRunWeaponCharges}, or -1 if no history is open.
+     */
+    public long recordRun(RunRecord run) {
+        RunHistoryStore history = runHistory;
+        if (history == null) {
+            return -1;
+        }
+
+        long runId = history.append(run);
+        submitWrite(() -> writeRunHistory(history));
+        return runId;
+    }
+
+    public void amendRunWeaponCharges(long runId, Map<Integer, Integer> weaponChargesUsed) {
+        RunHistoryStore history = runHistory;
+        if (history != null && history.amendWeaponCharges(runId, weaponChargesUsed)) {
+            submitWrite(() -> writeRunHistory(history));
+        }
+    }
+
+    /**
+     * Totals of the active player's runs with {@code fromMillis <= timestamp < toMillis},
+     * answered from the in-memory index. Null if no history is open.
+     */
+    public RunHistoryStore.RunRange queryRuns(long fromMillis, long toMillis) {
+        RunHistoryStore history = runHistory;
+        return history != null ? history.query(fromMillis, toMillis) : null;
+    }
+
+    /** The most recent {@code count} runs of a range returned by {@link #queryRuns}. */
+    public RunHistoryStore.RunRange lastRuns(RunHistoryStore.RunRange range, int count) {
+        RunHistoryStore history = runHistory;
+        return history != null ? history.lastRuns(range, count) : range;
+    }
+
+    /**
+     * Reads the full records of a range returned by {@link #queryRuns} on the persistence
+     * thread and hands them, oldest first, to {@code callback} there. Nothing is handed over
+     * if the history cannot be read.
+     */
+    public void loadRuns(RunHistoryStore.RunRange range, Consumer<List<RunRecord>> callback) {
+        RunHistoryStore history = runHistory;
+        if (history == null) {
+            callback.accept(new ArrayList<>());
             return;
         }
 
+        submitWrite(() -> {
+            List<RunRecord> runs;
+            try {
+                runs = history.loadRuns(range);
+            } catch (IOException e) {
+                log.warn("Failed to read run history", e);
+                return;
+            }
+            callback.accept(runs);
+        });
+    }
+
+    /** Item name to ID lookups, shared by all players and saved whenever a name is added. */
+    public ItemIdDictionary getItemIdDictionary() {
+        return itemIdDictionary;
+    }
+
+    /** Number of queued snapshot writes and journal appends not yet on disk. */
+    public int getPendingWriteCount() {
+        return queuedWrites.get();
+    }
+
+    /** Duration of the most recent snapshot write or journal append, in milliseconds. */
+    public long getLastWriteLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastWriteLatencyNanos);
+    }
+
+    /** Writes everything queued so far, then stops the persistence thread. */
+    public void shutdown() {
+        persistenceExecutor.shutdown();
+        try {
+            if (!persistenceExecutor.awaitTermination(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for {} historical data write(s) to finish", queuedWrites.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AtomicLong queuedRecordCount(String playerKey) {
+        return queuedRecordCounts.computeIfAbsent(playerKey, key -> new AtomicLong());
+    }
+
+    /**
+     * Writer thread only. The player's last journal sequence before this session; reads
+     * their snapshot and journal the first time it is needed.
+     */
+    private long journalBase(String playerKey) throws IOException {
+        Long base = journalBases.get(playerKey);
+        if (base == null) {
+            store.read(playerKey);
+            base = store.journal(playerKey).getAssignedSequence();
+            journalBases.put(playerKey, base);
+        }
+        return base;
+    }
+
+    /**
+     * Queues a write. Tasks run one at a time in submission order, so a load queued after
+     * a write sees it on disk.
+     */
+    private boolean submitWrite(Runnable write) {
+        queuedWrites.incrementAndGet();
+        try {
+            persistenceExecutor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    write.run();
+                } finally {
+                    lastWriteLatencyNanos = System.nanoTime() - start;
+                    int remaining = queuedWrites.decrementAndGet();
+                    log.debug("Historical data write took {} ms, {} still queued",
+                            TimeUnit.NANOSECONDS.toMillis(lastWriteLatencyNanos), remaining);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queuedWrites.decrementAndGet();
+            log.warn("Historical data writer is shut down, dropping write");
+            return false;
+        }
+    }
+
+    private void queueItemIdDictionaryWrite() {
+        // Names learned before the writer runs are all saved by the same write.
+        if (itemIdDictionaryWriteQueued.compareAndSet(false, true)) {
+            if (!submitWrite(this::writeItemIdDictionary)) {
+                itemIdDictionaryWriteQueued.set(false);
+            }
+        }
+    }
+
+    private void writeItemIdDictionary() {
+        itemIdDictionaryWriteQueued.set(false);
         try {
-            Map<String, HistoricalData> allData = readAllPlayerData();
-            HistoricalData playerData = allData.getOrDefault(normalizedPlayerKey, new HistoricalData());
-            this.activePlayerKey = normalizedPlayerKey;
-            applyDataToFields(playerData);
-            log.info("Loaded historical data from file for player '{}'", normalizedPlayerKey);
+            store.writeItemIds(itemIdDictionary.toMap());
         } catch (IOException e) {
-            log.error("Failed to load historical data for player '{}'", normalizedPlayerKey, e);
-            applyDataToFields(new HistoricalData());
+            log.error("Failed to write item ID dictionary", e);
         }
     }
 
-    public void saveData() {
-        saveDataForPlayer(activePlayerKey);
+    private RunHistoryStore openRunHistory(String playerKey) {
+        try {
+            return store.openRunHistory(playerKey);
+        } catch (IOException e) {
+            log.error("Failed to open run history for player '{}'", playerKey, e);
+            return null;
+        }
     }
 
-    public void saveDataForPlayer(String playerKey) {
-        String normalizedPlayerKey = normalizePlayerKey(playerKey);
+    private void writeRunHistory(RunHistoryStore history) {
+        try {
+            history.writePending();
+        } catch (IOException e) {
+            log.error("Failed to write run history", e);
+        }
+    }
 
+    private void appendRecord(HistoricalDataJournal.Record record, long recordNumber, boolean claim) {
+        HistoricalDataJournal journal = store.journal(record.playerKey);
         try {
-            Map<String, HistoricalData> allData = readAllPlayerData();
-            allData.put(normalizedPlayerKey, snapshotCurrentData());
+            record.sequence = journalBase(record.playerKey) + recordNumber;
+            journal.append(record);
+            log.debug("Appended {} journal record #{} for player '{}'", record.type, record.sequence,
+                    record.playerKey);
+            store.recordJournalAppend(record.playerKey, record);
+        } catch (IOException e) {
+            // The in-memory data still holds the event, so the next snapshot save persists it.
+            log.error("Failed to append {} journal record for player '{}'", record.type, record.playerKey, e);
+            return;
+        } finally {
+            if (claim) {
+                queuedClaims.get(record.playerKey).decrementAndGet();
+            }
+        }
 
-            HistoricalDataFile fileData = new HistoricalDataFile();
-            fileData.players = allData;
+        if (journal.getRecordCount() >= JOURNAL_COMPACTION_THRESHOLD) {
+            writePlayerSnapshot(record.playerKey, true);
+        }
+    }
+
+    private void writePendingSnapshots() {
+        snapshotWriteQueued.set(false);
+        for (String playerKey : new ArrayList<>(pendingSnapshots.keySet())) {
+            writePlayerSnapshot(playerKey, false);
+        }
+    }
 
-            try (FileWriter writer = new FileWriter(dataFile)) {
-                gson.toJson(fileData, writer);
+    /**
+     * Writes the player's pending snapshot, or when compacting without one, their snapshot
+     * rebuilt from disk. A compaction must prefer the pending snapshot: compacting from disk
+     * would discard records newer than the pending snapshot, which would then overwrite
+     * their effect.
+     */
+    private void writePlayerSnapshot(String playerKey, boolean compact) {
+        try {
+            PendingSnapshot pending = pendingSnapshots.remove(playerKey);
+            HistoricalData snapshot;
+            if (pending != null) {
+                // Later saves share its aggregates but never read its sequence.
+                snapshot = pending.data;
+                snapshot.journalSequence = journalBase(playerKey) + pending.recordCount;
+            } else {
+                if (!compact) {
+                    return;
+                }
+                snapshot = store.read(playerKey);
+                if (snapshot == null) {
+                    return;
+                }
             }
 
-            this.activePlayerKey = normalizedPlayerKey;
-            log.info("Saved historical data to file for player '{}'", normalizedPlayerKey);
-        } catch (IOException e) {
-            log.error("Failed to save historical data for player '{}'", normalizedPlayerKey, e);
+            store.write(playerKey, snapshot);
+            if (compact) {
+                log.debug("Compacted historical journal for player '{}'", playerKey);
+            } else {
+                log.info("Saved historical data to file for player '{}'", playerKey);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to save historical data for player '{}'", playerKey, e);
         }
     }
 
@@ -154,18 +552,22 @@ public class HistoricalDataManager {
         return activePlayerKey;
     }
 
-    /** Copies the current data file to historical-data.backup.json in the same directory. */
+    /**
+     * Queues a copy of the active player's data file to {@code <file>.backup.bin} next to
+     * it, taken once the writes queued before it are on disk.
+     */
     public void backupDataFile() {
-        if (!dataFile.exists()) {
-            return;
-        }
-        File backupFile = new File(dataFile.getParentFile(), "historical-data.backup.json");
-        try {
-            Files.copy(dataFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            log.info("Backed up historical data to {}", backupFile.getAbsolutePath());
-        } catch (IOException e) {
-            log.error("Failed to back up historical data file", e);
-        }
+        String playerKey = activePlayerKey;
+        submitWrite(() -> {
+            try {
+                File backupFile = store.backupShard(playerKey);
+                if (backupFile != null) {
+                    log.info("Backed up historical data to {}", backupFile.getAbsolutePath());
+                }
+            } catch (IOException e) {
+                log.error("Failed to back up historical data file", e);
+            }
+        });
     }
 
     /**
@@ -184,6 +586,9 @@ public class HistoricalDataManager {
                 }
             }
         }
+        if (changed) {
+            suppliesChanged = true;
+        }
         return changed;
     }
 
@@ -230,10 +635,16 @@ public class HistoricalDataManager {
 
     // Setters
     public void setHistoricalClaimedItemsByWave(Map<Integer, Map<String, ItemAggregate>> data) {
+        if (data != this.historicalClaimedItemsByWave) {
+            historyChanged = true;
+        }
         this.historicalClaimedItemsByWave = data;
     }
 
     public void setHistoricalSuppliesUsed(Map<String, ItemAggregate> data) {
+        if (data != this.historicalSuppliesUsed) {
+            historyChanged = true;
+        }
         this.historicalSuppliesUsed = data;
     }
 
@@ -266,10 +677,13 @@ public class HistoricalDataManager {
     }
 
     public void setHistoricalUnclaimedItemsByWave(Map<Integer, Map<String, ItemAggregate>> data) {
+        if (data != this.historicalUnclaimedItemsByWave) {
+            historyChanged = true;
+        }
         this.historicalUnclaimedItemsByWave = data;
     }
 
-    private String normalizePlayerKey(String playerKey) {
+    static String normalizePlayerKey(String playerKey) {
         if (playerKey == null) {
             return DEFAULT_PLAYER_KEY;
         }
@@ -295,6 +709,7 @@ public class HistoricalDataManager {
 
     private void applyDataToFields(HistoricalData data) {
         HistoricalData safeData = Objects.requireNonNullElseGet(data, HistoricalData::new);
+        historyChanged = true;
 
         this.historicalClaimedItemsByWave = safeData.historicalClaimedItemsByWave != null
                 ? safeData.historicalClaimedItemsByWave
@@ -322,112 +737,41 @@ public class HistoricalDataManager {
                 : new HashMap<>();
     }
 
-    public boolean hasDataForPlayer(String playerKey) {
-        try {
-            Map<String, HistoricalData> allData = readAllPlayerData();
-            HistoricalData data = allData.get(normalizePlayerKey(playerKey));
-            if (data == null) {
-                return false;
-            }
-            return data.historicalClaims > 0
-                    || data.historicalTotalClaimed > 0
-                    || (data.historicalClaimedItemsByWave != null && !data.historicalClaimedItemsByWave.isEmpty())
-                    || (data.historicalCompletedRunsByWave != null && !data.historicalCompletedRunsByWave.isEmpty())
-                    || (data.collectionLogClaimedUniqueCounts != null
-                            && !data.collectionLogClaimedUniqueCounts.isEmpty());
-        } catch (IOException e) {
-            return false;
+    /**
+     * Whether the player has persisted history, counting saves and claims still queued.
+     * Answered from memory or the store's summary index without waiting for the writer.
+     * Null if only reading the player's data can tell; {@link LoadedPlayerData#hasData}
+     * answers it once {@link #loadDataForPlayer} has.
+     */
+    public Boolean hasDataForPlayer(String playerKey) {
+        String normalizedPlayerKey = normalizePlayerKey(playerKey);
+        PendingSnapshot pending = pendingSnapshots.get(normalizedPlayerKey);
+        AtomicInteger claims = queuedClaims.get(normalizedPlayerKey);
+        if ((pending != null && HistoricalDataStore.hasData(pending.data)) || (claims != null && claims.get() > 0)) {
+            return true;
         }
+        return store.cachedHasData(normalizedPlayerKey);
     }
 
-    private Map<String, HistoricalData> readAllPlayerData() throws IOException {
-        Map<String, HistoricalData> allData = new HashMap<>();
-
-        if (!dataFile.exists()) {
-            return allData;
-        }
-
-        try (FileReader reader = new FileReader(dataFile)) {
-            Type type = new TypeToken<HistoricalDataFile>() {
-            }.getType();
-            HistoricalDataFile parsed = gson.fromJson(reader, type);
-
-            if (parsed == null) {
-                return allData;
-            }
-
-            if (parsed.players != null && !parsed.players.isEmpty()) {
-                for (Map.Entry<String, HistoricalData> entry : parsed.players.entrySet()) {
-                    allData.put(normalizePlayerKey(entry.getKey()), entry.getValue());
+    private static Map<Integer, List<LootItem>> copyLootByWave(Map<Integer, List<LootItem>> lootByWave) {
+        Map<Integer, List<LootItem>> copy = new HashMap<>();
+        for (Map.Entry<Integer, List<LootItem>> entry : lootByWave.entrySet()) {
+            List<LootItem> items = new ArrayList<>();
+            if (entry.getValue() != null) {
+                for (LootItem item : entry.getValue()) {
+                    items.add(new LootItem(item.itemId, item.name, item.quantity, item.value, item.haValue));
                 }
-                return allData;
-            }
-
-            // Backward compatibility: migrate legacy single-profile structure into default
-            // player slot.
-            if (parsed.hasLegacyData()) {
-                allData.put(DEFAULT_PLAYER_KEY, parsed.toLegacyHistoricalData());
             }
-
-            return allData;
-        }
-    }
-
-    private static class HistoricalDataFile {
-        Map<String, HistoricalData> players;
-
-        // Legacy single-profile fields (pre-player separation).
-        Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave;
-        Map<Integer, Long> historicalClaimedByWave;
-        Map<Integer, Long> historicalCompletedRunsByWave;
-        Map<String, Long> collectionLogClaimedUniqueCounts;
-        Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave;
-        Map<Integer, Long> historicalUnclaimedByWave;
-        Map<String, ItemAggregate> historicalSuppliesUsed;
-        long historicalTotalClaimed;
-        long historicalClaims;
-        long historicalDeaths;
-
-        private boolean hasLegacyData() {
-            return historicalClaimedItemsByWave != null ||
-                    historicalClaimedByWave != null ||
-                    historicalCompletedRunsByWave != null ||
-                    collectionLogClaimedUniqueCounts != null ||
-                    historicalUnclaimedItemsByWave != null ||
-                    historicalUnclaimedByWave != null ||
-                    historicalSuppliesUsed != null ||
-                    historicalTotalClaimed != 0 ||
-                    historicalClaims != 0 ||
-                    historicalDeaths != 0;
-        }
-
-        private HistoricalData toLegacyHistoricalData() {
-            HistoricalData data = new HistoricalData();
-            data.historicalClaimedItemsByWave = historicalClaimedItemsByWave;
-            data.historicalClaimedByWave = historicalClaimedByWave;
-            data.historicalCompletedRunsByWave = historicalCompletedRunsByWave;
-            data.collectionLogClaimedUniqueCounts = collectionLogClaimedUniqueCounts;
-            data.historicalUnclaimedItemsByWave = historicalUnclaimedItemsByWave;
-            data.historicalUnclaimedByWave = historicalUnclaimedByWave;
-            data.historicalSuppliesUsed = historicalSuppliesUsed;
-            data.historicalTotalClaimed = historicalTotalClaimed;
-            data.historicalClaims = historicalClaims;
-            data.historicalDeaths = historicalDeaths;
-            return data;
-        }
-    }
-
-    private static class HistoricalData {
-        Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave;
-        Map<Integer, Long> historicalClaimedByWave;
-        Map<Integer, Long> historicalCompletedRunsByWave;
-        Map<String, Long> collectionLogClaimedUniqueCounts;
-        Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave;
-        Map<Integer, Long> historicalUnclaimedByWave;
-        Map<String, ItemAggregate> historicalSuppliesUsed;
-        long historicalTotalClaimed;
-        long historicalClaims;
-        long historicalDeaths;
+            copy.put(entry.getKey(), items);
+        }
+        return copy;
     }
 
+    private static List<ItemAggregate> copyAggregates(List<ItemAggregate> aggregates) {
+        List<ItemAggregate> copy = new ArrayList<>();
+        for (ItemAggregate aggregate : aggregates) {
+            copy.add(aggregate.copy());
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,628 @@
+package com.camjewell;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * On-disk layout of historical data: one binary snapshot shard (see
+ * {@link HistoricalSnapshotCodec}) and one journal per player under mokhaloot/players,
+ * plus index.json mapping player keys to shard names. Loading or saving
+ * one player never touches another player's files.
+ *
+ * <p>Player keys passed in must already be normalized. Not thread-safe beyond its own
+ * synchronized methods; callers serialize writes through the persistence thread.
+ */
+class HistoricalDataStore {
+    private static final Logger log = LoggerFactory.getLogger(HistoricalDataStore.class);
+
+    private static final String PLAYERS_DIR = "players";
+    private static final String INDEX_FILE = "index.json";
+    private static final String SHARD_SUFFIX = ".bin";
+    private static final String JSON_SHARD_SUFFIX = ".json";
+    private static final String JOURNAL_SUFFIX = ".journal.jsonl";
+    private static final String RUNS_SUFFIX = ".runs.jsonl";
+    private static final String RUNS_INDEX_SUFFIX = ".runs.idx";
+    // Shared by all players: item names are the same for everyone.
+    private static final String ITEM_IDS_FILE = "item-ids.json";
+    private static final String LEGACY_DATA_FILE = "historical-data.json";
+    private static final String LEGACY_JOURNAL_FILE = "historical-journal.jsonl";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    private static final String DEFAULT_PLAYER_KEY = "default";
+    private static final int INDEX_VERSION = 2;
+    // Rotating copies of previous snapshots kept next to each shard.
+    private static final int SNAPSHOT_BACKUP_GENERATIONS = 3;
+
+    private final File mokhalootDir;
+    private final File playersDir;
+    private final File indexFile;
+    private final Gson gson;
+    private final Gson compactGson;
+    private final HistoricalRunService journalReplayService = new HistoricalRunService();
+    private final Map<String, HistoricalDataJournal> journals = new ConcurrentHashMap<>();
+
+    // Player key -> shard name and summary, mirrored to index.json on every snapshot write.
+    private Map<String, PlayerIndexEntry> index;
+
+    HistoricalDataStore(File mokhalootDir, Gson gson) {
+        this.mokhalootDir = mokhalootDir;
+        this.playersDir = new File(mokhalootDir, PLAYERS_DIR);
+        this.indexFile = new File(playersDir, INDEX_FILE);
+        if (!playersDir.exists()) {
+            playersDir.mkdirs();
+        }
+        this.gson = gson.newBuilder().setPrettyPrinting().create();
+        this.compactGson = gson;
+    }
+
+    /** Persisted item name to item ID entries; empty if none were saved or the file is unreadable. */
+    Map<String, Integer> readItemIds() {
+        File file = new File(mokhalootDir, ITEM_IDS_FILE);
+        if (!file.exists()) {
+            return new HashMap<>();
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Type type = new TypeToken<Map<String, Integer>>() {
+            }.getType();
+            Map<String, Integer> itemIds = compactGson.fromJson(reader, type);
+            return itemIds != null ? itemIds : new HashMap<>();
+        } catch (IOException | JsonParseException e) {
+            // Only a lookup cache: names are learned again as loot is recorded.
+            log.warn("Unable to read item ID dictionary, starting with an empty one", e);
+            return new HashMap<>();
+        }
+    }
+
+    void writeItemIds(Map<String, Integer> itemIds) throws IOException {
+        AtomicFileWriter.write(new File(mokhalootDir, ITEM_IDS_FILE), 0, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            compactGson.toJson(itemIds, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Moves a pre-sharding historical-data.json (multi-player or single-profile) and its
+     * journal into per-player shards. The legacy file is renamed afterwards, so this runs once.
+     */
+    synchronized void migrateLegacyStorage() throws IOException {
+        File legacyFile = new File(mokhalootDir, LEGACY_DATA_FILE);
+        File legacyJournalFile = new File(mokhalootDir, LEGACY_JOURNAL_FILE);
+        if (!legacyFile.exists() && !legacyJournalFile.exists()) {
+            return;
+        }
+
+        Map<String, HistoricalData> allData = legacyFile.exists()
+                ? readLegacySnapshot(legacyFile)
+                : new HashMap<>();
+        foldLegacyJournal(allData, legacyJournalFile);
+
+        for (Map.Entry<String, HistoricalData> entry : allData.entrySet()) {
+            String playerKey = entry.getKey();
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (shardFile(playerKey).exists() || jsonShardFile(playerKey).exists()) {
+                log.warn("Skipping legacy historical data for player '{}', a shard already exists", playerKey);
+                continue;
+            }
+            // Shards start their own journal numbering.
+            entry.getValue().journalSequence = 0;
+            writeShard(playerKey, entry.getValue());
+            updateSummary(playerKey, entry.getValue());
+        }
+        writeIndex();
+
+        if (legacyFile.exists()) {
+            Files.move(legacyFile.toPath(), new File(mokhalootDir, LEGACY_DATA_FILE + MIGRATED_SUFFIX).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(legacyJournalFile.toPath());
+        log.info("Migrated historical data for {} player(s) into per-player files", allData.size());
+    }
+
+    /**
+     * Reads a player's snapshot and folds in their journal. Returns null if the player has
+     * never been saved.
+     */
+    synchronized HistoricalData read(String playerKey) throws IOException {
+        HistoricalData data = readShard(playerKey);
+        HistoricalDataJournal journal = journal(playerKey);
+        List<HistoricalDataJournal.Record> records = journal.readAll();
+        journal.ensureSequenceAtLeast(data != null ? data.journalSequence : 0);
+
+        for (HistoricalDataJournal.Record record : records) {
+            if (data == null) {
+                data = new HistoricalData();
+            }
+            if (record.sequence <= data.journalSequence) {
+                continue;
+            }
+            applyJournalRecord(data, record);
+            data.journalSequence = record.sequence;
+        }
+        updateSummary(playerKey, data);
+        return data;
+    }
+
+    /**
+     * Replaces a player's snapshot and drops the journal records it already includes
+     * (those up to {@code data.journalSequence}).
+     */
+    synchronized void write(String playerKey, HistoricalData data) throws IOException {
+        writeShard(playerKey, data);
+        HistoricalDataJournal journal = journal(playerKey);
+        journal.discardThrough(data.journalSequence);
+
+        // Records after data.journalSequence stay in the journal, so the summary is only
+        // exact when none are left; otherwise the next check re-reads.
+        updateSummary(playerKey, journal.getRecordCount() == 0 ? data : read(playerKey));
+        writeIndex();
+    }
+
+    /** Lock-free so the client thread can reserve sequences while the writer holds the store. */
+    HistoricalDataJournal journal(String playerKey) {
+        return journals.computeIfAbsent(playerKey, key -> new HistoricalDataJournal(journalFile(key), compactGson));
+    }
+
+    /** Opens the player's per-run history, loading only its index. */
+    RunHistoryStore openRunHistory(String playerKey) throws IOException {
+        String name = encodeShardName(playerKey);
+        return RunHistoryStore.open(
+                new File(playersDir, name + RUNS_SUFFIX),
+                new File(playersDir, name + RUNS_INDEX_SUFFIX),
+                compactGson);
+    }
+
+    /** Copies a player's shard to {@code <shard>.backup.json}. */
+    synchronized File backupShard(String playerKey) throws IOException {
+        File shardFile = shardFile(playerKey);
+        if (!shardFile.exists()) {
+            return null;
+        }
+        File backupFile = new File(playersDir, shardName(playerKey) + ".backup" + SHARD_SUFFIX);
+        Files.copy(shardFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return backupFile;
+    }
+
+    private void writeShard(String playerKey, HistoricalData data) throws IOException {
+        AtomicFileWriter.write(shardFile(playerKey), SNAPSHOT_BACKUP_GENERATIONS, HistoricalSnapshotCodec.encode(data));
+
+        // The binary shard supersedes a JSON shard from before the format change.
+        File jsonShardFile = jsonShardFile(playerKey);
+        if (jsonShardFile.exists()) {
+            Files.move(jsonShardFile.toPath(), new File(playersDir, jsonShardFile.getName() + MIGRATED_SUFFIX).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the binary shard, or the JSON shard written before the binary format existed.
+     * Each falls back to its newest readable backup generation.
+     */
+    private HistoricalData readShard(String playerKey) throws IOException {
+        File shardFile = shardFile(playerKey);
+        if (anyGenerationExists(shardFile)) {
+            return readNewestReadable(shardFile, this::readBinaryShard);
+        }
+
+        File jsonShardFile = jsonShardFile(playerKey);
+        if (anyGenerationExists(jsonShardFile)) {
+            return readNewestReadable(jsonShardFile, this::readJsonShard);
+        }
+        return null;
+    }
+
+    private static boolean anyGenerationExists(File file) {
+        if (file.exists()) {
+            return true;
+        }
+        for (File backup : AtomicFileWriter.backupFiles(file, SNAPSHOT_BACKUP_GENERATIONS)) {
+            if (backup.exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first readable generation of {@code file}, newest first. Fails only if every
+     * existing generation is unreadable, so a later save cannot replace them with empty data.
+     */
+    private HistoricalData readNewestReadable(File file, ShardReader shardReader) throws IOException {
+        List<File> candidates = new ArrayList<>();
+        candidates.add(file);
+        candidates.addAll(AtomicFileWriter.backupFiles(file, SNAPSHOT_BACKUP_GENERATIONS));
+
+        IOException lastFailure = null;
+        for (File candidate : candidates) {
+            if (!candidate.exists()) {
+                continue;
+            }
+
+            try {
+                HistoricalData data = shardReader.read(candidate);
+                if (candidate != file) {
+                    log.warn("Historical data file was unreadable, recovered from backup {}", candidate.getName());
+                }
+                return data;
+            } catch (IOException | JsonParseException e) {
+                log.warn("Unable to read historical data from {}", candidate.getName(), e);
+                lastFailure = e instanceof IOException
+                        ? (IOException) e
+                        : new IOException("Corrupt historical data file " + candidate.getName(), e);
+            }
+        }
+        throw lastFailure;
+    }
+
+    private HistoricalData readBinaryShard(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Historical data file " + file.getName() + " is too large");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full.
+            }
+            buffer.flip();
+            return HistoricalSnapshotCodec.decode(buffer);
+        }
+    }
+
+    private HistoricalData readJsonShard(File file) throws IOException {
+        // Written by earlier versions in the platform charset.
+        try (FileReader reader = new FileReader(file)) {
+            HistoricalData data = gson.fromJson(reader, HistoricalData.class);
+            if (data == null) {
+                // Every save writes at least "{}"; an empty file was truncated.
+                throw new IOException("Historical data file " + file.getName() + " is empty");
+            }
+            return data;
+        }
+    }
+
+    private void applyJournalRecord(HistoricalData data, HistoricalDataJournal.Record record) {
+        data.ensureCollections();
+        Map<Integer, List<LootItem>> lootByWave = record.lootByWave != null ? record.lootByWave : new HashMap<>();
+
+        switch (record.type) {
+            case CLAIMED_RUN:
+                data.historicalTotalClaimed += journalReplayService.applyClaimedLoot(
+                        lootByWave,
+                        data.historicalClaimedByWave,
+                        data.historicalClaimedItemsByWave,
+                        record.timestamp);
+                data.historicalClaims += 1;
+                break;
+            case UNCLAIMED_RUN:
+                journalReplayService.moveCurrentRunUnclaimedToHistorical(
+                        lootByWave,
+                        data.historicalUnclaimedByWave,
+                        data.historicalUnclaimedItemsByWave,
+                        record.timestamp);
+                break;
+            case DEATH:
+                data.historicalDeaths += 1;
+                break;
+            case SUPPLIES:
+                if (record.supplies != null) {
+                    for (ItemAggregate supply : record.supplies) {
+                        ArenaStateService.mergeArchivedSupply(data.historicalSuppliesUsed, supply);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private File shardFile(String playerKey) {
+        return new File(playersDir, shardName(playerKey) + SHARD_SUFFIX);
+    }
+
+    private File journalFile(String playerKey) {
+        // Not taken from the index: journal() must not need the store lock.
+        return new File(playersDir, encodeShardName(playerKey) + JOURNAL_SUFFIX);
+    }
+
+    private File jsonShardFile(String playerKey) {
+        return new File(playersDir, shardName(playerKey) + JSON_SHARD_SUFFIX);
+    }
+
+    private String shardName(String playerKey) {
+        PlayerIndexEntry entry = loadIndex().get(playerKey);
+        return entry != null && entry.shard != null ? entry.shard : encodeShardName(playerKey);
+    }
+
+    /** File-system safe, collision-free name for a normalized player key. */
+    private static String encodeShardName(String playerKey) {
+        try {
+            return URLEncoder.encode(playerKey, "UTF-8").replace("*", "%2A").replace(".", "%2E");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether the player has persisted data, answered from the index without reading the
+     * shard. Returns null if the index has no summary for the player or the shard or journal
+     * changed on disk since the summary was taken.
+     */
+    synchronized Boolean cachedHasData(String playerKey) {
+        PlayerIndexEntry entry = loadIndex().get(playerKey);
+        if (entry == null) {
+            // Never saved and not left behind by a lost index either.
+            return !shardFile(playerKey).exists() && !jsonShardFile(playerKey).exists()
+                    && !journalFile(playerKey).exists() ? Boolean.FALSE : null;
+        }
+        if (!entry.hasSummary || !entry.matches(fileStamp(shardFile(playerKey)), fileStamp(journalFile(playerKey)))) {
+            return null;
+        }
+        return entry.hasData;
+    }
+
+    /** Counts a journal record into the player's cached summary once it is on disk. */
+    synchronized void recordJournalAppend(String playerKey, HistoricalDataJournal.Record record) {
+        PlayerIndexEntry entry = loadIndex().get(playerKey);
+        if (entry == null || !entry.hasSummary) {
+            return;
+        }
+        if (record.type == HistoricalDataJournal.RecordType.CLAIMED_RUN) {
+            entry.claims++;
+            entry.hasData = true;
+        }
+        entry.lastModified = System.currentTimeMillis();
+        long[] journalStamp = fileStamp(journalFile(playerKey));
+        entry.journalSize = journalStamp[0];
+        entry.journalModified = journalStamp[1];
+    }
+
+    /** Same predicate the plugin uses to decide whether a profile already has history. */
+    static boolean hasData(HistoricalData data) {
+        if (data == null) {
+            return false;
+        }
+        return data.historicalClaims > 0
+                || data.historicalTotalClaimed > 0
+                || (data.historicalClaimedItemsByWave != null && !data.historicalClaimedItemsByWave.isEmpty())
+                || (data.historicalCompletedRunsByWave != null && !data.historicalCompletedRunsByWave.isEmpty())
+                || (data.collectionLogClaimedUniqueCounts != null
+                        && !data.collectionLogClaimedUniqueCounts.isEmpty());
+    }
+
+    private void updateSummary(String playerKey, HistoricalData data) {
+        PlayerIndexEntry entry = loadIndex().computeIfAbsent(playerKey, key -> {
+            PlayerIndexEntry created = new PlayerIndexEntry();
+            created.shard = encodeShardName(key);
+            return created;
+        });
+        long[] shardStamp = fileStamp(shardFile(playerKey));
+        long[] journalStamp = fileStamp(journalFile(playerKey));
+
+        entry.hasSummary = true;
+        entry.hasData = hasData(data);
+        entry.claims = data != null ? data.historicalClaims : 0;
+        entry.lastModified = Math.max(shardStamp[1], journalStamp[1]);
+        entry.shardSize = shardStamp[0];
+        entry.shardModified = shardStamp[1];
+        entry.journalSize = journalStamp[0];
+        entry.journalModified = journalStamp[1];
+    }
+
+    /** Size and last-modified millis of a file, or {-1, 0} if it does not exist. */
+    private static long[] fileStamp(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return new long[] { attributes.size(), attributes.lastModifiedTime().toMillis() };
+        } catch (IOException e) {
+            return new long[] { -1, 0 };
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        PlayerIndexFile fileData = new PlayerIndexFile();
+        fileData.version = INDEX_VERSION;
+        fileData.players = new TreeMap<>(loadIndex());
+        AtomicFileWriter.write(indexFile, 0, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            gson.toJson(fileData, writer);
+            writer.flush();
+        });
+    }
+
+    private Map<String, PlayerIndexEntry> loadIndex() {
+        if (index != null) {
+            return index;
+        }
+
+        index = new HashMap<>();
+        if (indexFile.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8)) {
+                JsonObject parsed = gson.fromJson(reader, JsonObject.class);
+                JsonObject players = parsed != null && parsed.has("players") && parsed.get("players").isJsonObject()
+                        ? parsed.getAsJsonObject("players")
+                        : new JsonObject();
+                for (Map.Entry<String, JsonElement> player : players.entrySet()) {
+                    PlayerIndexEntry entry;
+                    if (player.getValue().isJsonObject()) {
+                        entry = gson.fromJson(player.getValue(), PlayerIndexEntry.class);
+                    } else {
+                        // Version 1 only mapped keys to shard names.
+                        entry = new PlayerIndexEntry();
+                        entry.shard = player.getValue().getAsString();
+                    }
+                    index.put(player.getKey(), entry);
+                }
+            } catch (IOException | JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                // Shard names are derived from the key, so a lost index only costs a re-read.
+                log.warn("Unable to read historical player index, rebuilding it on the next save", e);
+                index.clear();
+            }
+        }
+        return index;
+    }
+
+    private Map<String, HistoricalData> readLegacySnapshot(File legacyFile) throws IOException {
+        Map<String, HistoricalData> allData = new HashMap<>();
+
+        List<File> candidates = new ArrayList<>();
+        candidates.add(legacyFile);
+        candidates.addAll(AtomicFileWriter.backupFiles(legacyFile, SNAPSHOT_BACKUP_GENERATIONS));
+
+        IOException lastFailure = null;
+        for (File candidate : candidates) {
+            if (!candidate.exists()) {
+                continue;
+            }
+
+            // Written by earlier versions in the platform charset.
+            try (FileReader reader = new FileReader(candidate)) {
+                Type type = new TypeToken<LegacyHistoricalDataFile>() {
+                }.getType();
+                LegacyHistoricalDataFile parsed = gson.fromJson(reader, type);
+                if (parsed == null) {
+                    throw new IOException("Historical data file " + candidate.getName() + " is empty");
+                }
+
+                if (parsed.players != null && !parsed.players.isEmpty()) {
+                    for (Map.Entry<String, HistoricalData> entry : parsed.players.entrySet()) {
+                        allData.put(HistoricalDataManager.normalizePlayerKey(entry.getKey()), entry.getValue());
+                    }
+                } else if (parsed.hasLegacyData()) {
+                    // Backward compatibility: migrate legacy single-profile structure into default
+                    // player slot.
+                    allData.put(DEFAULT_PLAYER_KEY, parsed.toLegacyHistoricalData());
+                }
+                return allData;
+            } catch (IOException | JsonParseException e) {
+                log.warn("Unable to read legacy historical data from {}", candidate.getName(), e);
+                lastFailure = e instanceof IOException
+                        ? (IOException) e
+                        : new IOException("Corrupt historical data file " + candidate.getName(), e);
+            }
+        }
+
+        throw lastFailure != null ? lastFailure : new IOException("No readable legacy historical data");
+    }
+
+    /** Folds the shared pre-sharding journal, whose records carry their player key. */
+    private void foldLegacyJournal(Map<String, HistoricalData> allData, File legacyJournalFile) throws IOException {
+        if (!legacyJournalFile.exists()) {
+            return;
+        }
+
+        for (HistoricalDataJournal.Record record : new HistoricalDataJournal(legacyJournalFile, compactGson).readAll()) {
+            String playerKey = HistoricalDataManager.normalizePlayerKey(record.playerKey);
+            HistoricalData data = allData.computeIfAbsent(playerKey, key -> new HistoricalData());
+            if (record.sequence <= data.journalSequence) {
+                continue;
+            }
+            applyJournalRecord(data, record);
+            data.journalSequence = record.sequence;
+        }
+    }
+
+    private interface ShardReader {
+        HistoricalData read(File file) throws IOException;
+    }
+
+    private static class PlayerIndexFile {
+        int version;
+        Map<String, PlayerIndexEntry> players;
+    }
+
+    private static class PlayerIndexEntry {
+        String shard;
+        // False for entries carried over from a version 1 index.
+        boolean hasSummary;
+        boolean hasData;
+        long claims;
+        long lastModified;
+        // Shard and journal state the summary describes.
+        long shardSize;
+        long shardModified;
+        long journalSize;
+        long journalModified;
+
+        boolean matches(long[] shardStamp, long[] journalStamp) {
+            return shardSize == shardStamp[0] && shardModified == shardStamp[1]
+                    && journalSize == journalStamp[0] && journalModified == journalStamp[1];
+        }
+    }
+
+    private static class LegacyHistoricalDataFile {
+        Map<String, HistoricalData> players;
+
+        // Legacy single-profile fields (pre-player separation).
+        Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave;
+        Map<Integer, Long> historicalClaimedByWave;
+        Map<Integer, Long> historicalCompletedRunsByWave;
+        Map<String, Long> collectionLogClaimedUniqueCounts;
+        Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave;
+        Map<Integer, Long> historicalUnclaimedByWave;
+        Map<String, ItemAggregate> historicalSuppliesUsed;
+        long historicalTotalClaimed;
+        long historicalClaims;
+        long historicalDeaths;
+
+        private boolean hasLegacyData() {
+            return historicalClaimedItemsByWave != null ||
+                    historicalClaimedByWave != null ||
+                    historicalCompletedRunsByWave != null ||
+                    collectionLogClaimedUniqueCounts != null ||
+                    historicalUnclaimedItemsByWave != null ||
+                    historicalUnclaimedByWave != null ||
+                    historicalSuppliesUsed != null ||
+                    historicalTotalClaimed != 0 ||
+                    historicalClaims != 0 ||
+                    historicalDeaths != 0;
+        }
+
+        private HistoricalData toLegacyHistoricalData() {
+            HistoricalData data = new HistoricalData();
+            data.historicalClaimedItemsByWave = historicalClaimedItemsByWave;
+            data.historicalClaimedByWave = historicalClaimedByWave;
+            data.historicalCompletedRunsByWave = historicalCompletedRunsByWave;
+            data.collectionLogClaimedUniqueCounts = collectionLogClaimedUniqueCounts;
+            data.historicalUnclaimedItemsByWave = historicalUnclaimedItemsByWave;
+            data.historicalUnclaimedByWave = historicalUnclaimedByWave;
+            data.historicalSuppliesUsed = historicalSuppliesUsed;
+            data.historicalTotalClaimed = historicalTotalClaimed;
+            data.historicalClaims = historicalClaims;
+            data.historicalDeaths = historicalDeaths;
+            return data;
+        }
+    }
+}
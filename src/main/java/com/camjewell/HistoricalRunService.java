@@ -4,21 +4,41 @@ import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 class HistoricalRunService {
+    // Told about every aggregate a run adds to, so running totals can follow along.
+    private final Consumer<ItemAggregate> onClaimedItemChanged;
+    private final Consumer<ItemAggregate> onUnclaimedItemChanged;
+
+    HistoricalRunService() {
+        this(item -> {
+        }, item -> {
+        });
+    }
+
+    HistoricalRunService(
+            Consumer<ItemAggregate> onClaimedItemChanged,
+            Consumer<ItemAggregate> onUnclaimedItemChanged) {
+        this.onClaimedItemChanged = onClaimedItemChanged;
+        this.onUnclaimedItemChanged = onUnclaimedItemChanged;
+    }
+
     long applyClaimedLoot(
             Map<Integer, List<LootItem>> lootByWave,
             Map<Integer, Long> historicalClaimedByWave,
-            Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave) {
+            Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave,
+            long droppedAtMillis) {
         long claimedValue = 0L;
+        int dropDay = PriceTimeline.epochDay(droppedAtMillis);
 
         for (Map.Entry<Integer, List<LootItem>> entry : lootByWave.entrySet()) {
             int wave = entry.getKey();
             long waveValue = 0L;
-            int waveIndex = wave > 9 ? 9 : wave;
+            int waveIndex = claimedWaveKey(wave);
 
             Map<String, ItemAggregate> waveItems = historicalClaimedItemsByWave
                     .computeIfAbsent(waveIndex, k -> new HashMap<>());
@@ -28,13 +48,8 @@ class HistoricalRunService {
                 int pricePerItem = item.quantity > 0 ? item.value / item.quantity : 0;
                 int haPricePerItem = item.quantity > 0 ? item.haValue / item.quantity : 0;
 
-                if (waveItems.containsKey(item.name)) {
-                    waveItems.get(item.name).add(item.quantity, pricePerItem, haPricePerItem);
-                } else {
-                    waveItems.put(item.name,
-                            new ItemAggregate(item.name, item.quantity, pricePerItem,
-                                    haPricePerItem));
-                }
+                onClaimedItemChanged.accept(
+                        addToWaveItems(waveItems, item, pricePerItem, haPricePerItem, dropDay));
             }
 
             claimedValue += waveValue;
@@ -45,10 +60,17 @@ class HistoricalRunService {
         return claimedValue;
     }
 
+    /** Key of {@code wave} in the claimed maps, which keep every wave past 9 under 9. */
+    static int claimedWaveKey(int wave) {
+        return wave > 9 ? 9 : wave;
+    }
+
     void moveCurrentRunUnclaimedToHistorical(
             Map<Integer, List<LootItem>> lootByWave,
             Map<Integer, Long> historicalUnclaimedByWave,
-            Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave) {
+            Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave,
+            long droppedAtMillis) {
+        int dropDay = PriceTimeline.epochDay(droppedAtMillis);
         for (int wave = 1; wave <= 20; wave++) {
             List<LootItem> items = lootByWave.get(wave);
             if (items == null || items.isEmpty()) {
@@ -65,13 +87,8 @@ class HistoricalRunService {
                 int pricePerItem = item.quantity > 0 ? item.value / item.quantity : 0;
                 int haPricePerItem = item.quantity > 0 ? item.haValue / item.quantity : 0;
 
-                if (waveItems.containsKey(item.name)) {
-                    waveItems.get(item.name).add(item.quantity, pricePerItem, haPricePerItem);
-                } else {
-                    waveItems.put(item.name,
-                            new ItemAggregate(item.name, item.quantity, pricePerItem,
-                                    haPricePerItem));
-                }
+                onUnclaimedItemChanged.accept(
+                        addToWaveItems(waveItems, item, pricePerItem, haPricePerItem, dropDay));
             }
 
             historicalUnclaimedByWave.put(wave, newTotal);
@@ -79,6 +96,34 @@ class HistoricalRunService {
         }
     }
 
+    private static ItemAggregate addToWaveItems(
+            Map<String, ItemAggregate> waveItems,
+            LootItem item,
+            int pricePerItem,
+            int haPricePerItem,
+            int dropDay) {
+        ItemAggregate aggregate = waveItems.get(item.name);
+        if (aggregate != null) {
+            if (aggregate.priceTimeline == null) {
+                // Saved before timelines existed: what it already holds was dropped on an
+                // unknown day, at the price it was last valued at.
+                aggregate.priceTimeline = new PriceTimeline();
+                aggregate.priceTimeline.recordDrop(PriceTimeline.UNKNOWN_DAY, aggregate.totalQuantity,
+                        aggregate.pricePerItem);
+            }
+            aggregate.add(item.quantity, pricePerItem, haPricePerItem);
+        } else {
+            aggregate = new ItemAggregate(item.name, item.quantity, pricePerItem, haPricePerItem);
+            aggregate.priceTimeline = new PriceTimeline();
+            waveItems.put(item.name, aggregate);
+        }
+        if (aggregate.itemId == 0) {
+            aggregate.itemId = item.itemId;
+        }
+        aggregate.priceTimeline.recordDrop(dropDay, item.quantity, pricePerItem);
+        return aggregate;
+    }
+
     boolean restoreCurrentRunLootJsonAsUnclaimed(
             String currentRunJson,
             Gson gson,
@@ -97,7 +142,8 @@ class HistoricalRunService {
         }
 
         lootByWave.putAll(loaded);
-        moveCurrentRunUnclaimedToHistorical(lootByWave, historicalUnclaimedByWave, historicalUnclaimedItemsByWave);
+        moveCurrentRunUnclaimedToHistorical(lootByWave, historicalUnclaimedByWave, historicalUnclaimedItemsByWave,
+                System.currentTimeMillis());
         lootByWave.clear();
         return true;
     }
@@ -0,0 +1,389 @@
+package com.camjewell;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary encoding of one player's {@link HistoricalData}.
+ *
+ * <p>Layout: magic "MKHS", varint version, a string table (every item name and tooltip
+ * once), then the data with every number as a zig-zag varint and every string as a
+ * table index. A trailing CRC32 over everything before it detects torn or corrupt files,
+ * so readers can fall back to a backup. Nullable maps are written with count + 1 (0 = null).
+ */
+final class HistoricalSnapshotCodec {
+    private static final int MAGIC = 0x4D4B4853; // "MKHS"
+    // Version 2 added the item ID of each aggregate, version 3 its price timeline.
+    private static final int VERSION = 3;
+    private static final int NO_STRING = 0;
+
+    private HistoricalSnapshotCodec() {
+    }
+
+    static ByteBuffer encode(HistoricalData data) {
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        collectStrings(data, stringTable);
+
+        Output out = new Output();
+        out.buffer.putInt(MAGIC);
+        out.writeVarLong(VERSION);
+
+        out.writeVarLong(stringTable.size());
+        for (String value : stringTable.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeVarLong(bytes.length);
+            out.ensureCapacity(bytes.length);
+            out.buffer.put(bytes);
+        }
+
+        out.writeVarLong(data.journalSequence);
+        out.writeSignedVarLong(data.historicalTotalClaimed);
+        out.writeSignedVarLong(data.historicalClaims);
+        out.writeSignedVarLong(data.historicalDeaths);
+        writeItemsByWave(out, data.historicalClaimedItemsByWave, stringTable);
+        writeItemsByWave(out, data.historicalUnclaimedItemsByWave, stringTable);
+        writeLongsByWave(out, data.historicalClaimedByWave);
+        writeLongsByWave(out, data.historicalCompletedRunsByWave);
+        writeLongsByWave(out, data.historicalUnclaimedByWave);
+        writeLongsByName(out, data.collectionLogClaimedUniqueCounts, stringTable);
+        writeItems(out, data.historicalSuppliesUsed, stringTable);
+
+        CRC32 crc = new CRC32();
+        crc.update(out.buffer.array(), 0, out.buffer.position());
+        out.ensureCapacity(Integer.BYTES);
+        out.buffer.putInt((int) crc.getValue());
+
+        out.buffer.flip();
+        return out.buffer;
+    }
+
+    static HistoricalData decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            throw new IOException("Historical snapshot is truncated");
+        }
+
+        int end = buffer.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.limit(end);
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(end)) {
+            throw new IOException("Historical snapshot checksum mismatch");
+        }
+        buffer.limit(end);
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a historical snapshot");
+            }
+            long version = readVarLong(buffer);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported historical snapshot version " + version);
+            }
+
+            int stringCount = readCount(buffer);
+            List<String> strings = new ArrayList<>(stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                byte[] bytes = new byte[readCount(buffer)];
+                buffer.get(bytes);
+                strings.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            HistoricalData data = new HistoricalData();
+            data.journalSequence = readVarLong(buffer);
+            data.historicalTotalClaimed = readSignedVarLong(buffer);
+            data.historicalClaims = readSignedVarLong(buffer);
+            data.historicalDeaths = readSignedVarLong(buffer);
+            int formatVersion = (int) version;
+            data.historicalClaimedItemsByWave = readItemsByWave(buffer, strings, formatVersion);
+            data.historicalUnclaimedItemsByWave = readItemsByWave(buffer, strings, formatVersion);
+            data.historicalClaimedByWave = readLongsByWave(buffer);
+            data.historicalCompletedRunsByWave = readLongsByWave(buffer);
+            data.historicalUnclaimedByWave = readLongsByWave(buffer);
+            data.collectionLogClaimedUniqueCounts = readLongsByName(buffer, strings);
+            data.historicalSuppliesUsed = readItems(buffer, strings, formatVersion);
+            return data;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Historical snapshot is malformed", e);
+        }
+    }
+
+    private static void collectStrings(HistoricalData data, Map<String, Integer> stringTable) {
+        for (Map<Integer, Map<String, ItemAggregate>> itemsByWave : List.of(
+                nullToEmpty(data.historicalClaimedItemsByWave),
+                nullToEmpty(data.historicalUnclaimedItemsByWave))) {
+            for (Map<String, ItemAggregate> items : itemsByWave.values()) {
+                collectItemStrings(items, stringTable);
+            }
+        }
+        collectItemStrings(data.historicalSuppliesUsed, stringTable);
+        if (data.collectionLogClaimedUniqueCounts != null) {
+            for (String name : data.collectionLogClaimedUniqueCounts.keySet()) {
+                intern(name, stringTable);
+            }
+        }
+    }
+
+    private static void collectItemStrings(Map<String, ItemAggregate> items, Map<String, Integer> stringTable) {
+        if (items == null) {
+            return;
+        }
+        for (Map.Entry<String, ItemAggregate> entry : items.entrySet()) {
+            intern(entry.getKey(), stringTable);
+            ItemAggregate aggregate = entry.getValue();
+            if (aggregate != null) {
+                intern(aggregate.name, stringTable);
+                intern(aggregate.tooltipText, stringTable);
+            }
+        }
+    }
+
+    private static void intern(String value, Map<String, Integer> stringTable) {
+        if (value != null) {
+            stringTable.putIfAbsent(value, stringTable.size() + 1);
+        }
+    }
+
+    private static <K, V> Map<K, V> nullToEmpty(Map<K, V> map) {
+        return map != null ? map : Map.of();
+    }
+
+    private static void writeString(Output out, String value, Map<String, Integer> stringTable) {
+        out.writeVarLong(value != null ? stringTable.get(value) : NO_STRING);
+    }
+
+    private static String readString(ByteBuffer buffer, List<String> strings) throws IOException {
+        int index = readCount(buffer);
+        return index == NO_STRING ? null : strings.get(index - 1);
+    }
+
+    private static void writeItemsByWave(Output out, Map<Integer, Map<String, ItemAggregate>> itemsByWave,
+            Map<String, Integer> stringTable) {
+        if (itemsByWave == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(itemsByWave.size() + 1L);
+        for (Map.Entry<Integer, Map<String, ItemAggregate>> entry : itemsByWave.entrySet()) {
+            out.writeSignedVarLong(entry.getKey());
+            writeItems(out, entry.getValue(), stringTable);
+        }
+    }
+
+    private static Map<Integer, Map<String, ItemAggregate>> readItemsByWave(ByteBuffer buffer, List<String> strings,
+            int version) throws IOException {
+        int size = readCount(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<Integer, Map<String, ItemAggregate>> itemsByWave = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int wave = (int) readSignedVarLong(buffer);
+            itemsByWave.put(wave, readItems(buffer, strings, version));
+        }
+        return itemsByWave;
+    }
+
+    private static void writeItems(Output out, Map<String, ItemAggregate> items, Map<String, Integer> stringTable) {
+        if (items == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(items.size() + 1L);
+        for (Map.Entry<String, ItemAggregate> entry : items.entrySet()) {
+            writeString(out, entry.getKey(), stringTable);
+            ItemAggregate aggregate = entry.getValue();
+            if (aggregate == null) {
+                out.writeVarLong(0);
+                continue;
+            }
+            out.writeVarLong(1);
+            writeString(out, aggregate.name, stringTable);
+            out.writeSignedVarLong(aggregate.totalQuantity);
+            out.writeSignedVarLong(aggregate.pricePerItem);
+            out.writeSignedVarLong(aggregate.haPricePerItem);
+            out.writeSignedVarLong(aggregate.totalValue);
+            out.writeSignedVarLong(aggregate.totalHaValue);
+            writeString(out, aggregate.tooltipText, stringTable);
+            out.writeSignedVarLong(aggregate.maxDosesForDisplay);
+            out.writeVarLong(Math.max(0, aggregate.itemId));
+            writePriceTimeline(out, aggregate.priceTimeline);
+        }
+    }
+
+    // Rows as (day delta, quantity, price); the first day delta is from day 0.
+    private static void writePriceTimeline(Output out, PriceTimeline timeline) {
+        if (timeline == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(timeline.size() + 1L);
+        int previousDay = 0;
+        for (int row = 0; row < timeline.size(); row++) {
+            out.writeSignedVarLong(timeline.dayAt(row) - previousDay);
+            out.writeSignedVarLong(timeline.quantityAt(row));
+            out.writeSignedVarLong(timeline.priceAt(row));
+            previousDay = timeline.dayAt(row);
+        }
+    }
+
+    private static PriceTimeline readPriceTimeline(ByteBuffer buffer) throws IOException {
+        int size = readCount(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        PriceTimeline timeline = new PriceTimeline();
+        int day = 0;
+        for (int row = 0; row < size; row++) {
+            day += (int) readSignedVarLong(buffer);
+            int quantity = (int) readSignedVarLong(buffer);
+            int price = (int) readSignedVarLong(buffer);
+            timeline.append(day, quantity, price);
+        }
+        return timeline;
+    }
+
+    private static Map<String, ItemAggregate> readItems(ByteBuffer buffer, List<String> strings, int version)
+            throws IOException {
+        int size = readCount(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<String, ItemAggregate> items = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer, strings);
+            if (readCount(buffer) == 0) {
+                items.put(key, null);
+                continue;
+            }
+            String name = readString(buffer, strings);
+            int quantity = (int) readSignedVarLong(buffer);
+            int pricePerItem = (int) readSignedVarLong(buffer);
+            int haPricePerItem = (int) readSignedVarLong(buffer);
+            ItemAggregate aggregate = new ItemAggregate(name, quantity, pricePerItem, haPricePerItem);
+            aggregate.totalValue = readSignedVarLong(buffer);
+            aggregate.totalHaValue = readSignedVarLong(buffer);
+            aggregate.tooltipText = readString(buffer, strings);
+            aggregate.maxDosesForDisplay = (int) readSignedVarLong(buffer);
+            if (version >= 2) {
+                aggregate.itemId = readCount(buffer);
+            }
+            if (version >= 3) {
+                aggregate.priceTimeline = readPriceTimeline(buffer);
+            }
+            items.put(key, aggregate);
+        }
+        return items;
+    }
+
+    private static void writeLongsByWave(Output out, Map<Integer, Long> valuesByWave) {
+        if (valuesByWave == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(valuesByWave.size() + 1L);
+        for (Map.Entry<Integer, Long> entry : valuesByWave.entrySet()) {
+            out.writeSignedVarLong(entry.getKey());
+            out.writeSignedVarLong(entry.getValue() != null ? entry.getValue() : 0L);
+        }
+    }
+
+    private static Map<Integer, Long> readLongsByWave(ByteBuffer buffer) throws IOException {
+        int size = readCount(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<Integer, Long> valuesByWave = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int wave = (int) readSignedVarLong(buffer);
+            valuesByWave.put(wave, readSignedVarLong(buffer));
+        }
+        return valuesByWave;
+    }
+
+    private static void writeLongsByName(Output out, Map<String, Long> valuesByName, Map<String, Integer> stringTable) {
+        if (valuesByName == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(valuesByName.size() + 1L);
+        for (Map.Entry<String, Long> entry : valuesByName.entrySet()) {
+            writeString(out, entry.getKey(), stringTable);
+            out.writeSignedVarLong(entry.getValue() != null ? entry.getValue() : 0L);
+        }
+    }
+
+    private static Map<String, Long> readLongsByName(ByteBuffer buffer, List<String> strings) throws IOException {
+        int size = readCount(buffer) - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Long> valuesByName = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = readString(buffer, strings);
+            valuesByName.put(name, readSignedVarLong(buffer));
+        }
+        return valuesByName;
+    }
+
+    /** Reads a non-negative varint that sizes something in the remaining buffer. */
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        long value = readVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Historical snapshot is malformed");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Historical snapshot varint is too long");
+    }
+
+    private static long readSignedVarLong(ByteBuffer buffer) throws IOException {
+        long encoded = readVarLong(buffer);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    /** Growable heap buffer the snapshot is encoded into before a single channel write. */
+    private static final class Output {
+        private ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+        void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+    }
+}
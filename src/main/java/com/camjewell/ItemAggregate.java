@@ -1,6 +1,13 @@
 package com.camjewell;
 
+import java.util.Objects;
+
 public class ItemAggregate {
+    /**
+     * Item the aggregate counts, for repricing; history maps still key aggregates by name.
+     * 0 = unknown or not a single item (supply groups, charges).
+     */
+    int itemId;
     String name;
     int totalQuantity;
     int pricePerItem;
@@ -11,6 +18,11 @@ public class ItemAggregate {
     String tooltipText;
     /** For dose-based consumables: max doses per full item (e.g. 4 for Prayer potion). 0 = not dose-based. */
     int maxDosesForDisplay;
+    /** Loot only: price of each drop when received, plus later repricings. Null for supplies and charges. */
+    PriceTimeline priceTimeline;
+    // Last copy handed out by snapshot() and the timeline it was taken from.
+    private transient ItemAggregate snapshotCopy;
+    private transient PriceTimeline snapshotTimeline;
 
     ItemAggregate(String name, int quantity, int pricePerItem) {
         this(name, quantity, pricePerItem, 0);
@@ -44,4 +56,45 @@ public class ItemAggregate {
         this.pricePerItem = pricePerItem;
         this.haPricePerItem = haPricePerItem;
     }
+
+    /**
+     * Detached copy for the persistence thread, which must treat it as read-only. The
+     * previous one is returned again while this aggregate is unchanged, so saving history
+     * only copies what changed since the last save.
+     */
+    ItemAggregate snapshot() {
+        if (snapshotCopy == null || !isUnchangedSince(snapshotCopy)) {
+            snapshotCopy = copy();
+            snapshotTimeline = priceTimeline;
+        }
+        return snapshotCopy;
+    }
+
+    private boolean isUnchangedSince(ItemAggregate copy) {
+        // Timelines only grow at the end, so the same timeline with the same last row
+        // holds the same rows.
+        return copy.itemId == itemId
+                && Objects.equals(copy.name, name)
+                && copy.totalQuantity == totalQuantity
+                && copy.pricePerItem == pricePerItem
+                && copy.haPricePerItem == haPricePerItem
+                && copy.totalValue == totalValue
+                && copy.totalHaValue == totalHaValue
+                && Objects.equals(copy.tooltipText, tooltipText)
+                && copy.maxDosesForDisplay == maxDosesForDisplay
+                && snapshotTimeline == priceTimeline
+                && (priceTimeline == null || priceTimeline.hasSameTail(copy.priceTimeline));
+    }
+
+    /** Detached copy, e.g. for handing the aggregate to another thread. */
+    ItemAggregate copy() {
+        ItemAggregate copy = new ItemAggregate(name, totalQuantity, pricePerItem, haPricePerItem);
+        copy.itemId = itemId;
+        copy.totalValue = totalValue;
+        copy.totalHaValue = totalHaValue;
+        copy.tooltipText = tooltipText;
+        copy.maxDosesForDisplay = maxDosesForDisplay;
+        copy.priceTimeline = priceTimeline != null ? priceTimeline.copy() : null;
+        return copy;
+    }
 }
@@ -1,5 +1,7 @@
 package com.camjewell;
 
+import java.util.Objects;
+
 public class ItemData {
     public String name;
     public int quantity;
@@ -25,4 +27,28 @@ public class ItemData {
         this.haPricePerItem = haPricePerItem;
         this.totalHaValue = totalHaValue;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ItemData)) {
+            return false;
+        }
+        ItemData other = (ItemData) o;
+        return quantity == other.quantity
+                && pricePerItem == other.pricePerItem
+                && totalValue == other.totalValue
+                && haPricePerItem == other.haPricePerItem
+                && totalHaValue == other.totalHaValue
+                && maxDosesForDisplay == other.maxDosesForDisplay
+                && Objects.equals(name, other.name)
+                && Objects.equals(tooltipText, other.tooltipText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, quantity, pricePerItem, totalValue);
+    }
 }
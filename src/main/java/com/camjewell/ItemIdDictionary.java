@@ -0,0 +1,79 @@
+package com.camjewell;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Item names to item IDs, learned from loot as it is recorded so history stored by name
+ * can be repriced without searching {@code ItemManager}. Names match case-insensitively.
+ * Names a search found no item for are remembered for a while, so they are not searched
+ * for on every repricing. Safe to use from the client thread and the persistence thread
+ * at once.
+ */
+final class ItemIdDictionary {
+    // An empty search may only mean the item list was not loaded yet, so misses are retried.
+    static final long UNRESOLVED_RETRY_MILLIS = 30 * 60 * 1000L;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    // Not persisted: name -> when it may be searched for again.
+    private final Map<String, Long> retryAtByUnresolvedName = new ConcurrentHashMap<>();
+    private final Runnable onChanged;
+
+    /** @param onChanged run after a name is added or its ID changes */
+    ItemIdDictionary(Runnable onChanged) {
+        this.onChanged = onChanged;
+    }
+
+    /** Item ID for {@code name}, or -1 if it has not been seen. */
+    int resolve(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer itemId = idsByName.get(key(name));
+        return itemId != null ? itemId : -1;
+    }
+
+    void record(int itemId, String name) {
+        if (itemId <= 0 || name == null || name.isEmpty()) {
+            return;
+        }
+        retryAtByUnresolvedName.remove(key(name));
+        Integer previous = idsByName.put(key(name), itemId);
+        if (previous == null || previous != itemId) {
+            onChanged.run();
+        }
+    }
+
+    /** Remembers that no item matched {@code name}, until the retry interval has passed. */
+    void recordUnresolved(String name, long nowMillis) {
+        if (name != null && !name.isEmpty()) {
+            retryAtByUnresolvedName.put(key(name), nowMillis + UNRESOLVED_RETRY_MILLIS);
+        }
+    }
+
+    /** True if a search for {@code name} found nothing and should not be repeated yet. */
+    boolean isRecentlyUnresolved(String name, long nowMillis) {
+        Long retryAt = name != null ? retryAtByUnresolvedName.get(key(name)) : null;
+        return retryAt != null && nowMillis < retryAt;
+    }
+
+    /** Adds persisted entries without reporting them as changes; known names are kept. */
+    void load(Map<String, Integer> entries) {
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && entry.getValue() > 0) {
+                idsByName.putIfAbsent(key(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    /** Sorted copy for persisting. */
+    Map<String, Integer> toMap() {
+        return new TreeMap<>(idsByName);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
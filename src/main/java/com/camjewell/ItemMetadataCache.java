@@ -0,0 +1,190 @@
+package com.camjewell;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.runelite.api.ItemComposition;
+import net.runelite.client.game.ItemManager;
+
+/**
+ * Item names, dose metadata and prices per item ID, shared by every service that would
+ * otherwise ask {@code ItemManager} for an item composition on a hot path. "Prayer
+ * potion(3)" is dose 3 of base potion "Prayer potion"; items without a dose suffix (food,
+ * runes, ammo) report dose 0 and their full price.
+ *
+ * <p>Each item's composition is read once, the first time it is looked up, into parallel
+ * arrays. Prices are read lazily and kept until {@link #invalidatePrices()} or until the
+ * GE price feed may have refreshed; a price of 0 or less (prices not loaded yet) is read
+ * again on the next lookup. At most {@link #MAX_ENTRIES} items are held; when full, the
+ * cache starts over. Must be used from the client thread.
+ */
+final class ItemMetadataCache {
+    static final int MAX_ENTRIES = 4096;
+    // ItemManager reloads GE prices on this interval.
+    static final long PRICE_MAX_AGE_MILLIS = 30 * 60 * 1000L;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final Pattern DOSE_PATTERN = Pattern.compile("\\((\\d+)\\)$");
+
+    private final IntFunction<ItemComposition> compositions;
+    private final IntUnaryOperator prices;
+    // Item ID -> slot in the arrays below, plus one.
+    private final ItemQuantityTable slotByItemId = new ItemQuantityTable();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] baseNames = new String[INITIAL_CAPACITY];
+    private int[] baseIds = new int[INITIAL_CAPACITY];
+    private int[] doses = new int[INITIAL_CAPACITY];
+    private int[] haPrices = new int[INITIAL_CAPACITY];
+    private int[] gePrices = new int[INITIAL_CAPACITY];
+    private int[] priceVersions = new int[INITIAL_CAPACITY];
+    private int size;
+    // Cleared when the cache starts over; new base IDs never reuse one handed out before.
+    private final Map<String, Integer> baseIdsByName = new HashMap<>();
+    private int nextBaseId = 1;
+    private int priceVersion = 1;
+    private long pricesReadSinceMillis = System.currentTimeMillis();
+
+    private long hits;
+    private long misses;
+
+    ItemMetadataCache(ItemManager itemManager) {
+        this(itemManager::getItemComposition, itemManager::getItemPrice);
+    }
+
+    ItemMetadataCache(IntFunction<ItemComposition> compositions, IntUnaryOperator prices) {
+        this.compositions = compositions;
+        this.prices = prices;
+    }
+
+    // Each getter looks the slot up before reading its array: a miss can grow the arrays.
+    String getName(int itemId) {
+        int slot = slot(itemId);
+        return names[slot];
+    }
+
+    /** Name without the dose suffix ("Prayer potion(3)" -> "Prayer potion"). */
+    String getBaseName(int itemId) {
+        int slot = slot(itemId);
+        return baseNames[slot];
+    }
+
+    /**
+     * Positive ID shared by all dose variants of the same base potion (and by items whose
+     * names are otherwise equal). Only stable until the cache next starts over, so it should
+     * not be kept beyond one pass over an inventory.
+     */
+    int getBaseId(int itemId) {
+        int slot = slot(itemId);
+        return baseIds[slot];
+    }
+
+    /** Dose in the item's name, or 0 if the item is not dose-based. */
+    int getDose(int itemId) {
+        int slot = slot(itemId);
+        return doses[slot];
+    }
+
+    int getHaPrice(int itemId) {
+        int slot = slot(itemId);
+        return haPrices[slot];
+    }
+
+    int getPrice(int itemId) {
+        return price(slot(itemId), itemId);
+    }
+
+    /** GE price of a single dose for potions, or the full price for other items. */
+    int getPricePerDose(int itemId) {
+        int slot = slot(itemId);
+        int fullPrice = price(slot, itemId);
+        return doses[slot] > 0 ? fullPrice / doses[slot] : fullPrice;
+    }
+
+    /** Makes the next price lookup of every item read the current GE price again. */
+    void invalidatePrices() {
+        priceVersion++;
+        pricesReadSinceMillis = System.currentTimeMillis();
+    }
+
+    /** Lookups answered from the cache. */
+    long getHitCount() {
+        return hits;
+    }
+
+    /** Lookups that had to read the item composition. */
+    long getMissCount() {
+        return misses;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static String stripDose(String itemName) {
+        Matcher m = DOSE_PATTERN.matcher(itemName);
+        return m.find() ? itemName.substring(0, m.start()).trim() : itemName.trim();
+    }
+
+    static int parseDose(String itemName) {
+        Matcher m = DOSE_PATTERN.matcher(itemName);
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+    }
+
+    private int slot(int itemId) {
+        int slot = slotByItemId.get(itemId);
+        if (slot > 0) {
+            hits++;
+            return slot - 1;
+        }
+
+        misses++;
+        if (size == MAX_ENTRIES) {
+            slotByItemId.clear();
+            baseIdsByName.clear();
+            size = 0;
+        } else if (size == names.length) {
+            grow();
+        }
+
+        ItemComposition composition = compositions.apply(itemId);
+        String name = composition.getName();
+        String baseName = stripDose(name);
+        slot = size++;
+        names[slot] = name;
+        baseNames[slot] = baseName;
+        baseIds[slot] = baseIdsByName.computeIfAbsent(baseName, unused -> nextBaseId++);
+        doses[slot] = parseDose(name);
+        haPrices[slot] = Math.max(0, composition.getHaPrice());
+        priceVersions[slot] = 0;
+        slotByItemId.add(itemId, slot + 1);
+        return slot;
+    }
+
+    private int price(int slot, int itemId) {
+        if (System.currentTimeMillis() - pricesReadSinceMillis >= PRICE_MAX_AGE_MILLIS) {
+            invalidatePrices();
+        }
+        if (priceVersions[slot] != priceVersion) {
+            int price = prices.applyAsInt(itemId);
+            gePrices[slot] = price;
+            // Left stale when not positive, so the next lookup asks again.
+            priceVersions[slot] = price > 0 ? priceVersion : 0;
+        }
+        return gePrices[slot];
+    }
+
+    private void grow() {
+        int capacity = Math.min(names.length * 2, MAX_ENTRIES);
+        names = Arrays.copyOf(names, capacity);
+        baseNames = Arrays.copyOf(baseNames, capacity);
+        baseIds = Arrays.copyOf(baseIds, capacity);
+        doses = Arrays.copyOf(doses, capacity);
+        haPrices = Arrays.copyOf(haPrices, capacity);
+        gePrices = Arrays.copyOf(gePrices, capacity);
+        priceVersions = Arrays.copyOf(priceVersions, capacity);
+    }
+}
@@ -0,0 +1,183 @@
+package com.camjewell;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Item ID to quantity table on primitive arrays with open addressing. Item IDs must be
+ * positive; 0 marks a free slot. Clearing keeps the arrays, so a table that is refilled
+ * on every snapshot stops allocating once it has grown to the largest snapshot seen.
+ */
+final class ItemQuantityTable {
+    private static final int MIN_CAPACITY = 64;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    ItemQuantityTable() {
+        keys = new int[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+    }
+
+    /** Adds {@code quantity} to the quantity of {@code itemId}. */
+    void add(int itemId, int quantity) {
+        if (itemId <= 0) {
+            throw new IllegalArgumentException("Item ID must be positive: " + itemId);
+        }
+        int mask = keys.length - 1;
+        int slot = slotFor(itemId, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == itemId) {
+                values[slot] += quantity;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = itemId;
+        values[slot] = quantity;
+        // Keep at most half the slots used so probe runs stay short.
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /** Quantity of {@code itemId}, or 0 if it is not in the table. */
+    int get(int itemId) {
+        int mask = keys.length - 1;
+        int slot = slotFor(itemId, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == itemId) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+    }
+
+    /**
+     * Exchanges contents with {@code other}. Used to turn the snapshot just built into the
+     * previous one without copying, leaving the old previous snapshot as the next buffer.
+     */
+    void swap(ItemQuantityTable other) {
+        int[] otherKeys = other.keys;
+        int[] otherValues = other.values;
+        int otherSize = other.size;
+        other.keys = keys;
+        other.values = values;
+        other.size = size;
+        keys = otherKeys;
+        values = otherValues;
+        size = otherSize;
+    }
+
+    /**
+     * Number of slots, for allocation-free iteration with {@link #keyAt} and
+     * {@link #valueAt}. Only valid until the table is next modified.
+     */
+    int slotCount() {
+        return keys.length;
+    }
+
+    /** Item ID in {@code slot}, or 0 if the slot is free. */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                map.put(keys[slot], values[slot]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Adds the per-item drop from {@code previous} to {@code current} to {@code decreases}
+     * and the per-item rise to {@code increases}. Items missing from a table count as 0.
+     */
+    static void diff(ItemQuantityTable previous, ItemQuantityTable current,
+            ItemQuantityTable decreases, ItemQuantityTable increases) {
+        for (int slot = 0; slot < previous.keys.length; slot++) {
+            int itemId = previous.keys[slot];
+            if (itemId == 0) {
+                continue;
+            }
+            int prev = previous.values[slot];
+            int curr = current.get(itemId);
+            if (curr < prev) {
+                decreases.add(itemId, prev - curr);
+            }
+        }
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            int itemId = current.keys[slot];
+            if (itemId == 0) {
+                continue;
+            }
+            int curr = current.values[slot];
+            int prev = previous.get(itemId);
+            if (curr > prev) {
+                increases.add(itemId, curr - prev);
+            }
+        }
+    }
+
+    /** True if any item has a lower quantity in {@code current} than in {@code previous}. */
+    static boolean hasDecrease(ItemQuantityTable previous, ItemQuantityTable current) {
+        for (int slot = 0; slot < previous.keys.length; slot++) {
+            int itemId = previous.keys[slot];
+            if (itemId != 0 && current.get(itemId) < previous.values[slot]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int itemId = oldKeys[i];
+            if (itemId == 0) {
+                continue;
+            }
+            int slot = slotFor(itemId, mask);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = itemId;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int slotFor(int itemId, int mask) {
+        // Fibonacci hashing spreads the clustered item IDs of potion and rune families.
+        int hash = itemId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,108 @@
+package com.camjewell;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Item rows of one list panel, keyed by item name. Refreshing a list re-binds the rows it
+ * already has instead of building new panels and labels for every item.
+ */
+final class ItemRowPool {
+    static final int ROW_HEIGHT = 20;
+    private static final Dimension ROW_MAXIMUM_SIZE = new Dimension(Integer.MAX_VALUE, ROW_HEIGHT);
+    private static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+
+    /** Name and quantity on the left, value on the right. */
+    static final class ItemRow extends JPanel {
+        private final JLabel itemLabel = new JLabel();
+        private final JLabel valueLabel = new JLabel();
+        private Runnable onClick;
+
+        ItemRow(EmptyBorder border) {
+            super(new BorderLayout());
+            setBackground(ColorScheme.DARK_GRAY_COLOR);
+            setMaximumSize(ROW_MAXIMUM_SIZE);
+            setBorder(border);
+
+            itemLabel.setFont(FontManager.getRunescapeSmallFont());
+            valueLabel.setFont(FontManager.getRunescapeSmallFont());
+            add(itemLabel, BorderLayout.WEST);
+            add(valueLabel, BorderLayout.EAST);
+
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent event) {
+                    if (onClick != null
+                            && (SwingUtilities.isLeftMouseButton(event) || SwingUtilities.isRightMouseButton(event))) {
+                        onClick.run();
+                    }
+                }
+            });
+        }
+
+        /** @param onClick run when the row is clicked, or null if the row is not clickable */
+        void bind(String itemText, String valueText, Color color, String rowTooltip, String valueTooltip,
+                Runnable onClick) {
+            itemLabel.setText(itemText);
+            itemLabel.setForeground(color);
+            valueLabel.setText(valueText);
+            valueLabel.setForeground(color);
+            valueLabel.setToolTipText(valueTooltip);
+            setToolTipText(rowTooltip);
+            setCursor(onClick != null ? HAND_CURSOR : null);
+            this.onClick = onClick;
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent event) {
+            // Lets lists that use the row as a cell renderer show the value tooltip too.
+            Component child = getComponentAt(event.getPoint());
+            if (child instanceof JComponent && child != this) {
+                String childTooltip = ((JComponent) child).getToolTipText();
+                if (childTooltip != null) {
+                    return childTooltip;
+                }
+            }
+            return super.getToolTipText(event);
+        }
+    }
+
+    private final EmptyBorder rowBorder;
+    private final Map<String, ItemRow> rowsByName = new HashMap<>();
+
+    ItemRowPool(int leftInset) {
+        rowBorder = new EmptyBorder(2, leftInset, 2, 0);
+    }
+
+    /** Standalone row with this pool's layout that is not tracked by the pool. */
+    ItemRow createRow() {
+        return new ItemRow(rowBorder);
+    }
+
+    ItemRow acquire(String itemName) {
+        return rowsByName.computeIfAbsent(itemName, name -> createRow());
+    }
+
+    /** Drops the rows of items that are no longer shown. */
+    void retain(Collection<String> itemNames) {
+        rowsByName.keySet().retainAll(new HashSet<>(itemNames));
+    }
+}
@@ -0,0 +1,217 @@
+package com.camjewell;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+
+/**
+ * Loot alert rules compiled from the "Loot alerts" config, indexed by item ID so a loot
+ * event is checked in time proportional to the items in it. Lines are:
+ * <ul>
+ * <li>{@code item name, quantity}: the loot window holds at least that many, summed over
+ * every stack with that name</li>
+ * <li>{@code item name, quantity, run}: that many were received this run in total, alerted
+ * once per run</li>
+ * <li>{@code value, gp}: a single item stack received is worth at least that much</li>
+ * </ul>
+ * Names are matched case-insensitively. Rules whose item ID is not known yet are matched by
+ * name the first time an item is seen and indexed by its ID from then on. Every item of a
+ * loot event is passed to {@link #onLoot}, then {@link #finishLoot} checks the window rules.
+ */
+final class LootAlertTable {
+    private static final String RUN_SUFFIX = "run";
+    private static final String VALUE_KEYWORD = "value";
+    // Index value of an item seen without any rule.
+    private static final int NO_RULE = -1;
+
+    private static final class ItemRule {
+        final String name;
+        int windowMinQty;
+        // Window quantity of every item matching this rule in the event being checked.
+        long windowQty;
+        // Whether the rule is in windowRulesInEvent; quantities of 0 or less can't tell.
+        boolean inEvent;
+        int runMinQty;
+        int runQty;
+        boolean runAlerted;
+
+        ItemRule(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<ItemRule> rules = new ArrayList<>();
+    private final Map<String, Integer> ruleIndexByName = new HashMap<>();
+    // Item ID -> rule index plus one, or NO_RULE; 0 means the item has not been seen.
+    private final ItemQuantityTable ruleIndexByItemId = new ItemQuantityTable();
+    // Window rules matched by the event being checked, in the order first seen.
+    private final List<ItemRule> windowRulesInEvent = new ArrayList<>();
+    private long minStackValue;
+
+    private LootAlertTable() {
+    }
+
+    static LootAlertTable compile(String raw, ToIntFunction<String> resolveItemId, Logger log) {
+        LootAlertTable table = new LootAlertTable();
+        if (raw == null || raw.trim().isEmpty()) {
+            return table;
+        }
+
+        String[] lines = raw.split("\\r?\\n");
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = trimmed.split(",");
+            if (parts.length < 2) {
+                log.warn("[Mokha] Loot alert line missing comma: {}", trimmed);
+                continue;
+            }
+
+            String name = parts[0].trim();
+            String qtyText = parts[1].trim();
+            if (name.isEmpty() || qtyText.isEmpty()) {
+                log.warn("[Mokha] Loot alert line missing name or quantity: {}", trimmed);
+                continue;
+            }
+
+            long threshold;
+            try {
+                threshold = Long.parseLong(qtyText);
+            } catch (NumberFormatException e) {
+                log.warn("[Mokha] Loot alert quantity is not a number: {}", trimmed);
+                continue;
+            }
+
+            if (threshold <= 0) {
+                log.warn("[Mokha] Loot alert quantity must be positive: {}", trimmed);
+                continue;
+            }
+
+            if (name.equalsIgnoreCase(VALUE_KEYWORD)) {
+                table.minStackValue = table.minStackValue > 0 ? Math.min(table.minStackValue, threshold) : threshold;
+                continue;
+            }
+
+            if (threshold > Integer.MAX_VALUE) {
+                log.warn("[Mokha] Loot alert quantity is too large: {}", trimmed);
+                continue;
+            }
+
+            boolean perRun = parts.length > 2 && parts[2].trim().equalsIgnoreCase(RUN_SUFFIX);
+            if (parts.length > 2 && !perRun) {
+                log.warn("[Mokha] Loot alert line has unknown option: {}", trimmed);
+                continue;
+            }
+
+            table.addRule(name, (int) threshold, perRun, resolveItemId);
+        }
+
+        return table;
+    }
+
+    private void addRule(String name, int minQty, boolean perRun, ToIntFunction<String> resolveItemId) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Integer index = ruleIndexByName.get(key);
+        if (index == null) {
+            rules.add(new ItemRule(name));
+            index = rules.size();
+            ruleIndexByName.put(key, index);
+            int itemId = resolveItemId.applyAsInt(name);
+            if (itemId > 0) {
+                ruleIndexByItemId.add(itemId, index);
+            }
+        }
+
+        // Several lines for the same item and kind alert at the lowest threshold.
+        ItemRule rule = rules.get(index - 1);
+        if (perRun) {
+            rule.runMinQty = rule.runMinQty > 0 ? Math.min(rule.runMinQty, minQty) : minQty;
+        } else {
+            rule.windowMinQty = rule.windowMinQty > 0 ? Math.min(rule.windowMinQty, minQty) : minQty;
+        }
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty() && minStackValue == 0;
+    }
+
+    /** Starts counting "this run" quantities again. */
+    void resetRun() {
+        for (ItemRule rule : rules) {
+            rule.runQty = 0;
+            rule.runAlerted = false;
+        }
+    }
+
+    /**
+     * Checks one item of a loot event and adds any value or run alert messages. Window
+     * quantities are only summed here; see {@link #finishLoot}.
+     *
+     * @param windowQty quantity now shown in the loot window
+     * @param newQty    quantity received since the window was last read
+     */
+    void onLoot(int itemId, String name, int windowQty, int newQty, IntUnaryOperator itemPrice,
+            List<String> messages) {
+        if (minStackValue > 0 && newQty > 0) {
+            long stackValue = (long) itemPrice.applyAsInt(itemId) * newQty;
+            if (stackValue >= minStackValue) {
+                messages.add(String.format("[Mokha Tracker] Loot alert: %s x%d worth %,d gp (>= %,d gp)", name,
+                        newQty, stackValue, minStackValue));
+            }
+        }
+
+        ItemRule rule = ruleFor(itemId, name);
+        if (rule == null) {
+            return;
+        }
+
+        if (rule.windowMinQty > 0) {
+            if (!rule.inEvent) {
+                rule.inEvent = true;
+                windowRulesInEvent.add(rule);
+            }
+            rule.windowQty += windowQty;
+        }
+
+        if (rule.runMinQty > 0 && newQty > 0) {
+            rule.runQty += newQty;
+            if (!rule.runAlerted && rule.runQty >= rule.runMinQty) {
+                rule.runAlerted = true;
+                messages.add(String.format("[Mokha Tracker] Loot alert: %s x%d this run (>= %d)", rule.name,
+                        rule.runQty, rule.runMinQty));
+            }
+        }
+    }
+
+    /** Adds an alert for each window rule whose items in this event reach its quantity. */
+    void finishLoot(List<String> messages) {
+        for (ItemRule rule : windowRulesInEvent) {
+            if (rule.windowQty >= rule.windowMinQty) {
+                messages.add(String.format("[Mokha Tracker] Loot alert: %s x%d (>= %d)", rule.name, rule.windowQty,
+                        rule.windowMinQty));
+            }
+            rule.windowQty = 0;
+            rule.inEvent = false;
+        }
+        windowRulesInEvent.clear();
+    }
+
+    private ItemRule ruleFor(int itemId, String name) {
+        int index = ruleIndexByItemId.get(itemId);
+        if (index == 0) {
+            Integer byName = ruleIndexByName.get(name.toLowerCase(Locale.ROOT));
+            index = byName != null ? byName : NO_RULE;
+            ruleIndexByItemId.add(itemId, index);
+        }
+        return index > 0 ? rules.get(index - 1) : null;
+    }
+}
@@ -1,12 +1,19 @@
 package com.camjewell;
 
 class LootItem {
+    // 0 for loot recorded before item IDs were kept.
+    int itemId;
     String name;
     int quantity;
     int value;
     int haValue;
 
     LootItem(String name, int quantity, int value, int haValue) {
+        this(0, name, quantity, value, haValue);
+    }
+
+    LootItem(int itemId, String name, int quantity, int value, int haValue) {
+        this.itemId = itemId;
         this.name = name;
         this.quantity = quantity;
         this.value = value;
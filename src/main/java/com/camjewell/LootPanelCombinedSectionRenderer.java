@@ -2,27 +2,113 @@ package com.camjewell;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.DefaultListModel;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JPanel;
-import javax.swing.border.EmptyBorder;
+import javax.swing.SwingUtilities;
 
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.FontManager;
 
 final class LootPanelCombinedSectionRenderer {
+    private static final String ITEM_LIST_KEY = "mokhaloot.combinedItemList";
+    private static final Color UNIQUE_GOLD_COLOR = new Color(218, 165, 32);
+
     private LootPanelCombinedSectionRenderer() {
     }
 
-    @FunctionalInterface
-    interface HistoricalInteractionBinder {
-        void bind(JPanel itemRow, String itemName);
+    /**
+     * Combined item rows as a list with fixed-height cells. Only the cells inside the visible
+     * part of the panel are painted, all through one shared row component, so long histories
+     * do not add a panel per item to the layout.
+     */
+    private static final class CombinedItemList extends JList<ItemAggregate> {
+        private final DefaultListModel<ItemAggregate> model = new DefaultListModel<>();
+        private final ItemRowPool.ItemRow rendererRow = new ItemRowPool(5).createRow();
+        private boolean displayHaValueOnHover;
+        private boolean usePricePerItemForUniqueColor;
+        private String removalHint;
+        private Consumer<String> onRemoveItem;
+
+        CombinedItemList() {
+            setModel(model);
+            setBackground(ColorScheme.DARK_GRAY_COLOR);
+            setFixedCellHeight(ItemRowPool.ROW_HEIGHT);
+            // The list is as wide as the panel; a fixed width avoids measuring every cell.
+            setFixedCellWidth(1);
+            setCellRenderer((list, aggregate, index, isSelected, cellHasFocus) -> bindRow(aggregate));
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent event) {
+                    if (onRemoveItem == null
+                            || (!SwingUtilities.isLeftMouseButton(event) && !SwingUtilities.isRightMouseButton(event))) {
+                        return;
+                    }
+                    int index = locationToIndex(event.getPoint());
+                    Rectangle bounds = index >= 0 ? getCellBounds(index, index) : null;
+                    if (bounds != null && bounds.contains(event.getPoint())) {
+                        onRemoveItem.accept(model.getElementAt(index).name);
+                    }
+                }
+            });
+        }
+
+        void setItems(List<ItemAggregate> items, boolean displayHaValueOnHover,
+                boolean usePricePerItemForUniqueColor, String removalHint, Consumer<String> onRemoveItem) {
+            this.displayHaValueOnHover = displayHaValueOnHover;
+            this.usePricePerItemForUniqueColor = usePricePerItemForUniqueColor;
+            this.removalHint = removalHint;
+            this.onRemoveItem = onRemoveItem;
+            setCursor(onRemoveItem != null ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : null);
+
+            model.clear();
+            model.addAll(items);
+        }
+
+        private Component bindRow(ItemAggregate aggregate) {
+            Color itemColor = isUltraValuable(aggregate, usePricePerItemForUniqueColor)
+                    ? UNIQUE_GOLD_COLOR
+                    : ColorScheme.LIGHT_GRAY_COLOR;
+            String rowTooltip = "Price per item: " + LootPanelDisplayUtils.formatPricePerItemTooltip(
+                    aggregate.pricePerItem,
+                    aggregate.haPricePerItem,
+                    displayHaValueOnHover);
+            if (removalHint != null) {
+                rowTooltip += " | " + removalHint;
+            }
+            rendererRow.bind(
+                    "- " + aggregate.name + " x" + aggregate.totalQuantity,
+                    LootPanelDisplayUtils.formatGp(aggregate.totalValue),
+                    itemColor,
+                    rowTooltip,
+                    LootPanelDisplayUtils.formatGeHaTotalText(aggregate.totalValue, aggregate.totalHaValue),
+                    null);
+            return rendererRow;
+        }
+
+        @Override
+        public Dimension getMaximumSize() {
+            return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+        }
     }
 
+    /**
+     * @param removalScope where items are removed from when clicked (e.g. "claimed historical
+     *                     loot (all waves)"), or null if items cannot be removed
+     */
     static void renderCombinedWaveItems(
             JPanel targetPanel,
             Map<Integer, Map<String, ItemAggregate>> historicalByWave,
@@ -30,49 +116,35 @@ final class LootPanelCombinedSectionRenderer {
             boolean displayHaValueOnHover,
             boolean usePricePerItemForUniqueColor,
             Color totalTextColor,
-            boolean enableHistoricalEdit,
-            HistoricalInteractionBinder historicalInteractionBinder) {
-        targetPanel.removeAll();
+            String removalScope,
+            Consumer<String> onRemoveItem) {
+        Object existingList = targetPanel.getClientProperty(ITEM_LIST_KEY);
+        CombinedItemList itemList;
+        if (existingList instanceof CombinedItemList && ((CombinedItemList) existingList).getParent() == targetPanel) {
+            itemList = (CombinedItemList) existingList;
+            // Keep the list; only the total below it is rebuilt.
+            while (targetPanel.getComponentCount() > 1) {
+                targetPanel.remove(targetPanel.getComponentCount() - 1);
+            }
+        } else {
+            targetPanel.removeAll();
+            itemList = new CombinedItemList();
+            targetPanel.add(itemList);
+            targetPanel.putClientProperty(ITEM_LIST_KEY, itemList);
+        }
 
         HistoricalAggregateCombiner.CombinedAggregateResult combinedResult = HistoricalAggregateCombiner
                 .combine(historicalByWave);
         long totalValue = combinedResult.getTotalValue();
         long totalHaValue = combinedResult.getTotalHaValue();
 
-        for (ItemAggregate aggregate : LootPanelDisplayUtils
-                .sortAggregatesForDisplay(combinedResult.getCombined().values(), sortMode)) {
-            JPanel itemRow = new JPanel(new BorderLayout());
-            itemRow.setBackground(ColorScheme.DARK_GRAY_COLOR);
-            itemRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 20));
-            itemRow.setBorder(new EmptyBorder(2, 5, 2, 0));
-
-            JLabel itemLabel = new JLabel("- " + aggregate.name + " x" + aggregate.totalQuantity);
-            Color itemColor = isUltraValuable(aggregate, usePricePerItemForUniqueColor)
-                    ? new Color(218, 165, 32)
-                    : ColorScheme.LIGHT_GRAY_COLOR;
-            itemLabel.setForeground(itemColor);
-            itemLabel.setFont(FontManager.getRunescapeSmallFont());
-
-            String pricePerItemText = LootPanelDisplayUtils.formatPricePerItemTooltip(
-                    aggregate.pricePerItem,
-                    aggregate.haPricePerItem,
-                    displayHaValueOnHover);
-            itemRow.setToolTipText("Price per item: " + pricePerItemText);
-            itemRow.add(itemLabel, BorderLayout.WEST);
-
-            JLabel itemValueLabel = new JLabel(LootPanelDisplayUtils.formatGp(aggregate.totalValue));
-            itemValueLabel.setForeground(itemColor);
-            itemValueLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemValueLabel.setToolTipText(
-                    LootPanelDisplayUtils.formatGeHaTotalText(aggregate.totalValue, aggregate.totalHaValue));
-            itemRow.add(itemValueLabel, BorderLayout.EAST);
-
-            if (enableHistoricalEdit && historicalInteractionBinder != null) {
-                historicalInteractionBinder.bind(itemRow, aggregate.name);
-            }
-
-            targetPanel.add(itemRow);
-        }
+        boolean removable = removalScope != null && onRemoveItem != null;
+        itemList.setItems(
+                LootPanelDisplayUtils.sortAggregatesForDisplay(combinedResult.getCombined().values(), sortMode),
+                displayHaValueOnHover,
+                usePricePerItemForUniqueColor,
+                removable ? "Click to remove from " + removalScope : null,
+                removable ? onRemoveItem : null);
 
         targetPanel.add(Box.createVerticalStrut(8));
 
@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntUnaryOperator;
 
 import org.slf4j.Logger;
 
@@ -13,32 +14,27 @@ import net.runelite.api.Client;
 import net.runelite.api.gameval.InterfaceID;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.Notifier;
-import net.runelite.client.game.ItemManager;
 
 class LootTrackingService {
+    private static final int END_LEVEL_GROUP_ID = InterfaceID.DomEndLevelUi.FRAME >>> 16;
 
     private final Client client;
-    private final ItemManager itemManager;
+    private final ItemMetadataCache itemMetadata;
     private final MokhaLootTrackerConfig config;
     private final Logger log;
     private final Notifier notifier;
     private final Map<Integer, Integer> previousLootSnapshot;
-
-    private boolean lootWindowWasVisible = false;
+    private final ItemIdDictionary itemIdDictionary;
+
+    // Set from widget events; the window is read once, on the tick after it opens.
+    private boolean lootWindowOpen = false;
+    private boolean lootWindowPending = false;
+    private boolean lootWindowRedrawn = false;
+    // Loot window value text as the plugin last left it; null if not seen since it opened.
+    private String lootValueText;
+    private final IntUnaryOperator itemPrice;
     private String cachedAlertRulesRaw = null;
-    private List<LootAlertRule> cachedAlertRules = Collections.emptyList();
-
-    private static final class LootAlertRule {
-        String name;
-        String nameKey;
-        int minQty;
-
-        LootAlertRule(String name, int minQty) {
-            this.name = name;
-            this.nameKey = name.toLowerCase();
-            this.minQty = minQty;
-        }
-    }
+    private LootAlertTable alertTable;
 
     static final class LootWindowUpdate {
         private final boolean lootWindowVisible;
@@ -66,41 +62,97 @@ class LootTrackingService {
 
     LootTrackingService(
             Client client,
-            ItemManager itemManager,
+            ItemMetadataCache itemMetadata,
             MokhaLootTrackerConfig config,
             Logger log,
             Notifier notifier,
-            Map<Integer, Integer> previousLootSnapshot) {
+            Map<Integer, Integer> previousLootSnapshot,
+            ItemIdDictionary itemIdDictionary,
+            IntUnaryOperator itemPrice) {
         this.client = client;
-        this.itemManager = itemManager;
+        this.itemMetadata = itemMetadata;
         this.config = config;
         this.log = log;
         this.notifier = notifier;
         this.previousLootSnapshot = previousLootSnapshot;
+        this.itemIdDictionary = itemIdDictionary;
+        this.itemPrice = itemPrice;
+    }
+
+    void onWidgetLoaded(int groupId) {
+        if (groupId == END_LEVEL_GROUP_ID) {
+            lootWindowOpen = true;
+            lootWindowPending = true;
+            lootValueText = null;
+        }
+    }
+
+    void onWidgetClosed(int groupId) {
+        if (groupId == END_LEVEL_GROUP_ID) {
+            lootWindowOpen = false;
+            lootWindowPending = false;
+            lootWindowRedrawn = false;
+            lootValueText = null;
+        }
+    }
+
+    /**
+     * A script ran. Counts as a redraw of the open loot window only if its value text no
+     * longer matches what {@link #setLootValueText} last recorded, so scripts of other
+     * interfaces do not make the plugin rewrite it.
+     */
+    void onScriptPostFired() {
+        if (!lootWindowOpen || lootWindowRedrawn) {
+            return;
+        }
+        Widget valueWidget = client.getWidget(InterfaceID.DomEndLevelUi.LOOT_VALUE);
+        String text = valueWidget != null ? valueWidget.getText() : null;
+        if (text != null && !text.equals(lootValueText)) {
+            lootWindowRedrawn = true;
+        }
+    }
+
+    /** Records the loot window's value text after the plugin has updated it. */
+    void setLootValueText(String text) {
+        lootValueText = text;
+    }
+
+    boolean isLootWindowOpen() {
+        return lootWindowOpen;
+    }
+
+    /** True once after each redraw of the open loot window. */
+    boolean takeLootWindowRedrawn() {
+        boolean redrawn = lootWindowRedrawn;
+        lootWindowRedrawn = false;
+        return redrawn;
     }
 
-    LootWindowUpdate pollLootWindow(boolean inMokhaArena) {
+    /**
+     * Reads the loot window if it opened since the last call; null otherwise. Meant to run
+     * once per tick, so the window has been populated by the time it is read.
+     */
+    LootWindowUpdate readOpenedLootWindow(boolean inMokhaArena) {
+        if (!lootWindowPending) {
+            return null;
+        }
+        lootWindowPending = false;
         if (!inMokhaArena) {
-            lootWindowWasVisible = false;
-            return new LootWindowUpdate(false, 0, Collections.emptyMap());
+            return null;
         }
 
         Widget mainWidget = client.getWidget(InterfaceID.DomEndLevelUi.FRAME);
-        boolean lootWindowVisible = mainWidget != null && !mainWidget.isHidden();
+        if (mainWidget == null || mainWidget.isHidden()) {
+            return new LootWindowUpdate(false, 0, Collections.emptyMap());
+        }
 
-        int detectedWave = 0;
+        int detectedWave = extractWaveNumber(mainWidget);
         Map<Integer, Integer> newLootByItemId = Collections.emptyMap();
-
-        if (lootWindowVisible && !lootWindowWasVisible) {
-            detectedWave = extractWaveNumber(mainWidget);
-            Widget lootContainerWidget = client.getWidget(InterfaceID.DomEndLevelUi.LOOT_CONTENTS);
-            if (lootContainerWidget != null) {
-                newLootByItemId = parseNewLoot(lootContainerWidget);
-            }
+        Widget lootContainerWidget = client.getWidget(InterfaceID.DomEndLevelUi.LOOT_CONTENTS);
+        if (lootContainerWidget != null) {
+            newLootByItemId = parseNewLoot(lootContainerWidget);
         }
-
-        lootWindowWasVisible = lootWindowVisible;
-        return new LootWindowUpdate(lootWindowVisible, detectedWave, newLootByItemId);
+        return new LootWindowUpdate(true, detectedWave, newLootByItemId);
     }
 
     private Map<Integer, Integer> parseNewLoot(Widget containerWidget) {
@@ -110,7 +162,8 @@ class LootTrackingService {
         }
 
         Map<Integer, Integer> currentLoot = new HashMap<>();
-        Map<String, Integer> currentLootByName = new HashMap<>();
+        LootAlertTable alerts = getAlertTable();
+        List<String> alertMessages = new ArrayList<>();
         for (Widget child : children) {
             if (child == null || child.isHidden()) {
                 continue;
@@ -122,17 +175,24 @@ class LootTrackingService {
                 continue;
             }
 
-            String itemName = itemManager.getItemComposition(itemId).getName();
+            String itemName = itemMetadata.getName(itemId);
             if (itemName == null || itemName.isEmpty() || itemName.equalsIgnoreCase("null")) {
                 continue;
             }
 
             currentLoot.put(itemId, itemQuantity);
-            String nameKey = itemName.toLowerCase();
-            currentLootByName.put(nameKey, currentLootByName.getOrDefault(nameKey, 0) + itemQuantity);
+            // History is keyed by name; remember the ID so it can be repriced later.
+            itemIdDictionary.record(itemId, itemName);
+            if (!alerts.isEmpty()) {
+                int newQuantity = Math.max(0, itemQuantity - previousLootSnapshot.getOrDefault(itemId, 0));
+                alerts.onLoot(itemId, itemName, itemQuantity, newQuantity, itemPrice, alertMessages);
+            }
+        }
+        if (!alerts.isEmpty()) {
+            alerts.finishLoot(alertMessages);
         }
 
-        notifyLootAlerts(currentLootByName);
+        notifyLootAlerts(alertMessages);
 
         Map<Integer, Integer> newLootByItemId = new HashMap<>();
         for (Map.Entry<Integer, Integer> entry : currentLoot.entrySet()) {
@@ -149,81 +209,27 @@ class LootTrackingService {
         return newLootByItemId;
     }
 
-    private List<LootAlertRule> getAlertRules() {
+    private LootAlertTable getAlertTable() {
         String raw = config.lootAlertLines();
         if (raw == null) {
             raw = "";
         }
         if (!raw.equals(cachedAlertRulesRaw)) {
             cachedAlertRulesRaw = raw;
-            cachedAlertRules = parseAlertRules(raw);
+            alertTable = LootAlertTable.compile(raw, itemIdDictionary::resolve, log);
         }
-        return cachedAlertRules;
+        return alertTable;
     }
 
-    private List<LootAlertRule> parseAlertRules(String raw) {
-        List<LootAlertRule> rules = new ArrayList<>();
-        if (raw.trim().isEmpty()) {
-            return rules;
-        }
-
-        String[] lines = raw.split("\\r?\\n");
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
-                continue;
-            }
-
-            int commaIndex = trimmed.indexOf(',');
-            if (commaIndex < 0) {
-                log.warn("[Mokha] Loot alert line missing comma: {}", trimmed);
-                continue;
-            }
-
-            String name = trimmed.substring(0, commaIndex).trim();
-            String qtyText = trimmed.substring(commaIndex + 1).trim();
-            if (name.isEmpty() || qtyText.isEmpty()) {
-                log.warn("[Mokha] Loot alert line missing name or quantity: {}", trimmed);
-                continue;
-            }
-
-            int minQty;
-            try {
-                minQty = Integer.parseInt(qtyText);
-            } catch (NumberFormatException e) {
-                log.warn("[Mokha] Loot alert quantity is not a number: {}", trimmed);
-                continue;
-            }
-
-            if (minQty <= 0) {
-                log.warn("[Mokha] Loot alert quantity must be positive: {}", trimmed);
-                continue;
-            }
-
-            rules.add(new LootAlertRule(name, minQty));
-        }
-
-        return rules;
+    /** Starts a new run for "this run" loot alerts. */
+    void resetRunAlerts() {
+        getAlertTable().resetRun();
     }
 
-    private void notifyLootAlerts(Map<String, Integer> currentLootByName) {
-        if (currentLootByName.isEmpty()) {
-            return;
-        }
-
-        List<LootAlertRule> rules = getAlertRules();
-        if (rules.isEmpty()) {
-            return;
-        }
-
-        for (LootAlertRule rule : rules) {
-            Integer qty = currentLootByName.get(rule.nameKey);
-            if (qty != null && qty >= rule.minQty) {
-                String message = String.format("[Mokha Tracker] Loot alert: %s x%d (>= %d)", rule.name, qty,
-                        rule.minQty);
-                client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
-                notifier.notify(message);
-            }
+    private void notifyLootAlerts(List<String> messages) {
+        for (String message : messages) {
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
+            notifier.notify(message);
         }
     }
 
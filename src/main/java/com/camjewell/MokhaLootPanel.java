@@ -6,12 +6,17 @@ import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.Insets;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -38,9 +43,26 @@ public class MokhaLootPanel extends PluginPanel {
     private static final Color VENOM_COLOR = new Color(0, 128, 0);
     private static final Color HP_REGAINED_COLOR = new Color(60, 180, 60);
 
+    private static final String RENDERED_ROWS_KEY = "mokhaloot.renderedRows";
+    private static final String ROW_POOL_KEY = "mokhaloot.rowPool";
+    private static final DateTimeFormatter RUN_TIME_FORMAT = DateTimeFormatter.ofPattern("EEE HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    /** What an item list panel currently shows, so an update can replace only changed rows. */
+    private static final class RenderedRows {
+        private final List<ItemData> items;
+        private final Object rowStyle;
+
+        RenderedRows(List<ItemData> items, Object rowStyle) {
+            this.items = items;
+            this.rowStyle = rowStyle;
+        }
+    }
+
     private final MokhaLootTrackerConfig config;
     private final java.util.function.BooleanSupplier isInRun;
-    private boolean displayHaValueOnHover;
+    private volatile boolean displayHaValueOnHover;
+    private final PanelSectionStamps sectionStamps = new PanelSectionStamps();
 
     // Profit/Loss section
     private JLabel totalClaimedLabel;
@@ -51,9 +73,14 @@ public class MokhaLootPanel extends PluginPanel {
     private JLabel claimedCountLabel;
     private JLabel deathCountLabel;
     private JLabel uniqueClaimsCountLabel;
+    private JLabel priceSnapshotTimeLabel;
+    private JLabel runsTodayLabel;
+    private JLabel runsWeekLabel;
     private long summaryTotalClaimedGe;
     private long summarySupplyCostGe;
     private long summaryTotalUnclaimedGe;
+    private long summaryTotalClaimedAtDrop;
+    private long summaryTotalUnclaimedAtDrop;
 
     // Current Run section
     private JLabel potentialValueLabel;
@@ -135,6 +162,8 @@ public class MokhaLootPanel extends PluginPanel {
 
     // Supplies Used Current Run
     private JLabel suppliesCurrentRunTotalLabel;
+    private JLabel suppliesCurrentRunPerMinuteLabel;
+    private JPanel suppliesCurrentRunByWavePanel;
     private JPanel suppliesCurrentRunPanel;
     private JPanel suppliesCurrentRunContainer; // Container for all supplies content
     private boolean suppliesCurrentRunCollapsed = false; // Track collapse state
@@ -545,6 +574,26 @@ public class MokhaLootPanel extends PluginPanel {
         uniqueClaimsCountLabel.setForeground(UNIQUE_GOLD_COLOR);
         panel.add(createStatRow("Uniques Claimed:", uniqueClaimsCountLabel));
 
+        panel.add(createInternalSeparator());
+
+        priceSnapshotTimeLabel = new JLabel("Not yet");
+        priceSnapshotTimeLabel.setFont(FontManager.getRunescapeFont());
+        priceSnapshotTimeLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+        priceSnapshotTimeLabel.setToolTipText("When the GE prices used for loot totals were last read");
+        panel.add(createStatRow("Prices Updated:", priceSnapshotTimeLabel));
+
+        panel.add(createInternalSeparator());
+
+        runsTodayLabel = new JLabel("0");
+        runsTodayLabel.setFont(FontManager.getRunescapeFont());
+        runsTodayLabel.setForeground(Color.WHITE);
+        panel.add(createStatRow("Runs Today:", runsTodayLabel));
+
+        runsWeekLabel = new JLabel("0");
+        runsWeekLabel.setFont(FontManager.getRunescapeFont());
+        runsWeekLabel.setForeground(Color.WHITE);
+        panel.add(createStatRow("Runs (7 Days):", runsWeekLabel));
+
         return panel;
     }
 
@@ -953,11 +1002,10 @@ public class MokhaLootPanel extends PluginPanel {
                 displayHaValueOnHover,
                 true,
                 new Color(0, 200, 0),
-                config.enableHistoricalEdit() && onRemoveClaimedHistoricalItemAllWaves != null,
-                (itemRow, itemName) -> addHistoricalRemovalInteraction(
-                        itemRow,
-                        itemName,
-                        "claimed historical loot (all waves)",
+                config.enableHistoricalEdit() && onRemoveClaimedHistoricalItemAllWaves != null
+                        ? "claimed historical loot (all waves)"
+                        : null,
+                itemName -> confirmHistoricalRemoval(itemName, "claimed historical loot (all waves)",
                         () -> onRemoveClaimedHistoricalItemAllWaves.accept(itemName)));
     }
 
@@ -973,11 +1021,10 @@ public class MokhaLootPanel extends PluginPanel {
                 displayHaValueOnHover,
                 false,
                 new Color(200, 0, 0),
-                config.enableHistoricalEdit() && onRemoveUnclaimedHistoricalItemAllWaves != null,
-                (itemRow, itemName) -> addHistoricalRemovalInteraction(
-                        itemRow,
-                        itemName,
-                        "unclaimed historical loot (all waves)",
+                config.enableHistoricalEdit() && onRemoveUnclaimedHistoricalItemAllWaves != null
+                        ? "unclaimed historical loot (all waves)"
+                        : null,
+                itemName -> confirmHistoricalRemoval(itemName, "unclaimed historical loot (all waves)",
                         () -> onRemoveUnclaimedHistoricalItemAllWaves.accept(itemName)));
     }
 
@@ -1035,6 +1082,17 @@ public class MokhaLootPanel extends PluginPanel {
         suppliesCurrentRunTotalLabel.setForeground(Color.WHITE);
         suppliesCurrentRunContainer.add(createStatRow("Total Value:", suppliesCurrentRunTotalLabel));
 
+        suppliesCurrentRunPerMinuteLabel = new JLabel("0 gp");
+        suppliesCurrentRunPerMinuteLabel.setFont(FontManager.getRunescapeFont());
+        suppliesCurrentRunPerMinuteLabel.setForeground(Color.WHITE);
+        suppliesCurrentRunContainer.add(createStatRow("Per Minute:", suppliesCurrentRunPerMinuteLabel));
+
+        // One "Wave N:" row per wave that used supplies
+        suppliesCurrentRunByWavePanel = new JPanel();
+        suppliesCurrentRunByWavePanel.setLayout(new BoxLayout(suppliesCurrentRunByWavePanel, BoxLayout.Y_AXIS));
+        suppliesCurrentRunByWavePanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        suppliesCurrentRunContainer.add(suppliesCurrentRunByWavePanel);
+
         suppliesCurrentRunPanel = new JPanel();
         suppliesCurrentRunPanel.setLayout(new BoxLayout(suppliesCurrentRunPanel, BoxLayout.Y_AXIS));
         suppliesCurrentRunPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -1367,20 +1425,22 @@ public class MokhaLootPanel extends PluginPanel {
     }
 
     void updatePerformance(int prayerUsed, int prayerRegained, int hpLost, int hpRegained, int specialAttacksUsed, int venomApplications) {
-        SwingUtilities.invokeLater(() -> {
-            if (performancePrayerUsedLabel != null)
-                performancePrayerUsedLabel.setText(String.valueOf(prayerUsed));
-            if (performancePrayerRegainedLabel != null)
-                performancePrayerRegainedLabel.setText(String.valueOf(prayerRegained));
-            if (performanceHpLostLabel != null)
-                performanceHpLostLabel.setText(String.valueOf(hpLost));
-            if (performanceHpRegainedLabel != null)
-                performanceHpRegainedLabel.setText(String.valueOf(hpRegained));
-            if (performanceSpecialAttacksUsedLabel != null)
-                performanceSpecialAttacksUsedLabel.setText(String.valueOf(specialAttacksUsed));
-            if (performanceVenomApplicationsLabel != null)
-                performanceVenomApplicationsLabel.setText(String.valueOf(venomApplications));
-        });
+        renderSectionIfChanged("performance",
+                Arrays.asList(prayerUsed, prayerRegained, hpLost, hpRegained, specialAttacksUsed, venomApplications),
+                () -> {
+                    if (performancePrayerUsedLabel != null)
+                        performancePrayerUsedLabel.setText(String.valueOf(prayerUsed));
+                    if (performancePrayerRegainedLabel != null)
+                        performancePrayerRegainedLabel.setText(String.valueOf(prayerRegained));
+                    if (performanceHpLostLabel != null)
+                        performanceHpLostLabel.setText(String.valueOf(hpLost));
+                    if (performanceHpRegainedLabel != null)
+                        performanceHpRegainedLabel.setText(String.valueOf(hpRegained));
+                    if (performanceSpecialAttacksUsedLabel != null)
+                        performanceSpecialAttacksUsedLabel.setText(String.valueOf(specialAttacksUsed));
+                    if (performanceVenomApplicationsLabel != null)
+                        performanceVenomApplicationsLabel.setText(String.valueOf(venomApplications));
+                });
     }
 
     public void setChargeTrackingButtonVisible(boolean visible) {
@@ -1553,6 +1613,14 @@ public class MokhaLootPanel extends PluginPanel {
     // Update methods to be called from plugin
     public void updateProfitLoss(long totalClaimed, long supplyCost, long totalUnclaimed, long claimedCount,
             long deathCount, long uniqueClaimsCount) {
+        renderSectionIfChanged("profitLoss",
+                Arrays.asList(totalClaimed, supplyCost, totalUnclaimed, claimedCount, deathCount, uniqueClaimsCount),
+                () -> renderProfitLoss(totalClaimed, supplyCost, totalUnclaimed, claimedCount, deathCount,
+                        uniqueClaimsCount));
+    }
+
+    private void renderProfitLoss(long totalClaimed, long supplyCost, long totalUnclaimed, long claimedCount,
+            long deathCount, long uniqueClaimsCount) {
         summaryTotalClaimedGe = totalClaimed;
         summarySupplyCostGe = supplyCost;
         summaryTotalUnclaimedGe = totalUnclaimed;
@@ -1585,8 +1653,71 @@ public class MokhaLootPanel extends PluginPanel {
             claimUnclaimRatioLabel.setForeground(Color.WHITE);
         }
 
-        refreshSummaryHaTooltips();
+        // The collapsed section totals mirror the summary labels.
+        updateClaimedSectionTotal();
+        updateUnclaimedSectionTotal();
+    }
+
+    /** Shows when the current price snapshot was read, as a local day and time. */
+    public void updatePriceSnapshotTime(long capturedAtMillis) {
+        // An absolute time stays right however long the panel goes without re-rendering.
+        renderSectionIfChanged("priceSnapshotTime", capturedAtMillis,
+                () -> priceSnapshotTimeLabel.setText(capturedAtMillis > 0
+                        ? RUN_TIME_FORMAT.format(Instant.ofEpochMilli(capturedAtMillis))
+                        : "Not yet"));
+    }
+
+    /**
+     * Shows how many runs were recorded today and over the last seven days, with their
+     * profit. {@code recentRuns} are the latest runs of the week, oldest first, listed in the
+     * week row's tooltip.
+     */
+    void updateRunHistory(RunHistoryStore.RunRange today, RunHistoryStore.RunRange week,
+            List<RunRecord> recentRuns) {
+        List<Object> input = new ArrayList<>(Arrays.asList(today.fromIndex, today.toIndex, today.getProfit(),
+                week.fromIndex, week.toIndex, week.getProfit(), week.unclaimedValue));
+        for (RunRecord run : recentRuns) {
+            input.add(run.runId);
+        }
+        renderSectionIfChanged("runHistory", input, () -> {
+            renderRunRange(runsTodayLabel, today);
+            runsTodayLabel.setToolTipText("<html>" + summarizeRunRange(today) + "</html>");
+
+            renderRunRange(runsWeekLabel, week);
+            StringBuilder tooltip = new StringBuilder("<html>").append(summarizeRunRange(week));
+            for (int i = recentRuns.size() - 1; i >= 0; i--) {
+                RunRecord run = recentRuns.get(i);
+                String outcome = run.outcome != null ? run.outcome.name().replace('_', ' ').toLowerCase() : "unknown";
+                tooltip.append("<br>").append(RUN_TIME_FORMAT.format(Instant.ofEpochMilli(run.timestamp)))
+                        .append(" - wave ").append(run.maxWave)
+                        .append(", ").append(outcome)
+                        .append(", ").append(formatGp(run.lootValue));
+            }
+            runsWeekLabel.setToolTipText(tooltip.append("</html>").toString());
+        });
+    }
 
+    private void renderRunRange(JLabel label, RunHistoryStore.RunRange range) {
+        long profit = range.getProfit();
+        label.setText(range.getRunCount() + " (" + formatGp(profit) + ")");
+        label.setForeground(range.getRunCount() == 0 ? Color.WHITE
+                : profit >= 0 ? new Color(0, 200, 0) : new Color(200, 0, 0));
+    }
+
+    private String summarizeRunRange(RunHistoryStore.RunRange range) {
+        return "Claims: " + range.claims + ", deaths: " + range.deaths
+                + "<br>Claimed: " + formatGp(range.claimedValue)
+                + "<br>Unclaimed: " + formatGp(range.unclaimedValue)
+                + "<br>Supplies: " + formatGp(range.suppliesValue);
+    }
+
+    /** Claimed and unclaimed totals valued at the prices each drop had when received. */
+    public void updateValueAtDrop(long claimedAtDrop, long unclaimedAtDrop) {
+        renderSectionIfChanged("valueAtDrop", Arrays.asList(claimedAtDrop, unclaimedAtDrop), () -> {
+            summaryTotalClaimedAtDrop = claimedAtDrop;
+            summaryTotalUnclaimedAtDrop = unclaimedAtDrop;
+            refreshSummaryHaTooltips();
+        });
     }
 
     public void updateCurrentRun(long potentialValue,
@@ -1594,6 +1725,17 @@ public class MokhaLootPanel extends PluginPanel {
             Map<Integer, Map<String, ItemData>> itemsByWave,
             Map<Integer, Long> totalsByWave,
             Map<Integer, Long> haTotalsByWave) {
+        renderSectionIfChanged("currentRun",
+                Arrays.asList(potentialValue, itemData, itemsByWave, totalsByWave, haTotalsByWave,
+                        config.displaySortMode(), displayHaValueOnHover),
+                () -> renderCurrentRun(potentialValue, itemData, itemsByWave, totalsByWave, haTotalsByWave));
+    }
+
+    private void renderCurrentRun(long potentialValue,
+            Map<String, ItemData> itemData,
+            Map<Integer, Map<String, ItemData>> itemsByWave,
+            Map<Integer, Long> totalsByWave,
+            Map<Integer, Long> haTotalsByWave) {
         currentRunGeTotal = potentialValue;
         currentRunHaTotal = 0;
         currentRunItemData = itemData != null ? new HashMap<>(itemData) : new HashMap<>();
@@ -1624,6 +1766,29 @@ public class MokhaLootPanel extends PluginPanel {
             Map<Integer, Map<String, ItemData>> itemsByWave,
             Map<Integer, Long> totalsByWave,
             Map<Integer, Long> haTotalsByWave) {
+        renderSectionIfChanged("previousRun",
+                Arrays.asList(hasPreviousRun, claimed, totalValue, totalHaValue, itemData, suppliesTotalValue,
+                        suppliesItemData, prayerUsed, prayerRegained, hpLost, hpRegained, specialAttacksUsed,
+                        venomApplications, itemsByWave, totalsByWave, haTotalsByWave,
+                        config.displaySortMode(), displayHaValueOnHover),
+                () -> renderPreviousRun(hasPreviousRun, claimed, totalValue, totalHaValue, itemData,
+                        suppliesTotalValue, suppliesItemData, prayerUsed, prayerRegained, hpLost, hpRegained,
+                        specialAttacksUsed, venomApplications, itemsByWave, totalsByWave, haTotalsByWave));
+    }
+
+    private void renderPreviousRun(boolean hasPreviousRun, boolean claimed, long totalValue, long totalHaValue,
+            Map<String, ItemData> itemData,
+            long suppliesTotalValue,
+            Map<String, ItemData> suppliesItemData,
+            int prayerUsed,
+            int prayerRegained,
+            int hpLost,
+            int hpRegained,
+            int specialAttacksUsed,
+            int venomApplications,
+            Map<Integer, Map<String, ItemData>> itemsByWave,
+            Map<Integer, Long> totalsByWave,
+            Map<Integer, Long> haTotalsByWave) {
         hasPreviousRunData = hasPreviousRun;
         previousRunGeTotal = totalValue;
         previousRunHaTotal = totalHaValue;
@@ -1650,8 +1815,22 @@ public class MokhaLootPanel extends PluginPanel {
             double eyeCumulativePercent,
             double treadsCumulativePercent,
             double domCumulativePercent) {
-        if (isInRun == null || !isInRun.getAsBoolean() || currentDepth < 2) {
-            currentRunWaveLabel.setText(isInRun != null && isInRun.getAsBoolean() && currentDepth > 0
+        boolean inRun = isInRun != null && isInRun.getAsBoolean();
+        renderSectionIfChanged("uniqueChance",
+                Arrays.asList(inRun, currentDepth, cumulativeUniqueChancePercent, clothCumulativePercent,
+                        eyeCumulativePercent, treadsCumulativePercent, domCumulativePercent),
+                () -> renderCurrentRunUniqueChance(inRun, currentDepth, cumulativeUniqueChancePercent,
+                        clothCumulativePercent, eyeCumulativePercent, treadsCumulativePercent,
+                        domCumulativePercent));
+    }
+
+    private void renderCurrentRunUniqueChance(boolean inRun, int currentDepth, double cumulativeUniqueChancePercent,
+            double clothCumulativePercent,
+            double eyeCumulativePercent,
+            double treadsCumulativePercent,
+            double domCumulativePercent) {
+        if (!inRun || currentDepth < 2) {
+            currentRunWaveLabel.setText(inRun && currentDepth > 0
                     ? String.format("Wave %d", currentDepth)
                     : "");
             cumulativeUniqueChanceLabel.setText("N/A");
@@ -1689,6 +1868,21 @@ public class MokhaLootPanel extends PluginPanel {
             double expectedDom, double expectedTreads, double expectedEye, double expectedCloth,
             long receivedDom, long receivedTreads, long receivedEye, long receivedCloth,
             java.util.Map<Integer, Long> completedRunsByWave) {
+        // The caller may keep updating its map; render from a copy.
+        Map<Integer, Long> runsByWave = completedRunsByWave != null ? new HashMap<>(completedRunsByWave) : null;
+        renderSectionIfChanged("dryness",
+                Arrays.asList(waveRollsTracked, deepRolls, expectedDrops, dropsReceived, expectedDom,
+                        expectedTreads, expectedEye, expectedCloth, receivedDom, receivedTreads, receivedEye,
+                        receivedCloth, runsByWave),
+                () -> renderHistoricalDryness(waveRollsTracked, deepRolls, expectedDrops, dropsReceived,
+                        expectedDom, expectedTreads, expectedEye, expectedCloth, receivedDom, receivedTreads,
+                        receivedEye, receivedCloth, runsByWave));
+    }
+
+    private void renderHistoricalDryness(long waveRollsTracked, long deepRolls, double expectedDrops,
+            long dropsReceived, double expectedDom, double expectedTreads, double expectedEye, double expectedCloth,
+            long receivedDom, long receivedTreads, long receivedEye, long receivedCloth,
+            Map<Integer, Long> completedRunsByWave) {
         if (dryAnyUniqueLabel == null) {
             return;
         }
@@ -1845,12 +2039,19 @@ public class MokhaLootPanel extends PluginPanel {
     public void updateClaimedWave(int wave, Map<String, ItemData> itemData, long explicitTotal) {
         int index = wave >= 9 ? 8 : wave - 1;
         if (index >= 0 && index < claimedWavePanels.length) {
-            updateWavePanel(claimedWaveValueLabels[index], claimedWaveItemPanels[index],
-                    claimedWaveCollapsed[index], itemData, explicitTotal, true, wave >= 9 ? 9 : wave);
-            updateClaimedSectionTotal();
-            if (claimedSectionState == 2) {
-                populateClaimedCombinedPanel();
-            }
+            renderSectionIfChanged("claimedWave" + index,
+                    Arrays.asList(itemData, explicitTotal, config.displaySortMode(), config.enableHistoricalEdit(),
+                            displayHaValueOnHover),
+                    () -> renderClaimedWave(index, wave, itemData, explicitTotal));
+        }
+    }
+
+    private void renderClaimedWave(int index, int wave, Map<String, ItemData> itemData, long explicitTotal) {
+        updateWavePanel(claimedWaveValueLabels[index], claimedWaveItemPanels[index],
+                claimedWaveCollapsed[index], itemData, explicitTotal, true, wave >= 9 ? 9 : wave);
+        updateClaimedSectionTotal();
+        if (claimedSectionState == 2) {
+            populateClaimedCombinedPanel();
         }
     }
 
@@ -1861,31 +2062,68 @@ public class MokhaLootPanel extends PluginPanel {
     public void updateUnclaimedWave(int wave, Map<String, ItemData> itemData, long explicitTotal) {
         int index = wave >= 9 ? 8 : wave - 1;
         if (index >= 0 && index < unclaimedWavePanels.length) {
-            updateWavePanel(unclaimedWaveValueLabels[index], unclaimedWaveItemPanels[index],
-                    unclaimedWaveCollapsed[index], itemData, explicitTotal, false, wave >= 9 ? 9 : wave);
-            updateUnclaimedSectionTotal();
-            if (unclaimedSectionState == 2) {
-                populateUnclaimedCombinedPanel();
-            }
+            renderSectionIfChanged("unclaimedWave" + index,
+                    Arrays.asList(itemData, explicitTotal, config.displaySortMode(), config.enableHistoricalEdit(),
+                            displayHaValueOnHover),
+                    () -> renderUnclaimedWave(index, wave, itemData, explicitTotal));
         }
     }
 
-    public void updateSuppliesCurrentRun(long totalValue, Map<String, ItemData> itemData) {
-        // Update total value label
-        suppliesCurrentRunTotalLabel.setText(formatGp(totalValue));
-        suppliesCurrentRunHeaderLabel.setText(formatGp(totalValue)); // Also update header label
-        // Update items
-        updateSuppliesPanel(suppliesCurrentRunPanel, itemData, false, false);
+    private void renderUnclaimedWave(int index, int wave, Map<String, ItemData> itemData, long explicitTotal) {
+        updateWavePanel(unclaimedWaveValueLabels[index], unclaimedWaveItemPanels[index],
+                unclaimedWaveCollapsed[index], itemData, explicitTotal, false, wave >= 9 ? 9 : wave);
+        updateUnclaimedSectionTotal();
+        if (unclaimedSectionState == 2) {
+            populateUnclaimedCombinedPanel();
+        }
+    }
+
+    public void updateSuppliesCurrentRun(long totalValue, Map<String, ItemData> itemData, SupplyLedger.Rates rates) {
+        renderSectionIfChanged("suppliesCurrentRun",
+                Arrays.asList(totalValue, itemData, config.displaySortMode(), rates.valueByWave,
+                        rates.valuePerMinute),
+                () -> {
+                    // Update total value label
+                    suppliesCurrentRunTotalLabel.setText(formatGp(totalValue));
+                    suppliesCurrentRunHeaderLabel.setText(formatGp(totalValue)); // Also update header label
+                    suppliesCurrentRunPerMinuteLabel.setText(formatGp(rates.valuePerMinute));
+                    updateSuppliesByWavePanel(rates.valueByWave);
+                    // Update items
+                    updateSuppliesPanel(suppliesCurrentRunPanel, itemData, false, false);
+                });
+    }
+
+    private void updateSuppliesByWavePanel(Map<Integer, Long> valueByWave) {
+        suppliesCurrentRunByWavePanel.removeAll();
+        for (Map.Entry<Integer, Long> entry : valueByWave.entrySet()) {
+            JLabel valueLabel = new JLabel(formatGp(entry.getValue()));
+            valueLabel.setFont(FontManager.getRunescapeSmallFont());
+            valueLabel.setForeground(Color.WHITE);
+            suppliesCurrentRunByWavePanel.add(createStatRow("Wave " + entry.getKey() + ":", valueLabel));
+        }
+        suppliesCurrentRunByWavePanel.revalidate();
+        suppliesCurrentRunByWavePanel.repaint();
     }
 
     public void updateSuppliesTotal(long totalValue, Map<String, ItemData> itemData) {
-        suppliesTotalValueLabel.setText(formatGp(totalValue));
-        suppliesTotalHeaderLabel.setText(formatGp(totalValue)); // Also update header label
-        updateSuppliesPanel(suppliesTotalItemsPanel, itemData, true, false);
+        renderSectionIfChanged("suppliesTotal",
+                Arrays.asList(totalValue, itemData, config.displaySortMode(), config.enableHistoricalEdit()),
+                () -> {
+                    suppliesTotalValueLabel.setText(formatGp(totalValue));
+                    suppliesTotalHeaderLabel.setText(formatGp(totalValue)); // Also update header label
+                    updateSuppliesPanel(suppliesTotalItemsPanel, itemData, true, false);
+                });
     }
 
     public void setDisplayHaValueOnHover(boolean displayHaValueOnHover) {
+        if (this.displayHaValueOnHover == displayHaValueOnHover) {
+            return;
+        }
         this.displayHaValueOnHover = displayHaValueOnHover;
+        SwingUtilities.invokeLater(this::refreshHaDisplay);
+    }
+
+    private void refreshHaDisplay() {
         potentialValueLabel.setText(formatTotalWithOptionalHa(currentRunGeTotal, currentRunHaTotal));
         potentialValueLabel.setToolTipText(formatGeHaTotalText(currentRunGeTotal, currentRunHaTotal));
         previousRunValueLabel.setText(formatTotalWithOptionalHa(previousRunGeTotal, previousRunHaTotal));
@@ -1944,8 +2182,10 @@ public class MokhaLootPanel extends PluginPanel {
         long claimedHa = claimedSectionHaTotal > 0 ? claimedSectionHaTotal : summaryTotalClaimedGe;
         long unclaimedHa = unclaimedSectionHaTotal > 0 ? unclaimedSectionHaTotal : summaryTotalUnclaimedGe;
 
-        totalClaimedLabel.setToolTipText(formatGeHaTotalText(summaryTotalClaimedGe, claimedHa));
-        totalUnclaimedLabel.setToolTipText(formatGeHaTotalText(summaryTotalUnclaimedGe, unclaimedHa));
+        totalClaimedLabel.setToolTipText(formatGeHaTotalText(summaryTotalClaimedGe, claimedHa)
+                + " | At drop: " + formatGp(summaryTotalClaimedAtDrop));
+        totalUnclaimedLabel.setToolTipText(formatGeHaTotalText(summaryTotalUnclaimedGe, unclaimedHa)
+                + " | At drop: " + formatGp(summaryTotalUnclaimedAtDrop));
 
         long geProfitLoss = summaryTotalClaimedGe - summarySupplyCostGe;
         long haProfitLoss = claimedHa - summarySupplyCostGe;
@@ -1953,6 +2193,11 @@ public class MokhaLootPanel extends PluginPanel {
     }
 
     public void clearAllPanelData() {
+        sectionStamps.invalidateAll();
+        SwingUtilities.invokeLater(this::renderClearedPanel);
+    }
+
+    private void renderClearedPanel() {
         // Clear Profit/Loss section
         totalClaimedLabel.setText("0 gp");
         totalClaimedLabel.setForeground(Color.WHITE);
@@ -2042,6 +2287,8 @@ public class MokhaLootPanel extends PluginPanel {
         // Clear supplies sections
         suppliesCurrentRunTotalLabel.setText("0 gp");
         suppliesCurrentRunHeaderLabel.setText("0 gp");
+        suppliesCurrentRunPerMinuteLabel.setText("0 gp");
+        suppliesCurrentRunByWavePanel.removeAll();
         suppliesCurrentRunPanel.removeAll();
         suppliesTotalValueLabel.setText("0 gp");
         suppliesTotalHeaderLabel.setText("0 gp");
@@ -2056,7 +2303,6 @@ public class MokhaLootPanel extends PluginPanel {
 
     private void updateWavePanel(JLabel valueLabel, JPanel itemsPanel, boolean isCollapsed,
             Map<String, ItemData> itemData, long explicitTotal, boolean isClaimed, int wave) {
-        itemsPanel.removeAll();
         int index = wave >= 9 ? 8 : wave - 1;
 
         if (itemData == null || itemData.isEmpty()) {
@@ -2069,9 +2315,9 @@ public class MokhaLootPanel extends PluginPanel {
                 }
             }
             valueLabel.setToolTipText(null);
+            syncItemRows(itemsPanel, 15, new ArrayList<>(), null, (row, item) -> {
+            });
             itemsPanel.setVisible(!isCollapsed);
-            itemsPanel.revalidate();
-            itemsPanel.repaint();
             return;
         }
 
@@ -2097,148 +2343,173 @@ public class MokhaLootPanel extends PluginPanel {
         }
         valueLabel.setToolTipText(formatGeHaTotalText(totalValue, totalHaValue));
 
-        for (ItemData item : sortItemDataForDisplay(itemData.values())) {
-            String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, item.haPricePerItem,
-                    displayHaValueOnHover);
-
-            JPanel itemRow = new JPanel(new BorderLayout());
-            itemRow.setBackground(ColorScheme.DARK_GRAY_COLOR);
-            itemRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 20));
-            itemRow.setBorder(new EmptyBorder(2, 15, 2, 0));
-            itemRow.setToolTipText("Price per item: " + pricePerItemText);
-
-            JLabel itemLabel = new JLabel("- " + item.name + " x" + item.quantity);
-            // Color gold if value > 20m or if item is Dom
-            Color itemColor = (item.totalValue > 20_000_000 || "Dom".equalsIgnoreCase(item.name))
-                    ? new Color(218, 165, 32)
-                    : ColorScheme.LIGHT_GRAY_COLOR;
-            itemLabel.setForeground(itemColor);
-            itemLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemRow.add(itemLabel, BorderLayout.WEST);
-
-            JLabel itemValueLabel = new JLabel(formatGp(item.totalValue));
-            itemValueLabel.setForeground(itemColor);
-            itemValueLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemValueLabel.setToolTipText(formatGeHaTotalText(item.totalValue, resolveItemTotalHaValue(item)));
-            itemRow.add(itemValueLabel, BorderLayout.EAST);
-
-            if (config.enableHistoricalEdit()) {
-                if (isClaimed && onRemoveClaimedHistoricalItem != null) {
-                    addHistoricalRemovalInteraction(itemRow, item.name,
-                            "claimed historical loot (Wave " + (wave >= 9 ? "9+" : wave) + ")",
-                            () -> onRemoveClaimedHistoricalItem.accept(wave, item.name));
-                } else if (!isClaimed && onRemoveUnclaimedHistoricalItem != null) {
-                    addHistoricalRemovalInteraction(itemRow, item.name,
-                            "unclaimed historical loot (Wave " + (wave >= 9 ? "9+" : wave) + ")",
-                            () -> onRemoveUnclaimedHistoricalItem.accept(wave, item.name));
-                }
-            }
+        syncItemRows(itemsPanel, 15, sortItemDataForDisplay(itemData.values()),
+                Arrays.asList(isClaimed, wave, config.enableHistoricalEdit(), displayHaValueOnHover),
+                (row, item) -> bindWaveItemRow(row, item, isClaimed, wave));
+
+        itemsPanel.setVisible(!isCollapsed);
+    }
 
-            itemsPanel.add(itemRow);
+    private void bindWaveItemRow(ItemRowPool.ItemRow itemRow, ItemData item, boolean isClaimed, int wave) {
+        String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, item.haPricePerItem,
+                displayHaValueOnHover);
+        String rowTooltip = "Price per item: " + pricePerItemText;
+        // Color gold if value > 20m or if item is Dom
+        Color itemColor = (item.totalValue > 20_000_000 || "Dom".equalsIgnoreCase(item.name))
+                ? UNIQUE_GOLD_COLOR
+                : ColorScheme.LIGHT_GRAY_COLOR;
+
+        Runnable onClick = null;
+        if (config.enableHistoricalEdit()) {
+            String scope = (isClaimed ? "claimed" : "unclaimed") + " historical loot (Wave "
+                    + (wave >= 9 ? "9+" : wave) + ")";
+            if (isClaimed && onRemoveClaimedHistoricalItem != null) {
+                rowTooltip = withRemovalHint(rowTooltip, scope);
+                onClick = () -> confirmHistoricalRemoval(item.name, scope,
+                        () -> onRemoveClaimedHistoricalItem.accept(wave, item.name));
+            } else if (!isClaimed && onRemoveUnclaimedHistoricalItem != null) {
+                rowTooltip = withRemovalHint(rowTooltip, scope);
+                onClick = () -> confirmHistoricalRemoval(item.name, scope,
+                        () -> onRemoveUnclaimedHistoricalItem.accept(wave, item.name));
+            }
         }
 
-        itemsPanel.setVisible(!isCollapsed);
-        itemsPanel.revalidate();
-        itemsPanel.repaint();
+        itemRow.bind("- " + item.name + " x" + item.quantity, formatGp(item.totalValue), itemColor, rowTooltip,
+                formatGeHaTotalText(item.totalValue, resolveItemTotalHaValue(item)), onClick);
     }
 
     private void updateSuppliesPanel(JPanel suppliesPanel, Map<String, ItemData> itemData, boolean isHistorical,
             boolean highlightCurrentRunUniques) {
-        // Clear existing items
-        suppliesPanel.removeAll();
-
-        if (itemData == null || itemData.isEmpty()) {
-            // Still need to refresh UI even when clearing items
-            suppliesPanel.revalidate();
-            suppliesPanel.repaint();
-            return;
+        List<ItemData> items = itemData != null ? sortItemDataForDisplay(itemData.values()) : new ArrayList<>();
+        boolean removable = isHistorical && config.enableHistoricalEdit() && onRemoveHistoricalSupplyItem != null;
+        syncItemRows(suppliesPanel, 5, items, Arrays.asList(highlightCurrentRunUniques, removable),
+                (row, item) -> bindSupplyRow(row, item, highlightCurrentRunUniques, removable));
+    }
+
+    private void bindSupplyRow(ItemRowPool.ItemRow itemRow, ItemData item, boolean highlightCurrentRunUniques,
+            boolean removable) {
+        String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, 0, false);
+        String rowTooltip = item.tooltipText != null ? item.tooltipText : "Price: " + pricePerItemText;
+
+        // Left side: item name and quantity
+        String quantityText;
+        if (item.maxDosesForDisplay > 0) {
+            double potions = (double) item.quantity / item.maxDosesForDisplay;
+            quantityText = (potions == Math.floor(potions))
+                    ? String.valueOf((long) potions)
+                    : String.format("%.2f", potions);
+        } else {
+            quantityText = String.valueOf(item.quantity);
         }
+        Color itemColor = highlightCurrentRunUniques && isUniqueLootItem(item)
+                ? UNIQUE_GOLD_COLOR
+                : ColorScheme.LIGHT_GRAY_COLOR;
 
-        // Add item entries
-        for (ItemData item : sortItemDataForDisplay(itemData.values())) {
-            String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, 0, false);
-
-            // Create item row with BorderLayout for left/right alignment
-            JPanel itemRow = new JPanel(new BorderLayout());
-            itemRow.setBackground(ColorScheme.DARK_GRAY_COLOR);
-            itemRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 20));
-            itemRow.setBorder(new EmptyBorder(2, 5, 2, 0));
-            itemRow.setToolTipText(item.tooltipText != null ? item.tooltipText : "Price: " + pricePerItemText);
-
-            // Left side: item name and quantity
-            String quantityText;
-            if (item.maxDosesForDisplay > 0) {
-                double potions = (double) item.quantity / item.maxDosesForDisplay;
-                quantityText = (potions == Math.floor(potions))
-                        ? String.valueOf((long) potions)
-                        : String.format("%.2f", potions);
-            } else {
-                quantityText = String.valueOf(item.quantity);
-            }
-            JLabel itemLabel = new JLabel("- " + item.name + " x" + quantityText);
-            Color itemColor = highlightCurrentRunUniques && isUniqueLootItem(item)
-                    ? UNIQUE_GOLD_COLOR
-                    : ColorScheme.LIGHT_GRAY_COLOR;
-            itemLabel.setForeground(itemColor);
-            itemLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemRow.add(itemLabel, BorderLayout.WEST);
-
-            // Right side: value
-            JLabel itemValueLabel = new JLabel(formatGp(item.totalValue));
-            itemValueLabel.setForeground(itemColor);
-            itemValueLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemRow.add(itemValueLabel, BorderLayout.EAST);
-
-            if (isHistorical && config.enableHistoricalEdit() && onRemoveHistoricalSupplyItem != null) {
-                addHistoricalRemovalInteraction(itemRow, item.name, "historical supplies",
-                        () -> onRemoveHistoricalSupplyItem.accept(item.name));
-            }
-
-            suppliesPanel.add(itemRow);
+        Runnable onClick = null;
+        if (removable) {
+            rowTooltip = withRemovalHint(rowTooltip, "historical supplies");
+            onClick = () -> confirmHistoricalRemoval(item.name, "historical supplies",
+                    () -> onRemoveHistoricalSupplyItem.accept(item.name));
         }
 
-        suppliesPanel.revalidate();
-        suppliesPanel.repaint();
+        // Right side: value
+        itemRow.bind("- " + item.name + " x" + quantityText, formatGp(item.totalValue), itemColor, rowTooltip,
+                null, onClick);
     }
 
-    private void updateRunItemsPanel(JPanel targetPanel, Map<String, ItemData> itemData, boolean highlightUniques) {
-        targetPanel.removeAll();
-
-        if (itemData == null || itemData.isEmpty()) {
-            targetPanel.revalidate();
-            targetPanel.repaint();
-            return;
+    /**
+     * Brings the rows of an item list in line with {@code items}, using rows from the
+     * panel's row pool. If the list still shows the same items in the same order with the
+     * same row style, only rows whose data changed are re-bound; otherwise the pooled rows
+     * are re-bound and re-added in the new order.
+     */
+    private void syncItemRows(JPanel itemsPanel, int rowInset, List<ItemData> items, Object rowStyle,
+            BiConsumer<ItemRowPool.ItemRow, ItemData> binder) {
+        Object pooled = itemsPanel.getClientProperty(ROW_POOL_KEY);
+        ItemRowPool rowPool;
+        if (pooled instanceof ItemRowPool) {
+            rowPool = (ItemRowPool) pooled;
+        } else {
+            rowPool = new ItemRowPool(rowInset);
+            itemsPanel.putClientProperty(ROW_POOL_KEY, rowPool);
         }
 
-        for (ItemData item : sortItemDataForDisplay(itemData.values())) {
-            String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, item.haPricePerItem,
-                    displayHaValueOnHover);
+        Object rendered = itemsPanel.getClientProperty(RENDERED_ROWS_KEY);
+        RenderedRows previous = rendered instanceof RenderedRows ? (RenderedRows) rendered : null;
+        boolean changed = false;
 
-            JPanel itemRow = new JPanel(new BorderLayout());
-            itemRow.setBackground(ColorScheme.DARK_GRAY_COLOR);
-            itemRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 20));
-            itemRow.setBorder(new EmptyBorder(2, 5, 2, 0));
-            itemRow.setToolTipText("Price per item: " + pricePerItemText);
+        if (previous != null && isSameRowLayout(previous, items, rowStyle, itemsPanel.getComponentCount())) {
+            for (int i = 0; i < items.size(); i++) {
+                if (!items.get(i).equals(previous.items.get(i))) {
+                    binder.accept(rowPool.acquire(items.get(i).name), items.get(i));
+                    changed = true;
+                }
+            }
+        } else {
+            itemsPanel.removeAll();
+            List<String> names = new ArrayList<>(items.size());
+            for (ItemData item : items) {
+                ItemRowPool.ItemRow row = rowPool.acquire(item.name);
+                binder.accept(row, item);
+                itemsPanel.add(row);
+                names.add(item.name);
+            }
+            rowPool.retain(names);
+            changed = true;
+        }
 
-            JLabel itemLabel = new JLabel("- " + item.name + " x" + item.quantity);
-            Color itemColor = highlightUniques && isUniqueLootItem(item)
-                    ? UNIQUE_GOLD_COLOR
-                    : ColorScheme.LIGHT_GRAY_COLOR;
-            itemLabel.setForeground(itemColor);
-            itemLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemRow.add(itemLabel, BorderLayout.WEST);
+        itemsPanel.putClientProperty(RENDERED_ROWS_KEY, new RenderedRows(new ArrayList<>(items), rowStyle));
+        if (changed) {
+            itemsPanel.revalidate();
+            itemsPanel.repaint();
+        }
+    }
 
-            JLabel itemValueLabel = new JLabel(formatGp(item.totalValue));
-            itemValueLabel.setForeground(itemColor);
-            itemValueLabel.setFont(FontManager.getRunescapeSmallFont());
-            itemValueLabel.setToolTipText(formatGeHaTotalText(item.totalValue, resolveItemTotalHaValue(item)));
-            itemRow.add(itemValueLabel, BorderLayout.EAST);
+    private static boolean isSameRowLayout(RenderedRows previous, List<ItemData> items, Object rowStyle,
+            int componentCount) {
+        if (previous.items.size() != items.size() || componentCount != items.size()
+                || !Objects.equals(previous.rowStyle, rowStyle)) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (!Objects.equals(previous.items.get(i).name, items.get(i).name)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            targetPanel.add(itemRow);
+    /**
+     * Renders a section on the EDT if its input differs from the last one pushed. A queued
+     * render is dropped when a newer input for the same section arrives before it runs.
+     */
+    private void renderSectionIfChanged(String section, Object input, Runnable render) {
+        long version = sectionStamps.update(section, input);
+        if (version < 0) {
+            return;
         }
+        SwingUtilities.invokeLater(() -> {
+            if (sectionStamps.isCurrent(section, version)) {
+                render.run();
+            }
+        });
+    }
+
+    private void updateRunItemsPanel(JPanel targetPanel, Map<String, ItemData> itemData, boolean highlightUniques) {
+        List<ItemData> items = itemData != null ? sortItemDataForDisplay(itemData.values()) : new ArrayList<>();
+        syncItemRows(targetPanel, 5, items, Arrays.asList(highlightUniques, displayHaValueOnHover),
+                (row, item) -> bindRunItemRow(row, item, highlightUniques));
+    }
 
-        targetPanel.revalidate();
-        targetPanel.repaint();
+    private void bindRunItemRow(ItemRowPool.ItemRow itemRow, ItemData item, boolean highlightUniques) {
+        String pricePerItemText = formatPricePerItemTooltip(item.pricePerItem, item.haPricePerItem,
+                displayHaValueOnHover);
+        Color itemColor = highlightUniques && isUniqueLootItem(item)
+                ? UNIQUE_GOLD_COLOR
+                : ColorScheme.LIGHT_GRAY_COLOR;
+        itemRow.bind("- " + item.name + " x" + item.quantity, formatGp(item.totalValue), itemColor,
+                "Price per item: " + pricePerItemText,
+                formatGeHaTotalText(item.totalValue, resolveItemTotalHaValue(item)), null);
     }
 
     private void renderCurrentRunWaveBreakdown() {
@@ -2537,31 +2808,22 @@ public class MokhaLootPanel extends PluginPanel {
         return LootPanelDisplayUtils.isUniqueLootItem(item);
     }
 
-    private void addHistoricalRemovalInteraction(JPanel itemRow, String itemName, String scope, Runnable onConfirm) {
-        itemRow.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-        String baseTooltip = itemRow.getToolTipText();
+    private static String withRemovalHint(String tooltip, String scope) {
         String editHint = "Click to remove from " + scope;
-        itemRow.setToolTipText(
-                baseTooltip == null || baseTooltip.isEmpty() ? editHint : (baseTooltip + " | " + editHint));
-        itemRow.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent event) {
-                if (!SwingUtilities.isLeftMouseButton(event) && !SwingUtilities.isRightMouseButton(event)) {
-                    return;
-                }
+        return tooltip == null || tooltip.isEmpty() ? editHint : (tooltip + " | " + editHint);
+    }
 
-                int response = JOptionPane.showConfirmDialog(
-                        MokhaLootPanel.this,
-                        "Remove '" + itemName + "' from " + scope + "?\nThis updates historical totals immediately.",
-                        "Remove Historical Entry",
-                        JOptionPane.YES_NO_OPTION,
-                        JOptionPane.WARNING_MESSAGE);
+    private void confirmHistoricalRemoval(String itemName, String scope, Runnable onConfirm) {
+        int response = JOptionPane.showConfirmDialog(
+                this,
+                "Remove '" + itemName + "' from " + scope + "?\nThis updates historical totals immediately.",
+                "Remove Historical Entry",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
 
-                if (response == JOptionPane.YES_OPTION) {
-                    onConfirm.run();
-                }
-            }
-        });
+        if (response == JOptionPane.YES_OPTION) {
+            onConfirm.run();
+        }
     }
 
     private List<ItemData> sortItemDataForDisplay(java.util.Collection<ItemData> items) {
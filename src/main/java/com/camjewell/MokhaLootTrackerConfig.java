@@ -27,7 +27,7 @@ public interface MokhaLootTrackerConfig extends Config {
 		return "";
 	}
 
-	@ConfigItem(keyName = "lootAlertLines", name = "Loot alerts", description = "One per line: item name, quantity (e.g. steel cannonball, 300)", position = 20)
+	@ConfigItem(keyName = "lootAlertLines", name = "Loot alerts", description = "One per line: item name, quantity (e.g. steel cannonball, 300). Add \", run\" to alert on the total received this run, or use \"value, gp\" to alert on any stack worth that much", position = 20)
 	default String lootAlertLines() {
 		return "Dom, 1\nAvernic treads, 1\nEye of ayak (uncharged), 1\nMokhaiotl cloth, 1";
 	}
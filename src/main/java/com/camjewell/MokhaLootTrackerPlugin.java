@@ -6,6 +6,8 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,8 +16,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.swing.JOptionPane;
@@ -40,7 +41,10 @@ import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.MenuOptionClicked;
 import net.runelite.api.events.NpcDespawned;
 import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.ScriptPostFired;
 import net.runelite.api.events.StatChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.events.WidgetClosed;
 import net.runelite.api.events.WidgetLoaded;
 import net.runelite.api.gameval.InterfaceID;
 import net.runelite.api.gameval.NpcID;
@@ -71,11 +75,16 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private static final String DOM_NAME = "Dom";
     private static final String SUN_KISSED_BONES_NAME = "Sun-kissed bones";
     private static final int SUN_KISSED_BONES_HA_VALUE = 96;
+    // Runs listed in the panel's seven-day history tooltip.
+    private static final int RECENT_RUNS_SHOWN = 5;
+    // Mokhaiotl Cloth value components
+    private static final int CONFLICTION_GAUNTLETS_ID = 31106;
+    private static final int DEMON_TEAR_ID = 31111;
+    private static final int TORMENTED_BRACELET_ID = 19544;
     private static final String DEFAULT_PLAYER_PROFILE_KEY = "default";
     private static final int ARENA_EXIT_GRACE_TICKS = 5;
     private static final int DOM_LOOT_VALUE_WIDGET_ID = InterfaceID.DomEndLevelUi.LOOT_VALUE;
     private static final int DOM_LOOT_CONTENTS_WIDGET_ID = InterfaceID.DomEndLevelUi.LOOT_CONTENTS;
-    private static final Pattern DOSE_PATTERN = Pattern.compile("\\((\\d+)\\)$");
 
     /**
      * Region IDs observed during Doom runs from location recorder logs.
@@ -119,6 +128,11 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private MokhaLootPanel panel;
     private WeaponChecklistOverlay weaponChecklistOverlay;
     private HistoricalDataManager historicalDataManager;
+    private ItemMetadataCache itemMetadata;
+    // Prices historical loot was last repriced with; repricing is skipped until the
+    // captured prices change.
+    private PriceSnapshot priceSnapshot = PriceSnapshot.EMPTY;
+    private int repricedSnapshotVersion = -1;
     private SupplyTrackingService supplyTrackingService;
     private LootTrackingService lootTrackingService;
     private ArenaStateService arenaStateService;
@@ -127,6 +141,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private PanelDataService panelDataService;
     private HighscoresSyncService highscoresSyncService;
     private String activeHistoricalPlayerKey = DEFAULT_PLAYER_PROFILE_KEY;
+    // Player whose data is being read on the persistence thread; null when no load is pending.
+    private String loadingHistoricalPlayerKey;
 
     @Inject
     private Gson gson;
@@ -172,7 +188,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private static final int ENTRANCE_RADIUS = 25;
 
     // Combined item tracking (inventory + equipment)
-    private final Map<Integer, Integer> lastCombinedSnapshot = new HashMap<>();
+    private final ItemQuantityTable lastCombinedSnapshot = new ItemQuantityTable();
 
     // Loot tracking by wave
     private final Map<Integer, List<LootItem>> lootByWave = new HashMap<>();
@@ -180,13 +196,26 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private boolean hasPreviousRunSnapshot;
     private boolean previousRunClaimed;
     private final Map<Integer, Integer> previousLootSnapshot = new HashMap<>();
+    // Current run loot totals shown in the loot window, valid until lootByWave, prices or
+    // the ignore settings change.
+    private boolean currentRunLootTotalsValid;
+    private long currentRunUnadjustedLootValue;
+    private long currentRunAdjustedLootValue;
+    private long currentRunAdjustedLootHaValue;
+    private boolean lootWindowValueDirty;
+    // Value text last written for those totals.
+    private String lootWindowValueText;
     private final Map<Integer, Integer> previousRunSuppliesConsumed = new HashMap<>();
     private final Map<String, ItemAggregate> previousRunWeaponChargesData = new HashMap<>();
+    // Run history ID of the previous run, for attaching weapon charges after the final check.
+    private long lastRecordedRunId = -1;
 
     // Supply consumption tracking
     private final Map<Integer, Integer> initialSupplySnapshot = new HashMap<>();
     private final Map<Integer, Integer> totalSuppliesConsumed = new HashMap<>();
-    private final Map<Integer, Integer> lastWeaponAmmoSnapshot = new HashMap<>();
+    private final ItemQuantityTable lastWeaponAmmoSnapshot = new ItemQuantityTable();
+    // When this run's supplies were used; archived into the run history at run end.
+    private final SupplyLedger currentRunSupplyLedger = new SupplyLedger();
 
     // Historical tracking (persisted across runs)
     private long historicalTotalClaimed = 0;
@@ -245,22 +274,28 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
         // Initialize historical data manager
         historicalDataManager = new HistoricalDataManager(net.runelite.client.RuneLite.RUNELITE_DIR, gson);
-        supplyTrackingService = new SupplyTrackingService(client, itemManager, configManager, gson, log,
-                lastCombinedSnapshot, lastWeaponAmmoSnapshot, totalSuppliesConsumed, this::updateSuppliesPanelData);
-        lootTrackingService = new LootTrackingService(client, itemManager, config, log, notifier,
-                previousLootSnapshot);
+        itemMetadata = new ItemMetadataCache(itemManager);
+        supplyTrackingService = new SupplyTrackingService(client, itemMetadata, configManager, gson, log,
+                lastCombinedSnapshot, lastWeaponAmmoSnapshot, totalSuppliesConsumed, currentRunSupplyLedger,
+                () -> currentWaveNumber, this::updateSuppliesPanelData);
+        lootTrackingService = new LootTrackingService(client, itemMetadata, config, log, notifier,
+                previousLootSnapshot, historicalDataManager.getItemIdDictionary(), this::getSnapshotPrice);
         arenaStateService = new ArenaStateService();
-        historicalRunService = new HistoricalRunService();
         valueCalculationService = new ValueCalculationService();
+        historicalRunService = new HistoricalRunService(
+                valueCalculationService::claimedItemChanged,
+                valueCalculationService::unclaimedItemChanged);
         panelDataService = new PanelDataService();
-        highscoresSyncService = new HighscoresSyncService(client, itemManager,
+        highscoresSyncService = new HighscoresSyncService(client, itemMetadata,
                 this::canonicalizeTrackedUniqueName,
                 historicalCompletedRunsByWave, localCompletedRunsSinceLastSyncByWave,
                 collectionLogClaimedUniqueCounts);
 
-        // Load persisted historical data (default profile before we know account name)
-        activeHistoricalPlayerKey = DEFAULT_PLAYER_PROFILE_KEY;
-        loadHistoricalData();
+        // Load persisted historical data (default profile before we know account name).
+        // Nothing is saved until it has been applied, so an early shutdown cannot write
+        // the still empty maps over it.
+        activeHistoricalPlayerKey = null;
+        loadHistoricalData(DEFAULT_PLAYER_PROFILE_KEY, false);
         updatePanelData();
     }
 
@@ -273,6 +308,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
         // Save historical data before shutdown
         saveHistoricalData();
+        historicalDataManager.shutdown();
     }
 
     @Subscribe
@@ -303,9 +339,17 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 }
 
                 applyArenaState(arenaStateService.createArenaEntryState());
+                // Value this run's supplies and charges at the GE prices current when it
+                // started. Supplies are priced per dose from the cache just invalidated;
+                // repricing historical loot is left to recalculateAllTotals.
+                itemMetadata.invalidatePrices();
+                capturePriceSnapshot(false);
                 lootByWave.clear();
+                invalidateCurrentRunLootTotals();
                 previousLootSnapshot.clear();
+                lootTrackingService.resetRunAlerts();
                 totalSuppliesConsumed.clear();
+                currentRunSupplyLedger.start(client.getTickCount());
 
                 // Reset performance tracking for new run
                 performanceTracker.resetForRunStart(
@@ -355,14 +399,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 printSuppliesConsumed();
                 printAccumulatedLoot();
 
-                capturePreviousRunSnapshot(true);
+                capturePreviousRunSnapshot(RunOutcome.CLAIMED);
 
-                // Update historical data with claimed loot (even if not yet in inventory/bank)
+                // Update historical data with claimed loot (even if not yet in inventory/bank).
+                // The claim is journaled immediately, so no full save is needed here.
                 updateHistoricalDataOnClaim();
 
-                // Save historical data immediately after claiming
-                saveHistoricalData();
-
                 // Transition weapon checklist to final-check state if charge tracking was
                 // active
                 handleWeaponCheckOnRunEnd();
@@ -386,6 +428,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     @Subscribe
     public void onGameTick(GameTick event) {
+        // Container changes of this tick were queued as they arrived; diff them once.
+        supplyTrackingService.flushContainerChanges(inMokhaArena);
+
         if (!pendingWeaponChecks.isEmpty()) {
             Set<TrackedWeapon> toProcess = new LinkedHashSet<>(pendingWeaponChecks);
             pendingWeaponChecks.clear();
@@ -395,11 +440,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
         }
 
         ensureHistoricalDataLoadedForCurrentPlayer();
-        if (highscoresSyncService.attemptHighscoresWidgetSync()) {
-            updatePanelData();
-            saveHistoricalData();
-        }
-        if (highscoresSyncService.attemptCollectionLogUniqueSync()) {
+        // No-op unless the Dom scoreboard or collection log is open and was redrawn.
+        if (highscoresSyncService.syncOpenInterfaces()) {
             updatePanelData();
             saveHistoricalData();
         }
@@ -569,6 +611,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             if (currentlyDead && !isDead && inMokhaArena) {
                 isDead = true;
                 historicalDeaths += 1;
+                journalRunEvent(HistoricalDataJournal.RecordType.DEATH, null, null);
                 log.debug("[Mokha] ===== PLAYER DEATH - Wave {} =====", currentWaveNumber);
                 log.debug("[Mokha] Total deaths this run: {}", historicalDeaths);
 
@@ -578,7 +621,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 // Print lost loot from previous waves (couldn't claim because of death)
                 printLostLoot();
 
-                capturePreviousRunSnapshot(false);
+                capturePreviousRunSnapshot(RunOutcome.DIED);
 
                 // Update historical supply costs (loot was lost, so don't count it)
                 // Add supplies to historical tracking on any arena exit
@@ -587,7 +630,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 calculateSuppliesCost(); // This updates historical category costs
                 long suppliesCost = 0;
                 for (Map.Entry<Integer, Integer> entry : totalSuppliesConsumed.entrySet()) {
-                    suppliesCost += (long) getPricePerDose(entry.getKey()) * entry.getValue();
+                    suppliesCost += (long) itemMetadata.getPricePerDose(entry.getKey()) * entry.getValue();
                 }
                 historicalSupplyCost += suppliesCost;
 
@@ -599,11 +642,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 applyArenaState(arenaStateService.createArenaExitState());
                 clearCurrentRunTrackingCollections();
 
-                // Update panel to show cleared current run data and updated historical costs
+                // Update panel to show cleared current run data and updated historical costs.
+                // Supplies, unclaimed loot and the death were journaled as they were recorded.
                 updatePanelData();
-
-                // Save persisted data
-                saveHistoricalData();
             } else if (!currentlyDead && isDead) {
                 isDead = false;
             }
@@ -616,6 +657,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             // If supplies are still in memory when leaving arena, clear them
             if (!totalSuppliesConsumed.isEmpty()) {
                 totalSuppliesConsumed.clear();
+                currentRunSupplyLedger.clear();
                 updatePanelData();
             }
         }
@@ -637,22 +679,21 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     @Subscribe
     public void onWidgetLoaded(WidgetLoaded event) {
-        int groupId = event.getGroupId();
+        // Parsed on the next tick, once the interface has been populated.
+        highscoresSyncService.onWidgetLoaded(event.getGroupId());
+        lootTrackingService.onWidgetLoaded(event.getGroupId());
+    }
 
-        if (groupId == InterfaceID.DomScoreboard.UNIVERSE >>> 16) {
-            Map<Integer, Long> parsed = highscoresSyncService.parseWaveCompletionsFromDomScoreboard();
-            if (!parsed.isEmpty() && highscoresSyncService.syncHistoricalRunsFromHighscoresData(parsed)) {
-                log.debug("[Mokha] Synced {} highscores wave buckets from DomScoreboard", parsed.size());
-                updatePanelData();
-                saveHistoricalData();
-            }
-        }
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        highscoresSyncService.onWidgetClosed(event.getGroupId());
+        lootTrackingService.onWidgetClosed(event.getGroupId());
+    }
 
-        if (groupId == InterfaceID.Collection.BOSS_TEXT >>> 16
-                && highscoresSyncService.attemptCollectionLogUniqueSync()) {
-            updatePanelData();
-            saveHistoricalData();
-        }
+    @Subscribe
+    public void onScriptPostFired(ScriptPostFired event) {
+        highscoresSyncService.onScriptPostFired();
+        lootTrackingService.onScriptPostFired();
     }
 
     @Subscribe
@@ -681,7 +722,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 state == net.runelite.api.GameState.HOPPING) {
             if (inMokhaArena && !lootByWave.isEmpty()) {
                 // If player is still in arena and has unclaimed loot, save it first
-                capturePreviousRunSnapshot(false);
+                capturePreviousRunSnapshot(RunOutcome.DISCONNECTED);
                 moveCurrentRunUnclaimedToHistorical();
             }
             // Always save data on logout/hopping
@@ -712,7 +753,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     @Subscribe
     public void onConfigChanged(ConfigChanged event) {
-        if (event.getGroup().equals("tictac7x-charges")) {
+        if (event.getGroup().equals(WeaponChargeCache.CONFIG_GROUP)) {
+            String key = event.getKey();
+            clientThread.invoke(() -> supplyTrackingService.onChargesConfigChanged(key));
             TrackedWeapon weapon = TrackedWeapon.fromConfigKey(event.getKey());
             if (weapon != null && detectedWeapons.contains(weapon)) {
                 handleWeaponChecked(weapon);
@@ -730,6 +773,11 @@ public class MokhaLootTrackerPlugin extends Plugin {
                     // Save the updated state
                     saveHistoricalData();
                     break;
+                case "showAdjustedLootValueDisplay":
+                    clientThread.invoke(() -> {
+                        lootWindowValueDirty = true;
+                    });
+                    break;
                 case "displaySortMode":
                 case "enableHistoricalEdit":
                     // Display-only settings: re-render panel without changing tracked data.
@@ -784,6 +832,16 @@ public class MokhaLootTrackerPlugin extends Plugin {
         }
     }
 
+    @Subscribe
+    public void onVarbitChanged(VarbitChanged event) {
+        // Varbit events carry the varbit's value; plain varp events have varbit ID -1.
+        if (event.getVarbitId() != -1) {
+            supplyTrackingService.onVarbitChanged(event.getVarbitId(), event.getValue());
+        } else {
+            supplyTrackingService.onVarpChanged(event.getVarpId(), event.getValue());
+        }
+    }
+
     @Subscribe
     public void onItemContainerChanged(ItemContainerChanged event) {
         WorldPoint location = client.getLocalPlayer() != null ? client.getLocalPlayer().getWorldLocation() : null;
@@ -830,8 +888,23 @@ public class MokhaLootTrackerPlugin extends Plugin {
     }
 
     private void checkForLootWindow() {
-        LootTrackingService.LootWindowUpdate update = lootTrackingService.pollLootWindow(inMokhaArena);
+        LootTrackingService.LootWindowUpdate update = lootTrackingService.readOpenedLootWindow(inMokhaArena);
+        if (update != null) {
+            applyLootWindowUpdate(update);
+        }
+
+        // The value text is only rewritten when the window opened or was redrawn, or the
+        // totals it shows changed.
+        boolean redrawn = lootTrackingService.takeLootWindowRedrawn();
+        if (inMokhaArena && lootTrackingService.isLootWindowOpen() && (redrawn || lootWindowValueDirty)) {
+            lootWindowValueDirty = false;
+            updateLootWindowDisplayedValue();
+            Widget valueWidget = client.getWidget(DOM_LOOT_VALUE_WIDGET_ID);
+            lootTrackingService.setLootValueText(valueWidget != null ? valueWidget.getText() : null);
+        }
+    }
 
+    private void applyLootWindowUpdate(LootTrackingService.LootWindowUpdate update) {
         if (update.getDetectedWave() > 0) {
             currentWaveNumber = update.getDetectedWave();
         } else if (update.isLootWindowVisible() && currentWaveNumber == 0) {
@@ -843,23 +916,30 @@ public class MokhaLootTrackerPlugin extends Plugin {
             for (Map.Entry<Integer, Integer> entry : update.getNewLootByItemId().entrySet()) {
                 int itemId = entry.getKey();
                 int newQty = entry.getValue();
-                String itemName = itemManager.getItemComposition(itemId).getName();
+                String itemName = itemMetadata.getName(itemId);
                 int itemValue = calculateTrackedLootItemValue(itemId, itemName, newQty);
                 int itemHaValue = calculateTrackedLootItemHaValue(itemId, itemName, newQty);
-                newLootThisWave.add(new LootItem(itemName, newQty, itemValue, itemHaValue));
+                newLootThisWave.add(new LootItem(itemId, itemName, newQty, itemValue, itemHaValue));
             }
 
             if (!newLootThisWave.isEmpty()) {
                 lootByWave.put(currentWaveNumber, newLootThisWave);
+                invalidateCurrentRunLootTotals();
                 updatePanelData();
             }
         }
 
         if (update.isLootWindowVisible()) {
-            updateLootWindowDisplayedValue();
+            lootWindowValueDirty = true;
         }
     }
 
+    /** Call after lootByWave, prices or the ignore settings change. */
+    private void invalidateCurrentRunLootTotals() {
+        currentRunLootTotalsValid = false;
+        lootWindowValueDirty = true;
+    }
+
     private void updateLootWindowDisplayedValue() {
         Widget valueWidget = client.getWidget(DOM_LOOT_VALUE_WIDGET_ID);
         Widget lootContainerWidget = client.getWidget(DOM_LOOT_CONTENTS_WIDGET_ID);
@@ -876,19 +956,27 @@ public class MokhaLootTrackerPlugin extends Plugin {
         if (valueText == null || !valueText.contains("Value:")) {
             return;
         }
+        // Already showing the current totals.
+        if (currentRunLootTotalsValid && valueText.equals(lootWindowValueText)) {
+            return;
+        }
 
         // White = all tracked loot at GE price, no ignore filters applied.
         // Blue = tracked loot at GE price with ignore filters applied.
         // Green = tracked loot at HA price with ignore filters applied.
-        long unadjustedValue = calculateUnadjustedCurrentRunLootValue();
-        if (unadjustedValue <= 0) {
+        if (!currentRunLootTotalsValid) {
+            currentRunUnadjustedLootValue = calculateUnadjustedCurrentRunLootValue();
+            currentRunAdjustedLootValue = calculateCurrentRunLootValue();
+            currentRunAdjustedLootHaValue = calculateCurrentRunLootHaValue();
+            currentRunLootTotalsValid = true;
+        }
+        if (currentRunUnadjustedLootValue <= 0) {
             return;
         }
 
-        long adjustedValue = calculateCurrentRunLootValue();
-        long adjustedHaValue = calculateCurrentRunLootHaValue();
-
-        String adjustedText = formatLootValueText(unadjustedValue, adjustedValue, adjustedHaValue);
+        String adjustedText = formatLootValueText(currentRunUnadjustedLootValue, currentRunAdjustedLootValue,
+                currentRunAdjustedLootHaValue);
+        lootWindowValueText = adjustedText;
         if (!adjustedText.equals(valueText)) {
             valueWidget.setText(adjustedText);
         }
@@ -974,7 +1062,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             return 0;
         }
 
-        int itemValue = itemManager.getItemPrice(itemId) * quantity;
+        int itemValue = itemMetadata.getPrice(itemId) * quantity;
 
         if (isMokhaCloth(itemName) && itemValue == 0) {
             int clothValue = getMokhaClothValue();
@@ -1006,7 +1094,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
     }
 
     private int getItemHighAlchPrice(int itemId) {
-        return Math.max(0, itemManager.getItemComposition(itemId).getHaPrice());
+        return itemMetadata.getHaPrice(itemId);
     }
 
     /**
@@ -1034,7 +1122,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
         log.debug("[Mokha] ===== ADDING LOOT TO UNCLAIMED (teleport exit) =====");
         log.debug("[Mokha] Boss was defeated: {}", bossDefeatedThisWave);
         printAccumulatedLoot();
-        capturePreviousRunSnapshot(false);
+        capturePreviousRunSnapshot(RunOutcome.TELEPORTED);
         moveCurrentRunUnclaimedToHistorical();
 
         handleWeaponCheckOnRunEnd();
@@ -1042,9 +1130,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
         applyArenaState(arenaStateService.createArenaExitState());
         clearCurrentRunTrackingCollections();
 
-        // Update panel and save
+        // Update panel (run data was journaled as it was archived)
         updatePanelData();
-        saveHistoricalData();
     }
 
     /**
@@ -1056,7 +1143,14 @@ public class MokhaLootTrackerPlugin extends Plugin {
         historicalRunService.moveCurrentRunUnclaimedToHistorical(
                 lootByWave,
                 historicalUnclaimedByWave,
-                historicalUnclaimedItemsByWave);
+                historicalUnclaimedItemsByWave,
+                System.currentTimeMillis());
+        for (int wave : lootByWave.keySet()) {
+            historicalDataManager.markUnclaimedWaveChanged(wave);
+        }
+        if (!lootByWave.isEmpty()) {
+            journalRunEvent(HistoricalDataJournal.RecordType.UNCLAIMED_RUN, lootByWave, null);
+        }
     }
 
     private void incrementLocalWaveCompletionsFromCurrentRun() {
@@ -1094,27 +1188,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
         for (Map.Entry<Integer, Integer> entry : totalSuppliesConsumed.entrySet()) {
             int itemId = entry.getKey();
             int quantity = entry.getValue();
-            totalValue += (long) getPricePerDose(itemId) * quantity;
+            totalValue += (long) itemMetadata.getPricePerDose(itemId) * quantity;
         }
 
         log.debug("[Mokha] ===== TOTAL SUPPLIES VALUE: {} gp =====", totalValue);
     }
 
-    /**
-     * Extract base potion name by removing dose numbers
-     * E.g., "Prayer potion(4)" -> "Prayer potion"
-     * E.g., "Super combat potion(2)" -> "Super combat potion"
-     */
-    private String getBasePotionName(String itemName) {
-        return DOSE_PATTERN.matcher(itemName).replaceAll("").trim();
-    }
-
-    private int getMaxDoseForItem(int itemId) {
-        String itemName = itemManager.getItemComposition(itemId).getName();
-        Matcher m = DOSE_PATTERN.matcher(itemName);
-        return m.find() ? Integer.parseInt(m.group(1)) : 0;
-    }
-
     private final Map<String, Integer> maxDoseByBaseNameCache = new HashMap<>();
 
     private int getMaxDoseByBaseName(String baseName) {
@@ -1126,15 +1205,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
         int maxDose = 0;
         if (results != null) {
             for (net.runelite.http.api.item.ItemPrice r : results) {
-                if (!baseName.equalsIgnoreCase(getBasePotionName(r.getName()))) {
+                if (!baseName.equalsIgnoreCase(ItemMetadataCache.stripDose(r.getName()))) {
                     continue;
                 }
-                Matcher m = DOSE_PATTERN.matcher(r.getName());
-                if (m.find()) {
-                    int dose = Integer.parseInt(m.group(1));
-                    if (dose > maxDose) {
-                        maxDose = dose;
-                    }
+                int dose = ItemMetadataCache.parseDose(r.getName());
+                if (dose > maxDose) {
+                    maxDose = dose;
                 }
             }
         }
@@ -1152,51 +1228,48 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 int maxDose = getMaxDoseByBaseName(agg.name);
                 if (maxDose > 0) {
                     agg.maxDosesForDisplay = maxDose;
+                    historicalDataManager.markSuppliesChanged();
                 }
             }
         }
     }
 
     /**
-     * Calculate the price per individual dose for a potion, or return full price
-     * for non-potion items.
-     * For items with dose suffixes like (1), (2), (3), (4): divides full price by
-     * dose count.
-     * For items without dose suffixes (food, etc.): returns the full item price.
+     * Reads the player's historical data on the persistence thread and applies it on the
+     * client thread. With {@code keepIfPlayerHasNoData}, data already in memory is moved to
+     * the player instead if they turn out to have none of their own.
      */
-    private int getPricePerDose(int itemId) {
-        String itemName = itemManager.getItemComposition(itemId).getName();
-        int fullPrice = itemManager.getItemPrice(itemId);
-        Matcher matcher = DOSE_PATTERN.matcher(itemName);
-        if (matcher.find()) {
-            return fullPrice / Integer.parseInt(matcher.group(1));
-        }
-        return fullPrice;
+    private void loadHistoricalData(String playerKey, boolean keepIfPlayerHasNoData) {
+        loadingHistoricalPlayerKey = playerKey;
+        historicalDataManager.loadDataForPlayer(playerKey,
+                loaded -> clientThread.invoke(() -> applyLoadedHistoricalData(loaded, keepIfPlayerHasNoData)));
     }
 
-    /**
-     * Load historical data from config
-     */
-    private void loadHistoricalData() {
+    private void applyLoadedHistoricalData(HistoricalDataManager.LoadedPlayerData loaded,
+            boolean keepIfPlayerHasNoData) {
+        loadingHistoricalPlayerKey = null;
+
+        if (keepIfPlayerHasNoData && !loaded.hasData()) {
+            activeHistoricalPlayerKey = loaded.getPlayerKey();
+            saveHistoricalData();
+            updatePanelData();
+            return;
+        }
+
         try {
-            String playerKey = getCurrentPlayerProfileKey();
             previousRunLootByWave.clear();
             previousRunSuppliesConsumed.clear();
             previousRunWeaponChargesData.clear();
             hasPreviousRunSnapshot = false;
             previousRunClaimed = false;
             previousRunPerformance = PerformanceSnapshot.empty();
-            historicalDataManager.loadDataForPlayer(playerKey);
+            lastRecordedRunId = -1;
+            historicalDataManager.applyLoadedData(loaded);
             activeHistoricalPlayerKey = historicalDataManager.getActivePlayerKey();
+            refreshRunHistory();
 
             copyHistoricalDataFromManager();
 
-            // Apply ignore settings and recalculate
-            applyIgnoreSettingsToHistoricalItems(historicalClaimedItemsByWave);
-            applyIgnoreSettingsToHistoricalItems(historicalUnclaimedItemsByWave);
-            recalculateWaveTotals();
-            recalculateHistoricalTotalClaimed();
-
             // Set historical data on the panel so combined view logic works
             if (panel != null) {
                 panel.setHistoricalClaimedItemsByWave(historicalClaimedItemsByWave);
@@ -1205,7 +1278,6 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
             // Supply cost should mirror historical supplies totals. Keep ConfigManager as
             // fallback for legacy data that predates per-item supplies persistence.
-            recalculateHistoricalSupplyCost();
             if (historicalSuppliesUsed.isEmpty()) {
                 String supplyCostStr = configManager.getConfiguration("mokhaloot", "historicalSupplyCost");
                 historicalSupplyCost = supplyCostStr != null && !supplyCostStr.isEmpty() ? Long.parseLong(supplyCostStr)
@@ -1222,6 +1294,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
                             lootByWave,
                             historicalUnclaimedByWave,
                             historicalUnclaimedItemsByWave);
+                    historicalDataManager.markAllHistoryChanged();
+                    invalidateCurrentRunLootTotals();
                 } catch (Exception e) {
                     log.warn("[Mokha] Failed to load current run loot by wave data", e);
                 }
@@ -1229,6 +1303,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
         } catch (RuntimeException e) {
             log.error("[Mokha] Error loading historical data", e);
         }
+        updatePanelData();
     }
 
     private void copyHistoricalDataFromManager() {
@@ -1256,16 +1331,59 @@ public class MokhaLootTrackerPlugin extends Plugin {
         historicalUnclaimedByWave.putAll(historicalDataManager.getHistoricalUnclaimedByWave());
         historicalUnclaimedItemsByWave.clear();
         historicalUnclaimedItemsByWave.putAll(historicalDataManager.getHistoricalUnclaimedItemsByWave());
+
+        assignMissingItemIds(historicalClaimedItemsByWave);
+        assignMissingItemIds(historicalUnclaimedItemsByWave);
+        seedMissingPriceTimelines(historicalClaimedItemsByWave);
+        seedMissingPriceTimelines(historicalUnclaimedItemsByWave);
+        // Loaded values carry the prices they were saved with.
+        repricedSnapshotVersion = -1;
+
+        // Apply ignore settings and recalculate, so the tracked totals match the copied items.
+        rebuildHistoricalTotals();
+        recalculateWaveTotals();
+    }
+
+    /**
+     * Fills in item IDs of loot aggregates saved before IDs were stored, from names already
+     * in the item ID dictionary. Anything left is resolved on the next recalculation.
+     */
+    private void assignMissingItemIds(Map<Integer, Map<String, ItemAggregate>> itemsByWave) {
+        ItemIdDictionary itemIdDictionary = historicalDataManager.getItemIdDictionary();
+        for (Map<String, ItemAggregate> waveItems : itemsByWave.values()) {
+            for (ItemAggregate item : waveItems.values()) {
+                if (item != null && item.itemId == 0) {
+                    item.itemId = Math.max(0, itemIdDictionary.resolve(item.name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives loot aggregates saved before price timelines existed a timeline holding their
+     * saved price, as the best known price at drop, for all their items.
+     */
+    private void seedMissingPriceTimelines(Map<Integer, Map<String, ItemAggregate>> itemsByWave) {
+        for (Map<String, ItemAggregate> waveItems : itemsByWave.values()) {
+            for (ItemAggregate item : waveItems.values()) {
+                if (item != null && item.priceTimeline == null) {
+                    item.priceTimeline = new PriceTimeline();
+                    item.priceTimeline.recordDrop(PriceTimeline.UNKNOWN_DAY, item.totalQuantity, item.pricePerItem);
+                }
+            }
+        }
     }
 
     /**
      * Save historical data to config
      */
     private void saveHistoricalData() {
+        if (activeHistoricalPlayerKey == null) {
+            // The first load has not been applied yet, so the maps are still empty.
+            return;
+        }
         try {
-            String playerKey = activeHistoricalPlayerKey != null
-                    ? activeHistoricalPlayerKey
-                    : getCurrentPlayerProfileKey();
+            String playerKey = activeHistoricalPlayerKey;
 
             syncHistoricalDataManagerState();
             historicalDataManager.saveDataForPlayer(playerKey);
@@ -1275,6 +1393,22 @@ public class MokhaLootTrackerPlugin extends Plugin {
         }
     }
 
+    /**
+     * Persists a single run event through the append-only journal. Falls back to a full
+     * snapshot save if the record cannot be queued.
+     */
+    private void journalRunEvent(HistoricalDataJournal.RecordType type,
+            Map<Integer, List<LootItem>> runLootByWave,
+            List<ItemAggregate> archivedSupplies) {
+        String playerKey = activeHistoricalPlayerKey != null
+                ? activeHistoricalPlayerKey
+                : getCurrentPlayerProfileKey();
+
+        if (!historicalDataManager.appendJournalRecord(playerKey, type, runLootByWave, archivedSupplies)) {
+            saveHistoricalData();
+        }
+    }
+
     private void exportHistoricalData() {
         if (historicalDataManager == null) {
             return;
@@ -1355,6 +1489,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
             return;
         }
 
+        // Decide once the pending load is applied; the first one may hold legacy data
+        // that is about to be migrated.
+        if (loadingHistoricalPlayerKey != null) {
+            return;
+        }
+
         String currentKey = getCurrentPlayerProfileKey();
         if (currentKey.equals(activeHistoricalPlayerKey)) {
             return;
@@ -1363,14 +1503,14 @@ public class MokhaLootTrackerPlugin extends Plugin {
         // One-time legacy migration: if we loaded under the "default" fallback key and
         // now know the real player name, move that data into the player's own profile
         // rather than discarding it by switching to an empty one.
-        // Skip the migration if the player already has their own saved data â€” in that
+        // Skip the migration if the player already has their own saved data; in that
         // case the "default" data is stale and the player's file data should be loaded.
-        boolean isLegacyMigration = DEFAULT_PLAYER_PROFILE_KEY.equals(activeHistoricalPlayerKey)
+        boolean legacyCandidate = DEFAULT_PLAYER_PROFILE_KEY.equals(activeHistoricalPlayerKey)
                 && !DEFAULT_PLAYER_PROFILE_KEY.equals(currentKey)
-                && hasHistoricalDataInMemory()
-                && !historicalDataManager.hasDataForPlayer(currentKey);
+                && hasHistoricalDataInMemory();
+        Boolean playerHasData = legacyCandidate ? historicalDataManager.hasDataForPlayer(currentKey) : null;
 
-        if (isLegacyMigration) {
+        if (legacyCandidate && Boolean.FALSE.equals(playerHasData)) {
             activeHistoricalPlayerKey = currentKey;
             saveHistoricalData();
             updatePanelData();
@@ -1380,9 +1520,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
         if (hasHistoricalDataInMemory()) {
             saveHistoricalData();
         }
-        activeHistoricalPlayerKey = currentKey;
-        loadHistoricalData();
-        updatePanelData();
+        // Until the load is applied, saves keep going to the profile whose data is in
+        // memory. When the index could not tell, the load result decides the migration.
+        loadHistoricalData(currentKey, legacyCandidate && playerHasData == null);
     }
 
     private String getCurrentPlayerProfileKey() {
@@ -1424,6 +1564,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private void clearAllData() {
         // Clear current run data
         lootByWave.clear();
+        invalidateCurrentRunLootTotals();
         previousRunLootByWave.clear();
         previousRunSuppliesConsumed.clear();
         previousRunWeaponChargesData.clear();
@@ -1445,6 +1586,10 @@ public class MokhaLootTrackerPlugin extends Plugin {
         historicalSuppliesUsed.clear();
         historicalUnclaimedByWave.clear();
         historicalUnclaimedItemsByWave.clear();
+        historicalDataManager.markAllHistoryChanged();
+        valueCalculationService.clearHistoricalClaimed();
+        valueCalculationService.clearHistoricalUnclaimed();
+        valueCalculationService.clearHistoricalSupplies();
 
         // Clear panel data
         if (panel != null) {
@@ -1462,6 +1607,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
         historicalClaimedByWave.clear();
         historicalCompletedRunsByWave.clear();
         historicalClaimedItemsByWave.clear();
+        historicalDataManager.markAllHistoryChanged();
+        valueCalculationService.clearHistoricalClaimed();
 
         updatePanelData();
         saveHistoricalData();
@@ -1471,6 +1618,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private void clearUnclaimedHistoricalData() {
         historicalUnclaimedByWave.clear();
         historicalUnclaimedItemsByWave.clear();
+        historicalDataManager.markAllHistoryChanged();
+        valueCalculationService.clearHistoricalUnclaimed();
 
         updatePanelData();
         saveHistoricalData();
@@ -1480,6 +1629,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
     private void clearSuppliesHistoricalData() {
         historicalSupplyCost = 0;
         historicalSuppliesUsed.clear();
+        historicalDataManager.markAllHistoryChanged();
+        valueCalculationService.clearHistoricalSupplies();
 
         updatePanelData();
         saveHistoricalData();
@@ -1488,12 +1639,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private void removeHistoricalClaimedWaveItem(int wave, String itemName) {
         clientThread.invoke(() -> {
-            if (!removeHistoricalItemFromWaveMap(historicalClaimedItemsByWave, wave, itemName)) {
+            if (!removeHistoricalItemFromWaveMap(historicalClaimedItemsByWave, wave, itemName,
+                    valueCalculationService::claimedItemRemoved)) {
                 return;
             }
 
             recalculateWaveTotals();
-            recalculateHistoricalTotalClaimed();
             saveHistoricalData();
             updatePanelData();
         });
@@ -1501,12 +1652,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private void removeHistoricalUnclaimedWaveItem(int wave, String itemName) {
         clientThread.invoke(() -> {
-            if (!removeHistoricalItemFromWaveMap(historicalUnclaimedItemsByWave, wave, itemName)) {
+            if (!removeHistoricalItemFromWaveMap(historicalUnclaimedItemsByWave, wave, itemName,
+                    valueCalculationService::unclaimedItemRemoved)) {
                 return;
             }
 
             recalculateWaveTotals();
-            recalculateHistoricalTotalClaimed();
             saveHistoricalData();
             updatePanelData();
         });
@@ -1514,12 +1665,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private void removeHistoricalClaimedItemAllWaves(String itemName) {
         clientThread.invoke(() -> {
-            if (!removeHistoricalItemFromAllWaves(historicalClaimedItemsByWave, itemName)) {
+            if (!removeHistoricalItemFromAllWaves(historicalClaimedItemsByWave, itemName,
+                    valueCalculationService::claimedItemRemoved)) {
                 return;
             }
 
             recalculateWaveTotals();
-            recalculateHistoricalTotalClaimed();
             saveHistoricalData();
             updatePanelData();
         });
@@ -1527,12 +1678,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private void removeHistoricalUnclaimedItemAllWaves(String itemName) {
         clientThread.invoke(() -> {
-            if (!removeHistoricalItemFromAllWaves(historicalUnclaimedItemsByWave, itemName)) {
+            if (!removeHistoricalItemFromAllWaves(historicalUnclaimedItemsByWave, itemName,
+                    valueCalculationService::unclaimedItemRemoved)) {
                 return;
             }
 
             recalculateWaveTotals();
-            recalculateHistoricalTotalClaimed();
             saveHistoricalData();
             updatePanelData();
         });
@@ -1540,15 +1691,11 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private void removeHistoricalSupplyItem(String itemName) {
         clientThread.invoke(() -> {
-            if (!removeHistoricalItemByName(historicalSuppliesUsed, itemName)) {
+            if (!removeHistoricalItemByName(historicalSuppliesUsed, itemName,
+                    valueCalculationService::supplyRemoved)) {
                 return;
             }
 
-            historicalSupplyCost = 0;
-            for (ItemAggregate item : historicalSuppliesUsed.values()) {
-                historicalSupplyCost += item.totalValue;
-            }
-
             saveHistoricalData();
             updatePanelData();
         });
@@ -1556,9 +1703,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
     private boolean removeHistoricalItemFromWaveMap(Map<Integer, Map<String, ItemAggregate>> byWave,
             int wave,
-            String itemName) {
+            String itemName,
+            Consumer<ItemAggregate> onRemoved) {
+        // Removal can drop whole waves; let the next save walk everything.
+        historicalDataManager.markAllHistoryChanged();
         if (wave >= 9) {
-            return removeHistoricalItemFromNinePlusWaves(byWave, itemName);
+            return removeHistoricalItemFromNinePlusWaves(byWave, itemName, onRemoved);
         }
 
         Map<String, ItemAggregate> waveItems = byWave.get(wave);
@@ -1566,20 +1716,22 @@ public class MokhaLootTrackerPlugin extends Plugin {
             return false;
         }
 
-        boolean removed = removeHistoricalItemByName(waveItems, itemName);
+        boolean removed = removeHistoricalItemByName(waveItems, itemName, onRemoved);
         if (removed && waveItems.isEmpty()) {
             byWave.remove(wave);
         }
         return removed;
     }
 
-    private boolean removeHistoricalItemFromAllWaves(Map<Integer, Map<String, ItemAggregate>> byWave, String itemName) {
+    private boolean removeHistoricalItemFromAllWaves(Map<Integer, Map<String, ItemAggregate>> byWave, String itemName,
+            Consumer<ItemAggregate> onRemoved) {
+        historicalDataManager.markAllHistoryChanged();
         boolean removedAny = false;
         List<Integer> emptyWaves = new ArrayList<>();
 
         for (Map.Entry<Integer, Map<String, ItemAggregate>> waveEntry : byWave.entrySet()) {
             Map<String, ItemAggregate> waveItems = waveEntry.getValue();
-            if (removeHistoricalItemByName(waveItems, itemName)) {
+            if (removeHistoricalItemByName(waveItems, itemName, onRemoved)) {
                 removedAny = true;
             }
             if (waveItems.isEmpty()) {
@@ -1595,7 +1747,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
     }
 
     private boolean removeHistoricalItemFromNinePlusWaves(Map<Integer, Map<String, ItemAggregate>> byWave,
-            String itemName) {
+            String itemName,
+            Consumer<ItemAggregate> onRemoved) {
         boolean removedAny = false;
         List<Integer> emptyWaves = new ArrayList<>();
 
@@ -1605,7 +1758,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             }
 
             Map<String, ItemAggregate> waveItems = waveEntry.getValue();
-            if (removeHistoricalItemByName(waveItems, itemName)) {
+            if (removeHistoricalItemByName(waveItems, itemName, onRemoved)) {
                 removedAny = true;
             }
             if (waveItems.isEmpty()) {
@@ -1620,7 +1773,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
         return removedAny;
     }
 
-    private boolean removeHistoricalItemByName(Map<String, ItemAggregate> items, String itemName) {
+    private boolean removeHistoricalItemByName(Map<String, ItemAggregate> items, String itemName,
+            Consumer<ItemAggregate> onRemoved) {
+        historicalDataManager.markAllHistoryChanged();
         if (items == null || itemName == null) {
             return false;
         }
@@ -1643,7 +1798,10 @@ public class MokhaLootTrackerPlugin extends Plugin {
             return false;
         }
 
-        items.remove(keyToRemove);
+        ItemAggregate removed = items.remove(keyToRemove);
+        if (removed != null) {
+            onRemoved.accept(removed);
+        }
         return true;
     }
 
@@ -1654,41 +1812,99 @@ public class MokhaLootTrackerPlugin extends Plugin {
      */
     private void recalculateAllTotals() {
         clientThread.invoke(() -> {
-            // Recalculate GE value for all items in claimed and unclaimed loot
-            recalculateAllItemGEValues(historicalClaimedItemsByWave);
-            recalculateAllItemGEValues(historicalUnclaimedItemsByWave);
+            itemMetadata.invalidatePrices();
+            capturePriceSnapshot(true);
+
+            // Reprice all claimed and unclaimed loot, unless it was already priced with
+            // these exact prices
+            if (priceSnapshot.getVersion() != repricedSnapshotVersion) {
+                recalculateAllItemGEValues(historicalClaimedItemsByWave);
+                recalculateAllItemGEValues(historicalUnclaimedItemsByWave);
+                repricedSnapshotVersion = priceSnapshot.getVersion();
+            }
 
             // Apply Mokhaiotl Cloth override after GE recalculation so it is not
             // overwritten by GE price refresh.
             updateMokhaClothPrices();
 
             // Apply ignore settings to all historical items (this will update totalValue
-            // based on current config)
-            applyIgnoreSettingsToHistoricalItems(historicalClaimedItemsByWave);
-            applyIgnoreSettingsToHistoricalItems(historicalUnclaimedItemsByWave);
+            // based on current config) and rebuild the claimed, unclaimed and supply totals
+            rebuildHistoricalTotals();
+            invalidateCurrentRunLootTotals();
 
             // Recalculate wave totals based on current settings
             recalculateWaveTotals();
 
-            // Recalculate total claimed from historical claimed items
-            recalculateHistoricalTotalClaimed();
-
-            // Recalculate supply cost
-            recalculateHistoricalSupplyCost();
-
             // Save the recalculated data
             saveHistoricalData();
 
             // Update panel with recalculated totals
             updatePanelData();
 
+            log.debug("[Mokha] Item metadata cache: {} items, {} hits, {} misses", itemMetadata.size(),
+                    itemMetadata.getHitCount(), itemMetadata.getMissCount());
         });
     }
 
     /**
-     * Recalculate GE value for all items in the provided map (by wave)
+     * Reads the prices of every item in historical loot, charge recipes and the cloth
+     * value formula into a new price snapshot. Must run on the client thread.
+     */
+    /**
+     * Captures the GE prices of charge recipe ingredients and Mokhaiotl Cloth components,
+     * plus every historical loot item when {@code includeHistoricalLoot}. Walking the loot
+     * costs O(history), so only a full recalculation asks for it.
+     */
+    private void capturePriceSnapshot(boolean includeHistoricalLoot) {
+        List<Integer> itemIds = new ArrayList<>();
+        if (includeHistoricalLoot) {
+            collectLootItemIds(historicalClaimedItemsByWave, itemIds);
+            collectLootItemIds(historicalUnclaimedItemsByWave, itemIds);
+        }
+        for (TrackedWeapon weapon : TrackedWeapon.values()) {
+            if (weapon.chargeRecipe == null)
+                continue;
+            for (TrackedWeapon.ChargeIngredient ing : weapon.chargeRecipe) {
+                if (!ing.priceless)
+                    itemIds.add(ing.itemId);
+            }
+        }
+        itemIds.add(CONFLICTION_GAUNTLETS_ID);
+        itemIds.add(DEMON_TEAR_ID);
+        itemIds.add(TORMENTED_BRACELET_ID);
+
+        priceSnapshot = PriceSnapshot.capture(itemMetadata,
+                itemIds.stream().mapToInt(Integer::intValue).toArray(), priceSnapshot);
+    }
+
+    /** Adds the item IDs of historical loot, resolving any that are still missing. */
+    private void collectLootItemIds(Map<Integer, Map<String, ItemAggregate>> itemsByWave, List<Integer> itemIds) {
+        for (Map<String, ItemAggregate> waveItems : itemsByWave.values()) {
+            for (ItemAggregate item : waveItems.values()) {
+                if (isMokhaCloth(item.name) || isSunKissedBones(item.name)) {
+                    continue;
+                }
+                if (item.itemId == 0) {
+                    item.itemId = Math.max(0, getItemIdForName(item.name));
+                }
+                if (item.itemId > 0) {
+                    itemIds.add(item.itemId);
+                }
+            }
+        }
+    }
+
+    /** GE price from the current price snapshot, or the cached GE price if not captured. */
+    private int getSnapshotPrice(int itemId) {
+        return priceSnapshot.contains(itemId) ? priceSnapshot.getGePrice(itemId) : itemMetadata.getPrice(itemId);
+    }
+
+    /**
+     * Recalculate GE value for all items in the provided map (by wave) from the current
+     * price snapshot
      */
     private void recalculateAllItemGEValues(Map<Integer, Map<String, ItemAggregate>> itemsByWave) {
+        int today = PriceTimeline.epochDay(System.currentTimeMillis());
         for (Map<String, ItemAggregate> waveItems : itemsByWave.values()) {
             for (ItemAggregate item : waveItems.values()) {
                 if (isMokhaCloth(item.name)) {
@@ -1703,30 +1919,51 @@ public class MokhaLootTrackerPlugin extends Plugin {
                     continue;
                 }
 
-                int itemId = getItemIdForName(item.name);
-                if (itemId > 0) {
-                    int gePrice = itemManager.getItemPrice(itemId);
-                    int haPrice = getItemHighAlchPrice(itemId);
+                int itemId = item.itemId;
+                if (priceSnapshot.contains(itemId)) {
+                    int gePrice = priceSnapshot.getGePrice(itemId);
+                    int haPrice = priceSnapshot.getHaPrice(itemId);
                     item.pricePerItem = gePrice;
                     item.haPricePerItem = haPrice;
                     item.totalValue = (long) gePrice * item.totalQuantity;
                     item.totalHaValue = (long) haPrice * item.totalQuantity;
+                    if (item.priceTimeline != null) {
+                        item.priceTimeline.recordPrice(today, gePrice);
+                    }
                 }
             }
         }
     }
 
     /**
-     * Helper to get itemId from item name using ItemManager
+     * Helper to get itemId from item name. Names recorded from loot resolve from the
+     * dictionary; anything else falls back to an ItemManager search, whose result is
+     * remembered. A search that finds nothing is not repeated until its retry interval
+     * has passed.
      */
     private int getItemIdForName(String name) {
         if (name == null || name.isEmpty())
             return -1;
+        ItemIdDictionary itemIdDictionary = historicalDataManager.getItemIdDictionary();
+        int knownId = itemIdDictionary.resolve(name);
+        if (knownId > 0) {
+            return knownId;
+        }
+        long now = System.currentTimeMillis();
+        if (itemIdDictionary.isRecentlyUnresolved(name, now)) {
+            return -1;
+        }
         try {
-            return itemManager.search(name).stream()
+            int itemId = itemManager.search(name).stream()
                     .map(itemPrice -> itemPrice.getId())
-                    .filter(id -> itemManager.getItemComposition(id).getName().equalsIgnoreCase(name))
+                    .filter(id -> itemMetadata.getName(id).equalsIgnoreCase(name))
                     .findFirst().orElse(-1);
+            if (itemId > 0) {
+                itemIdDictionary.record(itemId, name);
+            } else {
+                itemIdDictionary.recordUnresolved(name, now);
+            }
+            return itemId;
         } catch (Exception e) {
             return -1;
         }
@@ -1834,7 +2071,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
         long suppliesCost = calculateSuppliesCost();
         historicalSupplyCost += suppliesCost;
 
-        capturePreviousRunSnapshot(false);
+        capturePreviousRunSnapshot(RunOutcome.FORCED_EXIT);
         moveCurrentRunUnclaimedToHistorical();
 
         handleWeaponCheckOnRunEnd();
@@ -1842,7 +2079,6 @@ public class MokhaLootTrackerPlugin extends Plugin {
         clearCurrentRunTrackingCollections();
 
         updatePanelData();
-        saveHistoricalData();
     }
 
     private void applyArenaState(ArenaStateService.ArenaStateSnapshot state) {
@@ -1864,6 +2100,8 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 previousLootSnapshot,
                 totalSuppliesConsumed,
                 initialSupplySnapshot);
+        invalidateCurrentRunLootTotals();
+        currentRunSupplyLedger.clear();
 
         // Performance metrics are per-run and should be reset when a run ends.
         performanceTracker.reset();
@@ -1879,12 +2117,19 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 filteredSupplies.put(e.getKey(), e.getValue());
             }
         }
-        arenaStateService.archiveConsumedSupplies(
+        List<ItemAggregate> archived = arenaStateService.archiveConsumedSupplies(
                 filteredSupplies,
                 historicalSuppliesUsed,
-                itemId -> getBasePotionName(itemManager.getItemComposition(itemId).getName()),
-                this::getPricePerDose,
-                this::getMaxDoseForItem);
+                itemMetadata::getBaseName,
+                itemMetadata::getPricePerDose,
+                itemMetadata::getDose);
+        for (ItemAggregate supply : archived) {
+            valueCalculationService.supplyChanged(historicalSuppliesUsed.get(supply.name));
+        }
+        if (!archived.isEmpty()) {
+            historicalDataManager.markSuppliesChanged();
+            journalRunEvent(HistoricalDataJournal.RecordType.SUPPLIES, null, archived);
+        }
     }
 
     /**
@@ -1896,9 +2141,14 @@ public class MokhaLootTrackerPlugin extends Plugin {
         long claimedValue = historicalRunService.applyClaimedLoot(
                 lootByWave,
                 historicalClaimedByWave,
-                historicalClaimedItemsByWave);
+                historicalClaimedItemsByWave,
+                System.currentTimeMillis());
+        for (int wave : lootByWave.keySet()) {
+            historicalDataManager.markClaimedWaveChanged(HistoricalRunService.claimedWaveKey(wave));
+        }
         historicalTotalClaimed += claimedValue;
         historicalClaims += 1;
+        journalRunEvent(HistoricalDataJournal.RecordType.CLAIMED_RUN, lootByWave, null);
 
         // Add supplies cost to historical total and track items on any arena exit
         archiveCurrentRunSuppliesToHistorical();
@@ -1908,9 +2158,6 @@ public class MokhaLootTrackerPlugin extends Plugin {
 
         // Update panel
         updatePanelData();
-
-        // Save persisted data
-        saveHistoricalData();
     }
 
     // ---- Weapon checklist overlay ----
@@ -2020,16 +2267,24 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 log.debug("[Mokha] {} final charges: {}", weapon.displayName, finalCharges);
                 if (checkedWeapons.containsAll(detectedWeapons)) {
                     int used = 0;
+                    Map<Integer, Integer> chargesUsed = new HashMap<>();
                     for (Map.Entry<Integer, Integer> e : weaponInitialSnapshot.entrySet()) {
                         int consumed = Math.max(0, e.getValue() - weaponFinalSnapshot.getOrDefault(e.getKey(), 0));
                         used += consumed;
+                        if (consumed > 0) {
+                            chargesUsed.put(e.getKey(), consumed);
+                        }
                         if (consumed > 0 && !TrackedWeapon.isConfigChargeItemId(e.getKey())) {
                             // Only blowpipe dart/scale items go into the previous-run supply map.
                             // INTEGER weapon charge IDs are handled via recipe in historicalSuppliesUsed.
                             previousRunSuppliesConsumed.merge(e.getKey(), consumed, (a, b) -> a + b);
                         }
                     }
+                    if (lastRecordedRunId >= 0 && !chargesUsed.isEmpty()) {
+                        historicalDataManager.amendRunWeaponCharges(lastRecordedRunId, chargesUsed);
+                    }
                     applyBlowpipeDartConsumptionToHistorical(weaponInitialSnapshot, weaponFinalSnapshot);
+                    historicalDataManager.markSuppliesChanged();
                     log.debug("[Mokha] historicalSuppliesUsed after charge write: {}", historicalSuppliesUsed.keySet());
                     resetWeaponChecklistState();
                     rearmInitialCheckCountdown = 5; // re-arm AWAITING_INITIAL after a short grace
@@ -2063,14 +2318,16 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 applyIntegerWeaponChargeToHistorical(itemId, consumed);
             } else {
                 // Blowpipe dart or scale: record as a raw supply item.
-                String baseName = getBasePotionName(itemManager.getItemComposition(itemId).getName());
-                int priceEach = getPricePerDose(itemId);
+                String baseName = itemMetadata.getBaseName(itemId);
+                int priceEach = itemMetadata.getPricePerDose(itemId);
                 ItemAggregate existing = historicalSuppliesUsed.get(baseName);
                 if (existing != null) {
                     existing.add(consumed, priceEach);
                 } else {
-                    historicalSuppliesUsed.put(baseName, new ItemAggregate(baseName, consumed, priceEach));
+                    existing = new ItemAggregate(baseName, consumed, priceEach);
+                    historicalSuppliesUsed.put(baseName, existing);
                 }
+                valueCalculationService.supplyChanged(existing);
                 historicalSupplyCost += (long) priceEach * consumed;
                 log.debug("[Mokha] Blowpipe supply applied to historical: {} x{} @ {} gp", baseName, consumed,
                         priceEach);
@@ -2090,8 +2347,11 @@ public class MokhaLootTrackerPlugin extends Plugin {
         // Remove any stale entry written by old plugin versions that stored the raw
         // item name
         // (e.g., "Crystal halberd") instead of the " Charge"-suffixed key.
-        String rawItemName = getBasePotionName(itemManager.getItemComposition(canonicalItemId).getName());
-        historicalSuppliesUsed.remove(rawItemName);
+        String rawItemName = itemMetadata.getBaseName(canonicalItemId);
+        ItemAggregate staleEntry = historicalSuppliesUsed.remove(rawItemName);
+        if (staleEntry != null) {
+            valueCalculationService.supplyRemoved(staleEntry);
+        }
 
         ItemAggregate existing = historicalSuppliesUsed.get(entryName);
         if (existing != null) {
@@ -2102,8 +2362,10 @@ public class MokhaLootTrackerPlugin extends Plugin {
                     : 0;
             existing.tooltipText = tooltip;
         } else {
-            historicalSuppliesUsed.put(entryName, new ItemAggregate(entryName, chargesConsumed, totalCost, tooltip));
+            existing = new ItemAggregate(entryName, chargesConsumed, totalCost, tooltip);
+            historicalSuppliesUsed.put(entryName, existing);
         }
+        valueCalculationService.supplyChanged(existing);
         historicalSupplyCost += totalCost;
 
         // Track separately for the previous-run supplies column.
@@ -2129,7 +2391,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             if (ing.priceless)
                 continue;
             double qty = ing.totalQuantity(charges);
-            int price = itemManager.getItemPrice(ing.itemId);
+            int price = getSnapshotPrice(ing.itemId);
             totalCost += Math.round(qty * price);
         }
         return totalCost;
@@ -2146,7 +2408,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
             String qtyStr = (qty == Math.floor(qty))
                     ? String.valueOf((long) qty)
                     : String.format("%.2f", qty);
-            String itemName = itemManager.getItemComposition(ing.itemId).getName();
+            String itemName = itemMetadata.getName(ing.itemId);
             sb.append(qtyStr).append("× ").append(itemName);
             if (ing.priceless)
                 sb.append(" (untradeable)");
@@ -2163,7 +2425,7 @@ public class MokhaLootTrackerPlugin extends Plugin {
         for (Map.Entry<Integer, Integer> entry : totalSuppliesConsumed.entrySet()) {
             int itemId = entry.getKey();
             int quantity = entry.getValue();
-            int itemValue = getPricePerDose(itemId) * quantity;
+            int itemValue = itemMetadata.getPricePerDose(itemId) * quantity;
             totalCost += itemValue;
         }
 
@@ -2182,16 +2444,18 @@ public class MokhaLootTrackerPlugin extends Plugin {
         PanelDataService.SuppliesPanelData suppliesData = panelDataService.buildSuppliesPanelData(
                 totalSuppliesConsumed,
                 historicalSuppliesUsed,
-                itemId -> getBasePotionName(itemManager.getItemComposition(itemId).getName()),
-                this::getPricePerDose,
-                this::getMaxDoseForItem);
+                itemMetadata::getBaseName,
+                itemMetadata::getPricePerDose,
+                itemMetadata::getDose);
 
-        panel.updateSuppliesCurrentRun(suppliesData.currentSuppliesTotalValue, suppliesData.currentSuppliesData);
+        panel.updateSuppliesCurrentRun(suppliesData.currentSuppliesTotalValue, suppliesData.currentSuppliesData,
+                currentRunSupplyLedger.rates(client.getTickCount(), itemMetadata::getPricePerDose));
         panel.updateSuppliesTotal(suppliesData.historicalSuppliesTotalValue, suppliesData.historicalSuppliesData);
     }
 
     /**
-     * Update all panel data
+     * Update all panel data. The panel skips sections whose data did not change and
+     * re-renders the rest on the EDT.
      */
     private void updatePanelData() {
         if (panel == null) {
@@ -2199,18 +2463,20 @@ public class MokhaLootTrackerPlugin extends Plugin {
         }
 
         panel.setDisplayHaValueOnHover(config.displayHaValueOnHover());
+        panel.updatePriceSnapshotTime(priceSnapshot.getCapturedAtMillis());
 
         applyMissingMaxDoses();
 
-        // Keep summary supply cost synchronized with historical supplies totals.
-        recalculateHistoricalSupplyCost();
-
-        // Apply ignore settings to historical items before displaying
-        applyIgnoreSettingsToHistoricalItems(historicalClaimedItemsByWave);
-        applyIgnoreSettingsToHistoricalItems(historicalUnclaimedItemsByWave);
-
-        // Recalculate historical total with ignore settings applied
-        recalculateHistoricalTotalClaimed();
+        // Totals are kept up to date as items change; a full pass is only needed when
+        // a value setting changed before recalculateAllTotals got to run.
+        if (valueCalculationService.historicalTotalsNeedRebuild(config)) {
+            rebuildHistoricalTotals();
+        }
+        historicalSupplyCost = valueCalculationService.getHistoricalSupplyCost();
+        historicalTotalClaimed = valueCalculationService.getHistoricalTotalClaimed();
+        panel.updateValueAtDrop(
+                valueCalculationService.getHistoricalClaimedValueAtDrop(),
+                valueCalculationService.getHistoricalUnclaimedValueAtDrop());
 
         PanelDataService.PanelData panelData = panelDataService.buildPanelData(
                 lootByWave,
@@ -2222,9 +2488,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 historicalSuppliesUsed,
                 config,
                 valueCalculationService,
-                itemId -> getBasePotionName(itemManager.getItemComposition(itemId).getName()),
-                this::getPricePerDose,
-                this::getMaxDoseForItem);
+                itemMetadata::getBaseName,
+                itemMetadata::getPricePerDose,
+                itemMetadata::getDose);
         PanelDataService.RunPanelData previousRunData = panelDataService.buildRunPanelData(
                 previousRunLootByWave,
                 config,
@@ -2232,9 +2498,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
         PanelDataService.SuppliesPanelData previousRunSuppliesData = panelDataService.buildSuppliesPanelData(
                 previousRunSuppliesConsumed,
                 new HashMap<>(),
-                itemId -> getBasePotionName(itemManager.getItemComposition(itemId).getName()),
-                this::getPricePerDose,
-                this::getMaxDoseForItem);
+                itemMetadata::getBaseName,
+                itemMetadata::getPricePerDose,
+                itemMetadata::getDose);
         // Weapon charges are committed after capturePreviousRunSnapshot, so inject them
         // manually.
         for (ItemAggregate agg : previousRunWeaponChargesData.values()) {
@@ -2301,7 +2567,12 @@ public class MokhaLootTrackerPlugin extends Plugin {
                 DrynessMath.calculateCumulativeUniqueChancePercent(6, currentWaveNumber,
                         DrynessMath::getDomUniqueChanceForDelve));
 
+        // Waves 9 and 10 share the 9+ panel, which shows what is pushed for wave 10, so
+        // wave 9 is not pushed on its own.
         for (int wave = 1; wave <= 10; wave++) {
+            if (wave == 9) {
+                continue;
+            }
             panel.updateClaimedWave(
                     wave,
                     panelData.claimedItemsByWave.getOrDefault(wave, new HashMap<>()),
@@ -2309,13 +2580,17 @@ public class MokhaLootTrackerPlugin extends Plugin {
         }
 
         for (int wave = 1; wave <= 10; wave++) {
+            if (wave == 9) {
+                continue;
+            }
             panel.updateUnclaimedWave(
                     wave,
                     panelData.unclaimedItemsByWave.getOrDefault(wave, new HashMap<>()),
                     panelData.unclaimedTotalsByWave.getOrDefault(wave, 0L));
         }
 
-        panel.updateSuppliesCurrentRun(panelData.currentSuppliesTotalValue, panelData.currentSuppliesData);
+        panel.updateSuppliesCurrentRun(panelData.currentSuppliesTotalValue, panelData.currentSuppliesData,
+                currentRunSupplyLedger.rates(client.getTickCount(), itemMetadata::getPricePerDose));
         panel.updateSuppliesTotal(panelData.historicalSuppliesTotalValue, panelData.historicalSuppliesData);
 
         // Update performance section
@@ -2329,17 +2604,6 @@ public class MokhaLootTrackerPlugin extends Plugin {
                     currentPerformance.getSpecialAttackUses(),
                     currentPerformance.getVenomApplications());
         }
-
-        // Force panel refresh after all updates
-        panel.revalidate();
-        panel.repaint();
-    }
-
-    private void recalculateHistoricalSupplyCost() {
-        historicalSupplyCost = 0;
-        for (ItemAggregate item : historicalSuppliesUsed.values()) {
-            historicalSupplyCost += item.totalValue;
-        }
     }
 
     private long calculateHistoricalReceivedCountForUnique(String uniqueName) {
@@ -2417,23 +2681,20 @@ public class MokhaLootTrackerPlugin extends Plugin {
     }
 
     /**
-     * Apply ignore settings to historical item data
-     * Zeros out the totalValue for Spirit Seeds and Sun-kissed Bones if the
-     * respective ignore settings are enabled. Restores correct value if setting is
-     * disabled.
+     * Apply ignore settings to historical item data and recompute the historical
+     * claimed total and supply cost from every item. Zeros out the totalValue for
+     * Spirit Seeds if the ignore setting is enabled, restores it if disabled.
      */
-    private void applyIgnoreSettingsToHistoricalItems(Map<Integer, Map<String, ItemAggregate>> historicalItems) {
-        valueCalculationService.applyIgnoreSettingsToHistoricalItems(historicalItems, config);
-    }
-
-    /**
-     * Recalculate historical claimed total based on actual item values after ignore
-     * settings applied
-     */
-    private void recalculateHistoricalTotalClaimed() {
-        historicalTotalClaimed = valueCalculationService.recalculateHistoricalTotalClaimed(
+    private void rebuildHistoricalTotals() {
+        // Loads, repricing and value settings rewrite aggregates in every wave.
+        historicalDataManager.markAllHistoryChanged();
+        valueCalculationService.rebuildHistoricalTotals(
                 historicalClaimedItemsByWave,
+                historicalUnclaimedItemsByWave,
+                historicalSuppliesUsed,
                 config);
+        historicalTotalClaimed = valueCalculationService.getHistoricalTotalClaimed();
+        historicalSupplyCost = valueCalculationService.getHistoricalSupplyCost();
     }
 
     /**
@@ -2449,21 +2710,19 @@ public class MokhaLootTrackerPlugin extends Plugin {
             return;
         }
 
-        // Update cloth in claimed items
-        for (Map<String, ItemAggregate> waveItems : historicalClaimedItemsByWave.values()) {
-            ItemAggregate clothItem = findMokhaClothItem(waveItems);
-            if (clothItem != null) {
-                clothItem.pricePerItem = clothPrice;
-                clothItem.totalValue = (long) clothItem.totalQuantity * clothPrice;
-            }
-        }
-
-        // Update cloth in unclaimed items
-        for (Map<String, ItemAggregate> waveItems : historicalUnclaimedItemsByWave.values()) {
-            ItemAggregate clothItem = findMokhaClothItem(waveItems);
-            if (clothItem != null) {
-                clothItem.pricePerItem = clothPrice;
-                clothItem.totalValue = (long) clothItem.totalQuantity * clothPrice;
+        // Update cloth in claimed and unclaimed items
+        int today = PriceTimeline.epochDay(System.currentTimeMillis());
+        for (Map<Integer, Map<String, ItemAggregate>> itemsByWave : List.of(historicalClaimedItemsByWave,
+                historicalUnclaimedItemsByWave)) {
+            for (Map<String, ItemAggregate> waveItems : itemsByWave.values()) {
+                ItemAggregate clothItem = findMokhaClothItem(waveItems);
+                if (clothItem != null) {
+                    clothItem.pricePerItem = clothPrice;
+                    clothItem.totalValue = (long) clothItem.totalQuantity * clothPrice;
+                    if (clothItem.priceTimeline != null) {
+                        clothItem.priceTimeline.recordPrice(today, clothPrice);
+                    }
+                }
             }
         }
     }
@@ -2505,9 +2764,9 @@ public class MokhaLootTrackerPlugin extends Plugin {
      * Returns the calculated value, or 0 if unable to determine component prices
      */
     private int calculateMokhaClothValue() {
-        int conflictionGauntletsPrice = itemManager.getItemPrice(31106); // Confliction Gauntlets
-        int demonTearPrice = itemManager.getItemPrice(31111); // Demon Tear
-        int tormentedBraceletPrice = itemManager.getItemPrice(19544); // Tormented Bracelet
+        int conflictionGauntletsPrice = getSnapshotPrice(CONFLICTION_GAUNTLETS_ID);
+        int demonTearPrice = getSnapshotPrice(DEMON_TEAR_ID);
+        int tormentedBraceletPrice = getSnapshotPrice(TORMENTED_BRACELET_ID);
 
         if (conflictionGauntletsPrice <= 0 || demonTearPrice <= 0 || tormentedBraceletPrice <= 0) {
             return 0; // Return 0 if any component price is unavailable
@@ -2551,23 +2810,76 @@ public class MokhaLootTrackerPlugin extends Plugin {
         return calculatedValue;
     }
 
-    private void capturePreviousRunSnapshot(boolean claimed) {
+    private void capturePreviousRunSnapshot(RunOutcome outcome) {
         previousRunLootByWave.clear();
         previousRunSuppliesConsumed.clear();
         previousRunWeaponChargesData.clear();
         hasPreviousRunSnapshot = true;
-        previousRunClaimed = claimed;
+        previousRunClaimed = outcome == RunOutcome.CLAIMED;
 
         previousRunPerformance = performanceTracker.snapshot();
 
         for (Map.Entry<Integer, List<LootItem>> entry : lootByWave.entrySet()) {
             List<LootItem> copiedItems = new ArrayList<>();
             for (LootItem item : entry.getValue()) {
-                copiedItems.add(new LootItem(item.name, item.quantity, item.value, item.haValue));
+                copiedItems.add(new LootItem(item.itemId, item.name, item.quantity, item.value, item.haValue));
             }
             previousRunLootByWave.put(entry.getKey(), copiedItems);
         }
 
         previousRunSuppliesConsumed.putAll(totalSuppliesConsumed);
+        recordRunHistory(outcome);
+    }
+
+    /** Adds the run just captured as the previous run to the per-run history. */
+    private void recordRunHistory(RunOutcome outcome) {
+        RunRecord run = new RunRecord();
+        run.timestamp = System.currentTimeMillis();
+        run.outcome = outcome;
+        run.maxWave = currentWaveNumber;
+        run.lootByWave = new HashMap<>();
+        for (Map.Entry<Integer, List<LootItem>> entry : previousRunLootByWave.entrySet()) {
+            List<LootItem> items = new ArrayList<>();
+            for (LootItem item : entry.getValue()) {
+                items.add(new LootItem(item.itemId, item.name, item.quantity, item.value, item.haValue));
+                run.lootValue += item.value;
+            }
+            run.lootByWave.put(entry.getKey(), items);
+            run.maxWave = Math.max(run.maxWave, entry.getKey());
+        }
+        run.suppliesConsumed = new HashMap<>(previousRunSuppliesConsumed);
+        run.supplyLedger = currentRunSupplyLedger.toArray();
+        for (Map.Entry<Integer, Integer> entry : previousRunSuppliesConsumed.entrySet()) {
+            run.suppliesValue += (long) itemMetadata.getPricePerDose(entry.getKey()) * entry.getValue();
+        }
+        run.performance = previousRunPerformance;
+
+        lastRecordedRunId = historicalDataManager.recordRun(run);
+        refreshRunHistory();
+    }
+
+    /**
+     * Pushes today's and the last seven days' run totals to the panel. The totals come from
+     * the run history index; only the few runs listed in the tooltip are read from disk.
+     */
+    private void refreshRunHistory() {
+        if (panel == null) {
+            return;
+        }
+
+        ZonedDateTime startOfToday = ZonedDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        // One past now, so a run recorded this millisecond is included.
+        long end = System.currentTimeMillis() + 1;
+        RunHistoryStore.RunRange today = historicalDataManager.queryRuns(
+                startOfToday.toInstant().toEpochMilli(), end);
+        RunHistoryStore.RunRange week = historicalDataManager.queryRuns(
+                startOfToday.minusDays(6).toInstant().toEpochMilli(), end);
+        if (today == null || week == null) {
+            return;
+        }
+
+        MokhaLootPanel targetPanel = panel;
+        historicalDataManager.loadRuns(historicalDataManager.lastRuns(week, RECENT_RUNS_SHOWN),
+                recentRuns -> targetPanel.updateRunHistory(today, week, recentRuns));
     }
 }
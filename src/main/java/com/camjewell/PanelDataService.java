@@ -70,7 +70,6 @@ class PanelDataService {
         data.currentRunTotalsByWave = currentRunData.totalsByWave;
         data.currentRunHaTotalsByWave = currentRunData.haTotalsByWave;
         data.totalUnclaimed = valueCalculationService.calculateTotalUnclaimed(
-                historicalUnclaimedItemsByWave,
                 historicalUnclaimedByWave,
                 config);
 
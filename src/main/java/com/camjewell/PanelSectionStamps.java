@@ -0,0 +1,36 @@
+package com.camjewell;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Version stamps for the sections of {@link MokhaLootPanel}. A section's version only moves
+ * when the input pushed to it differs from the last one, so unchanged sections are not
+ * rendered again, and a queued render that a newer input has superseded can be dropped.
+ */
+final class PanelSectionStamps {
+    private final Map<String, Object> inputs = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+
+    /**
+     * Records the input of a section. Returns the section's new version, or -1 if the input
+     * equals the previous one. The input must not be modified afterwards.
+     */
+    synchronized long update(String section, Object input) {
+        if (inputs.containsKey(section) && Objects.equals(inputs.get(section), input)) {
+            return -1;
+        }
+        inputs.put(section, input);
+        return versions.merge(section, 1L, Long::sum);
+    }
+
+    synchronized boolean isCurrent(String section, long version) {
+        return versions.getOrDefault(section, 0L) == version;
+    }
+
+    /** Forgets all inputs so the next update of every section renders. */
+    synchronized void invalidateAll() {
+        inputs.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package com.camjewell;
+
+import java.util.Arrays;
+
+/**
+ * GE and high alchemy prices of a fixed set of items, read together at one moment and
+ * never modified afterwards. Item IDs are kept sorted next to parallel price arrays.
+ * Capturing again only produces a new {@link #getVersion() version} when an item or a
+ * price differs, so totals priced with a version stay valid until it changes.
+ */
+final class PriceSnapshot {
+    static final PriceSnapshot EMPTY = new PriceSnapshot(0, 0, new int[0], new int[0], new int[0]);
+
+    private final int version;
+    private final long capturedAtMillis;
+    private final int[] itemIds;
+    private final int[] gePrices;
+    private final int[] haPrices;
+
+    private PriceSnapshot(int version, long capturedAtMillis, int[] itemIds, int[] gePrices, int[] haPrices) {
+        this.version = version;
+        this.capturedAtMillis = capturedAtMillis;
+        this.itemIds = itemIds;
+        this.gePrices = gePrices;
+        this.haPrices = haPrices;
+    }
+
+    /**
+     * Reads the prices of {@code itemIds} (duplicates and non-positive IDs are ignored)
+     * from {@code itemMetadata}, which should have just had its prices invalidated.
+     * Keeps the version (and arrays) of {@code previous} when nothing differs from it.
+     */
+    static PriceSnapshot capture(ItemMetadataCache itemMetadata, int[] itemIds, PriceSnapshot previous) {
+        int[] ids = Arrays.stream(itemIds).filter(id -> id > 0).sorted().distinct().toArray();
+        int[] gePrices = new int[ids.length];
+        int[] haPrices = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            gePrices[i] = itemMetadata.getPrice(ids[i]);
+            haPrices[i] = itemMetadata.getHaPrice(ids[i]);
+        }
+        if (Arrays.equals(ids, previous.itemIds) && Arrays.equals(gePrices, previous.gePrices)
+                && Arrays.equals(haPrices, previous.haPrices)) {
+            return new PriceSnapshot(previous.version, System.currentTimeMillis(), previous.itemIds,
+                    previous.gePrices, previous.haPrices);
+        }
+        return new PriceSnapshot(previous.version + 1, System.currentTimeMillis(), ids, gePrices, haPrices);
+    }
+
+    /** 0 for {@link #EMPTY}; increases with every capture that changed a price. */
+    int getVersion() {
+        return version;
+    }
+
+    /** When these prices were last read, or 0 if never captured. */
+    long getCapturedAtMillis() {
+        return capturedAtMillis;
+    }
+
+    boolean contains(int itemId) {
+        return Arrays.binarySearch(itemIds, itemId) >= 0;
+    }
+
+    /** GE price of {@code itemId}, or 0 if it was not captured. */
+    int getGePrice(int itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? gePrices[index] : 0;
+    }
+
+    /** High alchemy price of {@code itemId}, or 0 if it was not captured. */
+    int getHaPrice(int itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? haPrices[index] : 0;
+    }
+}
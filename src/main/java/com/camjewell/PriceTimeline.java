@@ -0,0 +1,116 @@
+package com.camjewell;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Prices one aggregated item had over time, as (epoch day, quantity, price) rows in
+ * parallel primitive arrays, oldest first. Drops add rows with the quantity received and
+ * the price it was valued at; repricing adds a row with quantity 0 when the price moved.
+ * Consecutive rows of the same day and price are merged, so the timeline grows with
+ * price changes rather than with drops. Day 0 marks loot recorded before timelines
+ * existed, whose drop date is unknown.
+ */
+final class PriceTimeline {
+    static final int UNKNOWN_DAY = 0;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] days;
+    private int[] quantities;
+    private int[] prices;
+    private int size;
+    private long valueAtDrop;
+
+    PriceTimeline() {
+        days = new int[INITIAL_CAPACITY];
+        quantities = new int[INITIAL_CAPACITY];
+        prices = new int[INITIAL_CAPACITY];
+    }
+
+    /** Local calendar day of {@code millis}, in days since 1970-01-01. */
+    static int epochDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /** Records {@code quantity} items received on {@code day}, valued at {@code price} each. */
+    void recordDrop(int day, int quantity, int price) {
+        append(day, quantity, price);
+    }
+
+    /** Records that the item was repriced to {@code price} on {@code day}. */
+    void recordPrice(int day, int price) {
+        if (size == 0 || prices[size - 1] != price) {
+            append(day, 0, price);
+        }
+    }
+
+    /** Adds a row as is, e.g. when decoding a saved timeline. */
+    void append(int day, int quantity, int price) {
+        // Rows stay ordered by day; a late row (e.g. a replayed journal entry) joins the
+        // latest day rather than reordering history.
+        if (size > 0 && day < days[size - 1]) {
+            day = days[size - 1];
+        }
+        valueAtDrop += (long) price * quantity;
+        if (size > 0 && days[size - 1] == day && prices[size - 1] == price) {
+            quantities[size - 1] += quantity;
+            return;
+        }
+        if (size == days.length) {
+            int capacity = size * 2;
+            days = Arrays.copyOf(days, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        days[size] = day;
+        quantities[size] = quantity;
+        prices[size] = price;
+        size++;
+    }
+
+    /** Sum of every drop at the price it had when received. */
+    long getValueAtDrop() {
+        return valueAtDrop;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int dayAt(int row) {
+        return days[row];
+    }
+
+    int quantityAt(int row) {
+        return quantities[row];
+    }
+
+    int priceAt(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Whether {@code other} has as many rows as this timeline, the same last row and the
+     * same value at drop. Enough to tell an unchanged copy apart, since rows are only ever
+     * appended or merged into the last one.
+     */
+    boolean hasSameTail(PriceTimeline other) {
+        if (other == null || other.size != size || other.valueAtDrop != valueAtDrop) {
+            return false;
+        }
+        int last = size - 1;
+        return size == 0 || (other.days[last] == days[last] && other.quantities[last] == quantities[last]
+                && other.prices[last] == prices[last]);
+    }
+
+    PriceTimeline copy() {
+        PriceTimeline copy = new PriceTimeline();
+        copy.days = Arrays.copyOf(days, Math.max(size, INITIAL_CAPACITY));
+        copy.quantities = Arrays.copyOf(quantities, copy.days.length);
+        copy.prices = Arrays.copyOf(prices, copy.days.length);
+        copy.size = size;
+        copy.valueAtDrop = valueAtDrop;
+        return copy;
+    }
+}
@@ -0,0 +1,517 @@
+package com.camjewell;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Persistent history of individual runs for one player.
+ *
+ * <p>Runs are appended as JSON lines to {@code <player>.runs.jsonl}. A fixed-width binary
+ * index ({@code <player>.runs.idx}) records each line's offset, timestamp, outcome and
+ * values, so opening the history never parses the runs themselves. In memory the index is
+ * kept as time-sorted primitive arrays with prefix sums: a date-range query is two binary
+ * searches, and full records are only read from disk for the runs actually requested.
+ *
+ * <p>Weapon charges are only known after the post-run weapon check, so they are appended
+ * later as an amendment line referring to the run.
+ */
+class RunHistoryStore {
+    private static final Logger log = LoggerFactory.getLogger(RunHistoryStore.class);
+
+    // kind(1) outcome(1) maxWave(2) length(4) runId(8) timestamp(8) offset(8) lootValue(8) suppliesValue(8)
+    private static final int ENTRY_BYTES = 48;
+    private static final byte KIND_RUN = 0;
+    private static final byte KIND_WEAPON_CHARGES = 1;
+    private static final RunOutcome[] OUTCOMES = RunOutcome.values();
+
+    /** Totals over the runs in {@code [fromIndex, toIndex)} of the time-sorted index. */
+    static final class RunRange {
+        final int fromIndex;
+        final int toIndex;
+        final int claims;
+        final int deaths;
+        final long claimedValue;
+        final long unclaimedValue;
+        final long suppliesValue;
+
+        private RunRange(int fromIndex, int toIndex, int claims, int deaths,
+                long claimedValue, long unclaimedValue, long suppliesValue) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.claims = claims;
+            this.deaths = deaths;
+            this.claimedValue = claimedValue;
+            this.unclaimedValue = unclaimedValue;
+            this.suppliesValue = suppliesValue;
+        }
+
+        int getRunCount() {
+            return toIndex - fromIndex;
+        }
+
+        long getProfit() {
+            return claimedValue - suppliesValue;
+        }
+    }
+
+    private static final class LogLine {
+        RunRecord run;
+        // Set instead of run for a weapon charge amendment.
+        Long amendsRunId;
+        Map<Integer, Integer> weaponChargesUsed;
+    }
+
+    private static final class PendingWrite {
+        final RunRecord run;
+        final long amendsRunId;
+        final Map<Integer, Integer> weaponChargesUsed;
+
+        PendingWrite(RunRecord run, long amendsRunId, Map<Integer, Integer> weaponChargesUsed) {
+            this.run = run;
+            this.amendsRunId = amendsRunId;
+            this.weaponChargesUsed = weaponChargesUsed;
+        }
+    }
+
+    private final File dataFile;
+    private final File indexFile;
+    private final Gson gson;
+
+    // Indexed by run position, which is also the run ID. Timestamps never decrease.
+    private int runCount;
+    private long[] timestamps = new long[64];
+    private long[] offsets = new long[64];
+    private int[] lengths = new int[64];
+    // Prefix sums: element i covers runs [0, i).
+    private int[] prefixClaims = new int[65];
+    private int[] prefixDeaths = new int[65];
+    private long[] prefixClaimedValue = new long[65];
+    private long[] prefixUnclaimedValue = new long[65];
+    private long[] prefixSuppliesValue = new long[65];
+
+    private final Map<Long, long[]> amendmentLocations = new HashMap<>();
+    // Recorded but not yet on disk; served from memory until written.
+    private final Map<Long, RunRecord> unwrittenRuns = new HashMap<>();
+    private final Map<Long, Map<Integer, Integer>> unwrittenAmendments = new HashMap<>();
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+
+    private RunHistoryStore(File dataFile, File indexFile, Gson gson) {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.gson = gson;
+    }
+
+    static RunHistoryStore open(File dataFile, File indexFile, Gson gson) throws IOException {
+        RunHistoryStore store = new RunHistoryStore(dataFile, indexFile, gson);
+        store.loadIndex();
+        return store;
+    }
+
+    /** Adds a run to the index and queues it for {@link #writePending()}. Returns its run ID. */
+    synchronized long append(RunRecord run) {
+        run.runId = runCount;
+        long timestamp = runCount > 0 ? Math.max(run.timestamp, timestamps[runCount - 1]) : run.timestamp;
+        addRun(timestamp, -1, 0, run.outcome, run.lootValue, run.suppliesValue);
+        unwrittenRuns.put(run.runId, run);
+        pendingWrites.add(new PendingWrite(run, -1, null));
+        return run.runId;
+    }
+
+    /** Attaches the weapon charges used to an already recorded run. */
+    synchronized boolean amendWeaponCharges(long runId, Map<Integer, Integer> weaponChargesUsed) {
+        if (runId < 0 || runId >= runCount) {
+            return false;
+        }
+        Map<Integer, Integer> charges = new HashMap<>(weaponChargesUsed);
+        unwrittenAmendments.put(runId, charges);
+        pendingWrites.add(new PendingWrite(null, runId, charges));
+        return true;
+    }
+
+    synchronized boolean hasPendingWrites() {
+        return !pendingWrites.isEmpty();
+    }
+
+    synchronized int getRunCount() {
+        return runCount;
+    }
+
+    /** Runs with {@code fromMillis <= timestamp < toMillis}. */
+    synchronized RunRange query(long fromMillis, long toMillis) {
+        int from = lowerBound(fromMillis);
+        return range(from, Math.max(from, lowerBound(toMillis)));
+    }
+
+    /** The most recent {@code count} runs of {@code range}. */
+    synchronized RunRange lastRuns(RunRange range, int count) {
+        return range(Math.max(range.fromIndex, range.toIndex - count), range.toIndex);
+    }
+
+    private RunRange range(int from, int to) {
+        return new RunRange(from, to,
+                prefixClaims[to] - prefixClaims[from],
+                prefixDeaths[to] - prefixDeaths[from],
+                prefixClaimedValue[to] - prefixClaimedValue[from],
+                prefixUnclaimedValue[to] - prefixUnclaimedValue[from],
+                prefixSuppliesValue[to] - prefixSuppliesValue[from]);
+    }
+
+    /** Reads the full records of a range from disk, oldest first. */
+    List<RunRecord> loadRuns(RunRange range) throws IOException {
+        List<RunRecord> runs = new ArrayList<>(range.getRunCount());
+        FileChannel channel = null;
+        try {
+            for (int i = range.fromIndex; i < range.toIndex; i++) {
+                RunRecord run;
+                long[] amendment;
+                Map<Integer, Integer> unwrittenCharges;
+                long offset;
+                int length;
+                synchronized (this) {
+                    RunRecord unwritten = unwrittenRuns.get((long) i);
+                    // The writer may be serializing the queued instance right now.
+                    run = unwritten != null ? unwritten.copy() : null;
+                    amendment = amendmentLocations.get((long) i);
+                    unwrittenCharges = unwrittenAmendments.get((long) i);
+                    offset = offsets[i];
+                    length = lengths[i];
+                }
+
+                if (run == null) {
+                    if (channel == null) {
+                        channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+                    }
+                    run = readLine(channel, offset, length).run;
+                    if (run == null) {
+                        continue;
+                    }
+                }
+                if (unwrittenCharges != null) {
+                    run.weaponChargesUsed = unwrittenCharges;
+                } else if (amendment != null) {
+                    if (channel == null) {
+                        channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+                    }
+                    run.weaponChargesUsed = readLine(channel, amendment[0], (int) amendment[1]).weaponChargesUsed;
+                }
+                runs.add(run);
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Appends every queued run and amendment. Only called from the persistence thread. If
+     * the append fails, what was written of it is cut off again and the whole batch stays
+     * queued for the next call.
+     */
+    void writePending() throws IOException {
+        List<PendingWrite> batch;
+        synchronized (this) {
+            if (pendingWrites.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingWrites);
+            pendingWrites.clear();
+        }
+
+        long[] writtenOffsets = new long[batch.size()];
+        int[] writtenLengths = new int[batch.size()];
+        try (FileChannel data = FileChannel.open(dataFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                FileChannel index = FileChannel.open(indexFile.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long dataStart = data.size();
+            long indexStart = index.size();
+            try {
+                long offset = dataStart;
+                ByteBuffer entries = ByteBuffer.allocate(ENTRY_BYTES * batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingWrite write = batch.get(i);
+                    LogLine line = new LogLine();
+                    if (write.run != null) {
+                        line.run = write.run;
+                    } else {
+                        line.amendsRunId = write.amendsRunId;
+                        line.weaponChargesUsed = write.weaponChargesUsed;
+                    }
+                    byte[] json = gson.toJson(line).getBytes(StandardCharsets.UTF_8);
+                    writeFully(data, ByteBuffer.wrap(json));
+                    writeFully(data, ByteBuffer.wrap(new byte[] { '\n' }));
+
+                    writtenOffsets[i] = offset;
+                    writtenLengths[i] = json.length;
+                    putEntry(entries, write, offset, json.length);
+                    offset += json.length + 1;
+                }
+                entries.flip();
+                writeFully(index, entries);
+            } catch (IOException e) {
+                // Otherwise the retry would append the written part a second time.
+                try {
+                    data.truncate(dataStart);
+                    index.truncate(indexStart);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                pendingWrites.addAll(0, batch);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (int i = 0; i < batch.size(); i++) {
+                PendingWrite write = batch.get(i);
+                if (write.run != null) {
+                    int position = (int) write.run.runId;
+                    offsets[position] = writtenOffsets[i];
+                    lengths[position] = writtenLengths[i];
+                    unwrittenRuns.remove(write.run.runId);
+                } else {
+                    amendmentLocations.put(write.amendsRunId, new long[] { writtenOffsets[i], writtenLengths[i] });
+                    if (unwrittenAmendments.get(write.amendsRunId) == write.weaponChargesUsed) {
+                        unwrittenAmendments.remove(write.amendsRunId);
+                    }
+                }
+            }
+        }
+    }
+
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = runCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addRun(long timestamp, long offset, int length, RunOutcome outcome, long lootValue,
+            long suppliesValue) {
+        if (runCount == timestamps.length) {
+            int capacity = timestamps.length * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            prefixClaims = Arrays.copyOf(prefixClaims, capacity + 1);
+            prefixDeaths = Arrays.copyOf(prefixDeaths, capacity + 1);
+            prefixClaimedValue = Arrays.copyOf(prefixClaimedValue, capacity + 1);
+            prefixUnclaimedValue = Arrays.copyOf(prefixUnclaimedValue, capacity + 1);
+            prefixSuppliesValue = Arrays.copyOf(prefixSuppliesValue, capacity + 1);
+        }
+
+        int i = runCount;
+        boolean claimed = outcome == RunOutcome.CLAIMED;
+        timestamps[i] = timestamp;
+        offsets[i] = offset;
+        lengths[i] = length;
+        prefixClaims[i + 1] = prefixClaims[i] + (claimed ? 1 : 0);
+        prefixDeaths[i + 1] = prefixDeaths[i] + (outcome == RunOutcome.DIED ? 1 : 0);
+        prefixClaimedValue[i + 1] = prefixClaimedValue[i] + (claimed ? lootValue : 0);
+        prefixUnclaimedValue[i + 1] = prefixUnclaimedValue[i] + (claimed ? 0 : lootValue);
+        prefixSuppliesValue[i + 1] = prefixSuppliesValue[i] + suppliesValue;
+        runCount++;
+    }
+
+    private static void putEntry(ByteBuffer entries, PendingWrite write, long offset, int length) {
+        RunRecord run = write.run;
+        entries.put(run != null ? KIND_RUN : KIND_WEAPON_CHARGES);
+        entries.put((byte) (run != null && run.outcome != null ? run.outcome.ordinal() : 0));
+        entries.putShort((short) (run != null ? run.maxWave : 0));
+        entries.putInt(length);
+        entries.putLong(run != null ? run.runId : write.amendsRunId);
+        entries.putLong(run != null ? run.timestamp : 0);
+        entries.putLong(offset);
+        entries.putLong(run != null ? run.lootValue : 0);
+        entries.putLong(run != null ? run.suppliesValue : 0);
+    }
+
+    /**
+     * Loads the binary index, dropping entries whose lines are missing from the data file
+     * and re-indexing lines appended after the last index entry (e.g. after a crash between
+     * the two appends).
+     */
+    private void loadIndex() throws IOException {
+        long dataLength = dataFile.exists() ? dataFile.length() : 0;
+        long indexedEnd = 0;
+        long validIndexBytes = 0;
+
+        if (indexFile.exists()) {
+            ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                buffer = ByteBuffer.allocate((int) (channel.size() - channel.size() % ENTRY_BYTES));
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until the buffer is full.
+                }
+            }
+            buffer.flip();
+
+            while (buffer.remaining() >= ENTRY_BYTES) {
+                byte kind = buffer.get();
+                int outcome = buffer.get();
+                buffer.getShort();
+                int length = buffer.getInt();
+                long runId = buffer.getLong();
+                long timestamp = buffer.getLong();
+                long offset = buffer.getLong();
+                long lootValue = buffer.getLong();
+                long suppliesValue = buffer.getLong();
+                if (offset + length + 1 > dataLength) {
+                    break;
+                }
+
+                indexEntry(kind, outcome, runId, timestamp, offset, length, lootValue, suppliesValue);
+                indexedEnd = Math.max(indexedEnd, offset + length + 1);
+                validIndexBytes += ENTRY_BYTES;
+            }
+
+            if (validIndexBytes != indexFile.length()) {
+                try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(validIndexBytes);
+                }
+            }
+        }
+
+        if (dataLength > indexedEnd) {
+            reindexTail(indexedEnd, dataLength);
+        }
+    }
+
+    private void indexEntry(byte kind, int outcome, long runId, long timestamp, long offset, int length,
+            long lootValue, long suppliesValue) {
+        if (kind == KIND_WEAPON_CHARGES) {
+            amendmentLocations.put(runId, new long[] { offset, length });
+            return;
+        }
+        long sortedTimestamp = runCount > 0 ? Math.max(timestamp, timestamps[runCount - 1]) : timestamp;
+        RunOutcome runOutcome = outcome >= 0 && outcome < OUTCOMES.length ? OUTCOMES[outcome] : null;
+        addRun(sortedTimestamp, offset, length, runOutcome, lootValue, suppliesValue);
+    }
+
+    private void reindexTail(long from, long dataLength) throws IOException {
+        ByteBuffer tail = ByteBuffer.allocate((int) (dataLength - from));
+        try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+            while (tail.hasRemaining() && channel.read(tail, from + tail.position()) >= 0) {
+                // Keep reading until the buffer is full.
+            }
+        }
+
+        byte[] bytes = tail.array();
+        List<PendingWrite> recovered = new ArrayList<>();
+        List<long[]> locations = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            try {
+                LogLine line = gson.fromJson(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8),
+                        LogLine.class);
+                if (line != null && (line.run != null || line.amendsRunId != null)) {
+                    if (line.run != null) {
+                        line.run.runId = runCount + countRuns(recovered);
+                    }
+                    recovered.add(new PendingWrite(line.run,
+                            line.amendsRunId != null ? line.amendsRunId : -1, line.weaponChargesUsed));
+                    locations.add(new long[] { from + lineStart, i - lineStart });
+                }
+            } catch (JsonParseException e) {
+                log.warn("Skipping unreadable run history record", e);
+            }
+            lineStart = i + 1;
+        }
+
+        long validEnd = from + lineStart;
+        if (validEnd < dataLength) {
+            // A torn last line; cut it so the next append starts on a fresh line.
+            try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+        }
+
+        ByteBuffer entries = ByteBuffer.allocate(ENTRY_BYTES * recovered.size());
+        for (int i = 0; i < recovered.size(); i++) {
+            PendingWrite write = recovered.get(i);
+            long[] location = locations.get(i);
+            putEntry(entries, write, location[0], (int) location[1]);
+            RunRecord run = write.run;
+            indexEntry(run != null ? KIND_RUN : KIND_WEAPON_CHARGES,
+                    run != null && run.outcome != null ? run.outcome.ordinal() : 0,
+                    run != null ? run.runId : write.amendsRunId,
+                    run != null ? run.timestamp : 0,
+                    location[0], (int) location[1],
+                    run != null ? run.lootValue : 0,
+                    run != null ? run.suppliesValue : 0);
+        }
+        entries.flip();
+        try (FileChannel index = FileChannel.open(indexFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeFully(index, entries);
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Re-indexed {} run history record(s)", recovered.size());
+        }
+    }
+
+    private static int countRuns(List<PendingWrite> writes) {
+        int count = 0;
+        for (PendingWrite write : writes) {
+            if (write.run != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private LogLine readLine(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Run history record at " + offset + " is truncated");
+            }
+        }
+        try {
+            LogLine line = gson.fromJson(new String(buffer.array(), StandardCharsets.UTF_8), LogLine.class);
+            if (line == null) {
+                throw new IOException("Run history record at " + offset + " is empty");
+            }
+            return line;
+        } catch (JsonParseException e) {
+            throw new IOException("Run history record at " + offset + " is unreadable", e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
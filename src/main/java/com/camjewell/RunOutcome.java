@@ -0,0 +1,12 @@
+package com.camjewell;
+
+/** How a delve ended, as recorded in the per-run history. */
+enum RunOutcome {
+    CLAIMED,
+    DIED,
+    TELEPORTED,
+    // Logged out or hopped while still in the arena.
+    DISCONNECTED,
+    // Left the arena without any of the exits above being detected.
+    FORCED_EXIT
+}
@@ -0,0 +1,46 @@
+package com.camjewell;
+
+import java.util.List;
+import java.util.Map;
+
+/** One finished run as kept by {@link RunHistoryStore}. */
+class RunRecord {
+    // Assigned by the store in the order runs are recorded.
+    long runId;
+    long timestamp;
+    int maxWave;
+    RunOutcome outcome;
+    Map<Integer, List<LootItem>> lootByWave;
+    // Item ID -> doses/items consumed.
+    Map<Integer, Integer> suppliesConsumed;
+    // Consumption timeline: SupplyLedger rows (tick since run start, wave, item ID, quantity),
+    // flattened. Null for runs recorded before the ledger existed.
+    int[] supplyLedger;
+    // Canonical weapon item ID -> charges used; filled in after the post-run weapon check.
+    Map<Integer, Integer> weaponChargesUsed;
+    PerformanceSnapshot performance;
+    // Totals at the prices of the time of the run.
+    long lootValue;
+    long suppliesValue;
+
+    /** Shallow copy; the loot, supply and charge maps and the supply ledger are shared. */
+    RunRecord copy() {
+        RunRecord copy = new RunRecord();
+        copy.runId = runId;
+        copy.timestamp = timestamp;
+        copy.maxWave = maxWave;
+        copy.outcome = outcome;
+        copy.lootByWave = lootByWave;
+        copy.suppliesConsumed = suppliesConsumed;
+        copy.supplyLedger = supplyLedger;
+        copy.weaponChargesUsed = weaponChargesUsed;
+        copy.performance = performance;
+        copy.lootValue = lootValue;
+        copy.suppliesValue = suppliesValue;
+        return copy;
+    }
+
+    boolean isClaimed() {
+        return outcome == RunOutcome.CLAIMED;
+    }
+}
@@ -0,0 +1,63 @@
+package com.camjewell;
+
+import net.runelite.api.Client;
+import net.runelite.api.Varbits;
+
+/**
+ * Rune pouch contents mirrored from the {@code RUNE_POUCH_*} varbits. Kept up to date from
+ * varbit change events so building a supply snapshot does not query the client.
+ */
+final class RunePouchState {
+    private static final int[] RUNE_POUCH_ITEM_IDS = new int[] {
+            0,
+            556, 555, 557, 554, 558, 562, 560, 565, 564,
+            561, 563, 559, 566, 9075,
+            4695, 4698, 4696, 4699, 4694, 4697,
+            21880, 28929, 30843
+    };
+
+    @SuppressWarnings("deprecation")
+    private static final int[] RUNE_VARBITS = new int[] { Varbits.RUNE_POUCH_RUNE1, Varbits.RUNE_POUCH_RUNE2,
+            Varbits.RUNE_POUCH_RUNE3, Varbits.RUNE_POUCH_RUNE4, Varbits.RUNE_POUCH_RUNE5, Varbits.RUNE_POUCH_RUNE6 };
+    @SuppressWarnings("deprecation")
+    private static final int[] AMOUNT_VARBITS = new int[] { Varbits.RUNE_POUCH_AMOUNT1,
+            Varbits.RUNE_POUCH_AMOUNT2, Varbits.RUNE_POUCH_AMOUNT3, Varbits.RUNE_POUCH_AMOUNT4,
+            Varbits.RUNE_POUCH_AMOUNT5, Varbits.RUNE_POUCH_AMOUNT6 };
+
+    // Per pouch slot: rune item ID (0 if empty or unknown) and amount.
+    private final int[] itemIds = new int[RUNE_VARBITS.length];
+    private final int[] amounts = new int[RUNE_VARBITS.length];
+
+    /** Re-reads every slot from the client, e.g. when a run starts. */
+    void reload(Client client) {
+        for (int slot = 0; slot < RUNE_VARBITS.length; slot++) {
+            itemIds[slot] = runeItemId(client.getVarbitValue(RUNE_VARBITS[slot]));
+            amounts[slot] = client.getVarbitValue(AMOUNT_VARBITS[slot]);
+        }
+    }
+
+    void onVarbitChanged(int varbitId, int value) {
+        for (int slot = 0; slot < RUNE_VARBITS.length; slot++) {
+            if (RUNE_VARBITS[slot] == varbitId) {
+                itemIds[slot] = runeItemId(value);
+                return;
+            }
+            if (AMOUNT_VARBITS[slot] == varbitId) {
+                amounts[slot] = value;
+                return;
+            }
+        }
+    }
+
+    void addContents(ItemQuantityTable target) {
+        for (int slot = 0; slot < itemIds.length; slot++) {
+            if (itemIds[slot] > 0 && amounts[slot] > 0) {
+                target.add(itemIds[slot], amounts[slot]);
+            }
+        }
+    }
+
+    private static int runeItemId(int runeVar) {
+        return runeVar > 0 && runeVar < RUNE_POUCH_ITEM_IDS.length ? RUNE_POUCH_ITEM_IDS[runeVar] : 0;
+    }
+}
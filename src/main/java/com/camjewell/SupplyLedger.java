@@ -0,0 +1,105 @@
+package com.camjewell;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Supply consumption events of the current run as (tick, wave, item ID, quantity) rows in
+ * a ring buffer of primitive arrays. Ticks are relative to {@link #start(int)}. When the
+ * buffer is full the oldest rows are overwritten; per-wave quantities are summed as rows
+ * are recorded, so only the timeline loses detail.
+ */
+final class SupplyLedger {
+    static final int FIELDS_PER_EVENT = 4;
+    private static final int CAPACITY = 8192;
+    private static final int TICKS_PER_MINUTE = 100;
+
+    static final class Rates {
+        final Map<Integer, Long> valueByWave;
+        final long valuePerMinute;
+
+        Rates(Map<Integer, Long> valueByWave, long valuePerMinute) {
+            this.valueByWave = valueByWave;
+            this.valuePerMinute = valuePerMinute;
+        }
+    }
+
+    private final int[] ticks = new int[CAPACITY];
+    private final int[] waves = new int[CAPACITY];
+    private final int[] itemIds = new int[CAPACITY];
+    private final int[] quantities = new int[CAPACITY];
+    private int head;
+    private int size;
+    private int startTick;
+    // Wave -> item ID -> quantity, over every row recorded since the last clear.
+    private final Map<Integer, ItemQuantityTable> quantitiesByWave = new TreeMap<>();
+
+    /** Clears the ledger for a run starting at {@code tick}. */
+    void start(int tick) {
+        clear();
+        startTick = tick;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+        quantitiesByWave.clear();
+    }
+
+    void record(int tick, int wave, int itemId, int quantity) {
+        int slot = (head + size) % CAPACITY;
+        if (size == CAPACITY) {
+            head = (head + 1) % CAPACITY;
+        } else {
+            size++;
+        }
+        ticks[slot] = tick - startTick;
+        waves[slot] = wave;
+        itemIds[slot] = itemId;
+        quantities[slot] = quantity;
+        quantitiesByWave.computeIfAbsent(wave, unused -> new ItemQuantityTable()).add(itemId, quantity);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Rows oldest first, {@link #FIELDS_PER_EVENT} ints each, for the per-run record. */
+    int[] toArray() {
+        int[] rows = new int[size * FIELDS_PER_EVENT];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % CAPACITY;
+            int offset = i * FIELDS_PER_EVENT;
+            rows[offset] = ticks[slot];
+            rows[offset + 1] = waves[slot];
+            rows[offset + 2] = itemIds[slot];
+            rows[offset + 3] = quantities[slot];
+        }
+        return rows;
+    }
+
+    /**
+     * Value used per wave at the current prices, and the value used per minute between the
+     * run start and {@code currentTick}.
+     */
+    Rates rates(int currentTick, IntUnaryOperator pricePerDose) {
+        Map<Integer, Long> valueByWave = new TreeMap<>();
+        long totalValue = 0;
+        for (Map.Entry<Integer, ItemQuantityTable> entry : quantitiesByWave.entrySet()) {
+            ItemQuantityTable waveQuantities = entry.getValue();
+            long value = 0;
+            for (int slot = 0; slot < waveQuantities.slotCount(); slot++) {
+                int itemId = waveQuantities.keyAt(slot);
+                if (itemId != 0) {
+                    value += (long) pricePerDose.applyAsInt(itemId) * waveQuantities.valueAt(slot);
+                }
+            }
+            valueByWave.put(entry.getKey(), value);
+            totalValue += value;
+        }
+        int elapsedTicks = currentTick - startTick;
+        long valuePerMinute = elapsedTicks > 0 ? totalValue * TICKS_PER_MINUTE / elapsedTicks : 0;
+        return new Rates(valueByWave, valuePerMinute);
+    }
+}
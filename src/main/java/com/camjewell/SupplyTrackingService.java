@@ -1,129 +1,123 @@
 package com.camjewell;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.IntSupplier;
 
 import org.slf4j.Logger;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonParseException;
 
 import net.runelite.api.Client;
 import net.runelite.api.Item;
 import net.runelite.api.ItemContainer;
-import net.runelite.api.Varbits;
 import net.runelite.client.config.ConfigManager;
-import net.runelite.client.game.ItemManager;
 
 class SupplyTrackingService {
     private static final int INVENTORY_CONTAINER_ID = 93;
     private static final int EQUIPMENT_CONTAINER_ID = 94;
 
-    private static final int BUFF_BAR_WEAPON = 3160;
-    private static final int BUFF_BAR_AMMO_TYPE = 3158;
-    private static final int BUFF_BAR_AMMO_AMOUNT = 3159;
-    private static final int DIZANAS_QUIVER_TEMP_AMMO = 4142;
-    private static final int DIZANAS_QUIVER_TEMP_AMMO_AMOUNT = 4141;
-
-    private static final String WEAPON_CHARGES_CONFIG_GROUP = "tictac7x-charges";
-    private static final Pattern DOSE_PATTERN = Pattern.compile("\\((\\d+)\\)$");
-
-    private static final int[] RUNE_POUCH_ITEM_IDS = new int[] {
-            0,
-            556, 555, 557, 554, 558, 562, 560, 565, 564,
-            561, 563, 559, 566, 9075,
-            4695, 4698, 4696, 4699, 4694, 4697,
-            21880, 28929, 30843
-    };
-
-    private static final class BlowpipeStorageEntry {
-        int itemId;
-        int quantity;
-    }
-
     private final Client client;
-    private final ItemManager itemManager;
-    private final ConfigManager configManager;
-    private final Gson gson;
+    private final ItemMetadataCache itemMetadata;
+    private final WeaponChargeCache weaponChargeCache;
+    private final RunePouchState runePouch = new RunePouchState();
     private final Logger log;
-    private final Map<Integer, Integer> lastCombinedSnapshot;
-    private final Map<Integer, Integer> lastWeaponAmmoSnapshot;
+    private final ItemQuantityTable lastCombinedSnapshot;
+    private final ItemQuantityTable lastWeaponAmmoSnapshot;
     private final Map<Integer, Integer> totalSuppliesConsumed;
+    private final SupplyLedger supplyLedger;
+    private final IntSupplier currentWave;
     private final Runnable onSuppliesChanged;
 
+    // Reused buffers: each snapshot is built into the "current" table and then swapped with
+    // the "last" one, so steady-state ticks do not allocate.
+    private final ItemQuantityTable currentCombined = new ItemQuantityTable();
+    private final ItemQuantityTable currentWeaponAmmo = new ItemQuantityTable();
+    private final ItemQuantityTable decreases = new ItemQuantityTable();
+    private final ItemQuantityTable increases = new ItemQuantityTable();
+    private final ItemQuantityTable doseNetLoss = new ItemQuantityTable();
+    private final ItemQuantityTable doseRepresentativeId = new ItemQuantityTable();
+    // Inventory/equipment changes waiting for flushContainerChanges().
+    private boolean containerChangePending;
+    private boolean pendingInConsumptionBounds;
+    private long pendingLastArenaExitTime;
+    // WeaponChargeCache version that lastWeaponAmmoSnapshot was read at.
+    private int lastWeaponAmmoVersion = -1;
+
     // When true, config-based weapon charges are excluded from per-tick snapshots.
     // WeaponChecklistOverlay owns charge tracking while active.
     private boolean weaponChecklistActive = false;
 
     SupplyTrackingService(
             Client client,
-            ItemManager itemManager,
+            ItemMetadataCache itemMetadata,
             ConfigManager configManager,
             Gson gson,
             Logger log,
-            Map<Integer, Integer> lastCombinedSnapshot,
-            Map<Integer, Integer> lastWeaponAmmoSnapshot,
+            ItemQuantityTable lastCombinedSnapshot,
+            ItemQuantityTable lastWeaponAmmoSnapshot,
             Map<Integer, Integer> totalSuppliesConsumed,
+            SupplyLedger supplyLedger,
+            IntSupplier currentWave,
             Runnable onSuppliesChanged) {
         this.client = client;
-        this.itemManager = itemManager;
-        this.configManager = configManager;
-        this.gson = gson;
+        this.itemMetadata = itemMetadata;
+        this.weaponChargeCache = new WeaponChargeCache(configManager, gson, log);
         this.log = log;
         this.lastCombinedSnapshot = lastCombinedSnapshot;
         this.lastWeaponAmmoSnapshot = lastWeaponAmmoSnapshot;
         this.totalSuppliesConsumed = totalSuppliesConsumed;
+        this.supplyLedger = supplyLedger;
+        this.currentWave = currentWave;
         this.onSuppliesChanged = onSuppliesChanged;
     }
 
     int initializeForArenaEntry() {
-        lastWeaponAmmoSnapshot.clear();
-        lastWeaponAmmoSnapshot.putAll(readWeaponAmmo());
-
-        lastCombinedSnapshot.clear();
-        lastCombinedSnapshot.putAll(buildCombinedSnapshot());
+        containerChangePending = false;
+        weaponChargeCache.reloadAll(client);
+        runePouch.reload(client);
+        weaponChargeCache.readWeaponAmmo(lastWeaponAmmoSnapshot);
+        lastWeaponAmmoVersion = weaponChargeCache.getVersion();
+        buildCombinedSnapshot(lastCombinedSnapshot);
 
         int ammoSum = 0;
-        for (int qty : lastWeaponAmmoSnapshot.values()) {
-            ammoSum += qty;
+        for (int slot = 0; slot < lastWeaponAmmoSnapshot.slotCount(); slot++) {
+            if (lastWeaponAmmoSnapshot.keyAt(slot) != 0) {
+                ammoSum += lastWeaponAmmoSnapshot.valueAt(slot);
+            }
         }
         return ammoSum;
     }
 
     void onGameTick(boolean isDead, boolean inConsumptionBounds, long lastArenaExitTime) {
+        // Ammo can only have gone down if a varp or charges config value changed.
+        int chargeVersion = weaponChargeCache.getVersion();
+        if (chargeVersion == lastWeaponAmmoVersion) {
+            return;
+        }
+        lastWeaponAmmoVersion = chargeVersion;
+
         // When checklist is active, use live-only ammo (BUFF_BAR varps) so arrows/bolts
         // are still tracked while stale config-based weapon data is excluded.
-        Map<Integer, Integer> currentWeaponAmmo = weaponChecklistActive
-                ? readLiveWeaponAmmo()
-                : readWeaponAmmo();
-        boolean hasWeaponAmmoConsumption = false;
-
-        for (Map.Entry<Integer, Integer> entry : lastWeaponAmmoSnapshot.entrySet()) {
-            int itemId = entry.getKey();
-            int previousQty = entry.getValue();
-            int currentQty = currentWeaponAmmo.getOrDefault(itemId, 0);
-            if (currentQty < previousQty) {
-                hasWeaponAmmoConsumption = true;
-                break;
-            }
-        }
+        readSnapshotWeaponAmmo(currentWeaponAmmo);
+        boolean hasWeaponAmmoConsumption = ItemQuantityTable.hasDecrease(lastWeaponAmmoSnapshot, currentWeaponAmmo);
 
         if (hasWeaponAmmoConsumption && !isDead && inConsumptionBounds) {
-            Map<Integer, Integer> currentCombined = buildCombinedSnapshot();
-            checkForConsumption(currentCombined, true, lastArenaExitTime);
+            buildCombinedSnapshot(currentCombined, currentWeaponAmmo);
+            checkForConsumption(true, lastArenaExitTime);
         }
 
-        lastWeaponAmmoSnapshot.clear();
-        lastWeaponAmmoSnapshot.putAll(currentWeaponAmmo);
+        lastWeaponAmmoSnapshot.swap(currentWeaponAmmo);
     }
 
     void setWeaponChecklistActive(boolean active) {
+        if (active) {
+            // Account for this tick's container changes before the snapshot is rebuilt.
+            flushContainerChanges(true);
+        }
         weaponChecklistActive = active;
         if (active) {
             // initializeForArenaEntry() ran before this flag was set, so it populated
@@ -131,37 +125,34 @@ class SupplyTrackingService {
             // data.
             // Rebuild with live-only data so the first onGameTick has a clean baseline.
             lastWeaponAmmoSnapshot.clear();
-            lastWeaponAmmoSnapshot.putAll(readLiveWeaponAmmo());
-            lastCombinedSnapshot.clear();
-            lastCombinedSnapshot.putAll(buildCombinedSnapshot());
+            weaponChargeCache.readLiveWeaponAmmo(lastWeaponAmmoSnapshot);
+            lastWeaponAmmoVersion = weaponChargeCache.getVersion();
+            buildCombinedSnapshot(lastCombinedSnapshot);
         }
     }
 
+    void onVarpChanged(int varpId, int value) {
+        weaponChargeCache.onVarpChanged(varpId, value);
+    }
+
+    void onVarbitChanged(int varbitId, int value) {
+        runePouch.onVarbitChanged(varbitId, value);
+    }
+
+    void onChargesConfigChanged(String key) {
+        weaponChargeCache.onConfigChanged(key);
+    }
+
 
     /**
      * Reads the current charge state for a single weapon from tictac7x config.
      * Used by the weapon checklist to capture a per-weapon snapshot at check time.
      */
     Map<Integer, Integer> readWeaponCharges(TrackedWeapon weapon) {
-        Map<Integer, Integer> map = new HashMap<>();
-        if (weapon.configFormat == TrackedWeapon.ConfigFormat.BLOWPIPE_JSON) {
-            tryReadBlowpipeJson(map, weapon);
-        } else {
-            int canonicalId = weapon.itemIds[0];
-            if (canonicalId <= 0)
-                return map;
-            String value = configManager.getConfiguration(WEAPON_CHARGES_CONFIG_GROUP, weapon.tictacConfigKey);
-            if (value == null || value.isEmpty())
-                return map;
-            try {
-                int charges = Integer.parseInt(value.trim());
-                if (charges > 0) {
-                    map.put(canonicalId, charges);
-                }
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        return map;
+        weaponChargeCache.reloadWeapon(weapon);
+        ItemQuantityTable charges = new ItemQuantityTable();
+        weaponChargeCache.readWeaponCharges(weapon, charges);
+        return charges.toMap();
     }
 
     /**
@@ -222,187 +213,82 @@ class SupplyTrackingService {
             return;
         }
 
-        if (!inConsumptionBounds) {
-            Map<Integer, Integer> currentCombined = buildCombinedSnapshot();
-            lastCombinedSnapshot.clear();
-            lastCombinedSnapshot.putAll(currentCombined);
-            return;
-        }
-
-        Map<Integer, Integer> currentCombined = buildCombinedSnapshot();
-        checkForConsumption(currentCombined, true, lastArenaExitTime);
+        // Several changes can arrive in one tick (gear switches, eating, drinking); they are
+        // reconciled together by flushContainerChanges(). The player's location, and so the
+        // consumption bounds, cannot change between events of the same tick.
+        containerChangePending = true;
+        pendingInConsumptionBounds = inConsumptionBounds;
+        pendingLastArenaExitTime = lastArenaExitTime;
     }
 
-    private Map<Integer, Integer> buildCombinedSnapshot() {
-        // When checklist is active, use live-only ammo so config-based weapon data is
-        // excluded.
-        Map<Integer, Integer> weaponAmmo = weaponChecklistActive
-                ? readLiveWeaponAmmo()
-                : readWeaponAmmo();
-        return buildCombinedSnapshot(weaponAmmo);
-    }
-
-    private Map<Integer, Integer> buildCombinedSnapshot(Map<Integer, Integer> weaponAmmo) {
-        Map<Integer, Integer> combined = new HashMap<>();
-
-        ItemContainer inventory = client.getItemContainer(INVENTORY_CONTAINER_ID);
-        if (inventory != null) {
-            for (Item item : inventory.getItems()) {
-                if (item != null && item.getId() > 0) {
-                    combined.merge(item.getId(), item.getQuantity(), (a, b) -> a + b);
-                }
-            }
-        }
-
-        ItemContainer equipment = client.getItemContainer(EQUIPMENT_CONTAINER_ID);
-        if (equipment != null) {
-            for (Item item : equipment.getItems()) {
-                if (item != null && item.getId() > 0) {
-                    combined.merge(item.getId(), item.getQuantity(), (a, b) -> a + b);
-                }
-            }
+    /**
+     * Takes one snapshot and one diff for all container changes since the last call.
+     * Called at the start of every game tick, before anything else can rebuild the
+     * snapshot.
+     */
+    void flushContainerChanges(boolean inMokhaArena) {
+        if (!containerChangePending) {
+            return;
         }
-
-        for (Map.Entry<Integer, Integer> entry : readRunePouch().entrySet()) {
-            combined.merge(entry.getKey(), entry.getValue(), (a, b) -> a + b);
+        containerChangePending = false;
+        if (!inMokhaArena) {
+            // The run ended after the changes were queued; its snapshot is already gone.
+            return;
         }
 
-        for (Map.Entry<Integer, Integer> entry : weaponAmmo.entrySet()) {
-            combined.merge(entry.getKey(), entry.getValue(), (a, b) -> a + b);
+        if (!pendingInConsumptionBounds) {
+            buildCombinedSnapshot(lastCombinedSnapshot);
+            return;
         }
 
-        return combined;
+        buildCombinedSnapshot(currentCombined);
+        checkForConsumption(true, pendingLastArenaExitTime);
     }
 
-    // Always accurate — updated by the server every tick without player
-    // interaction.
-    private Map<Integer, Integer> readLiveWeaponAmmo() {
-        Map<Integer, Integer> map = new HashMap<>();
-
-        int ammoType = client.getVarpValue(BUFF_BAR_AMMO_TYPE);
-        int ammoCount = client.getVarpValue(BUFF_BAR_AMMO_AMOUNT);
-        if (ammoType > 0 && ammoCount > 0) {
-            map.put(ammoType, ammoCount);
-        }
-
-        int quiverAmmoId = client.getVarpValue(DIZANAS_QUIVER_TEMP_AMMO);
-        int quiverAmmoCount = client.getVarpValue(DIZANAS_QUIVER_TEMP_AMMO_AMOUNT);
-        if (quiverAmmoId > 0 && quiverAmmoCount > 0) {
-            map.merge(quiverAmmoId, quiverAmmoCount, (a, b) -> a + b);
+    private void readSnapshotWeaponAmmo(ItemQuantityTable target) {
+        // When checklist is active, use live-only ammo so config-based weapon data is
+        // excluded.
+        if (weaponChecklistActive) {
+            target.clear();
+            weaponChargeCache.readLiveWeaponAmmo(target);
+        } else {
+            weaponChargeCache.readWeaponAmmo(target);
         }
+    }
 
-        return map;
+    private void buildCombinedSnapshot(ItemQuantityTable target) {
+        readSnapshotWeaponAmmo(currentWeaponAmmo);
+        buildCombinedSnapshot(target, currentWeaponAmmo);
     }
 
-    // Returns live ammo first (BUFF_BAR varps, updated every tick).
-    // If no live ammo, tries BLOWPIPE_JSON weapons (equipped one preferred).
-    // INTEGER-format weapon charges are always appended.
-    private Map<Integer, Integer> readWeaponAmmo() {
-        Map<Integer, Integer> map = readLiveWeaponAmmo();
-        if (!map.isEmpty()) {
-            readIntegerFormatCharges(map);
-            return map;
-        }
+    private void buildCombinedSnapshot(ItemQuantityTable target, ItemQuantityTable weaponAmmo) {
+        target.clear();
 
-        // Find which BLOWPIPE_JSON weapon is currently equipped (if any)
-        int equippedWeaponId = client.getVarpValue(BUFF_BAR_WEAPON);
-        TrackedWeapon preferredBlowpipe = null;
-        for (TrackedWeapon w : TrackedWeapon.values()) {
-            if (w.configFormat != TrackedWeapon.ConfigFormat.BLOWPIPE_JSON)
-                continue;
-            for (int id : w.itemIds) {
-                if (id == equippedWeaponId) {
-                    preferredBlowpipe = w;
-                    break;
-                }
-            }
-            if (preferredBlowpipe != null)
-                break;
-        }
+        addContainerItems(target, client.getItemContainer(INVENTORY_CONTAINER_ID));
+        addContainerItems(target, client.getItemContainer(EQUIPMENT_CONTAINER_ID));
+        runePouch.addContents(target);
 
-        // Try equipped blowpipe first, then all others in declaration order
-        boolean found = preferredBlowpipe != null && tryReadBlowpipeJson(map, preferredBlowpipe);
-        if (!found) {
-            for (TrackedWeapon w : TrackedWeapon.values()) {
-                if (w.configFormat != TrackedWeapon.ConfigFormat.BLOWPIPE_JSON)
-                    continue;
-                if (w == preferredBlowpipe)
-                    continue;
-                if (tryReadBlowpipeJson(map, w))
-                    break;
+        for (int slot = 0; slot < weaponAmmo.slotCount(); slot++) {
+            int itemId = weaponAmmo.keyAt(slot);
+            if (itemId != 0) {
+                target.add(itemId, weaponAmmo.valueAt(slot));
             }
         }
-
-        readIntegerFormatCharges(map);
-        return map;
     }
 
-    private boolean tryReadBlowpipeJson(Map<Integer, Integer> map, TrackedWeapon weapon) {
-        String serialized = configManager.getConfiguration(WEAPON_CHARGES_CONFIG_GROUP, weapon.tictacConfigKey);
-        if (serialized == null || serialized.isEmpty())
-            return false;
-        log.debug("[Mokha] {} storage raw config: {}", weapon.displayName, serialized);
-        try {
-            BlowpipeStorageEntry[] entries = gson.fromJson(serialized, BlowpipeStorageEntry[].class);
-            boolean hadEntries = false;
-            if (entries != null) {
-                for (BlowpipeStorageEntry entry : entries) {
-                    if (entry != null && entry.itemId > 0 && entry.quantity > 0) {
-                        map.merge(entry.itemId, entry.quantity, (a, b) -> a + b);
-                        hadEntries = true;
-                    }
-                }
-            }
-            return hadEntries;
-        } catch (JsonParseException ex) {
-            return false;
+    private static void addContainerItems(ItemQuantityTable target, ItemContainer container) {
+        if (container == null) {
+            return;
         }
-    }
-
-    private void readIntegerFormatCharges(Map<Integer, Integer> map) {
-        for (TrackedWeapon weapon : TrackedWeapon.values()) {
-            if (weapon.configFormat != TrackedWeapon.ConfigFormat.INTEGER)
-                continue;
-            int canonicalId = weapon.itemIds[0];
-            if (canonicalId <= 0)
-                continue;
-            String value = configManager.getConfiguration(WEAPON_CHARGES_CONFIG_GROUP, weapon.tictacConfigKey);
-            if (value == null || value.isEmpty())
-                continue;
-            try {
-                int charges = Integer.parseInt(value.trim());
-                if (charges > 0) {
-                    map.merge(canonicalId, charges, (a, b) -> a + b);
-                }
-            } catch (NumberFormatException ignored) {
+        for (Item item : container.getItems()) {
+            if (item != null && item.getId() > 0) {
+                target.add(item.getId(), item.getQuantity());
             }
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private Map<Integer, Integer> readRunePouch() {
-        Map<Integer, Integer> map = new HashMap<>();
-        int[] runeVarbits = new int[] { Varbits.RUNE_POUCH_RUNE1, Varbits.RUNE_POUCH_RUNE2, Varbits.RUNE_POUCH_RUNE3,
-                Varbits.RUNE_POUCH_RUNE4, Varbits.RUNE_POUCH_RUNE5, Varbits.RUNE_POUCH_RUNE6 };
-        int[] amtVarbits = new int[] { Varbits.RUNE_POUCH_AMOUNT1, Varbits.RUNE_POUCH_AMOUNT2,
-                Varbits.RUNE_POUCH_AMOUNT3, Varbits.RUNE_POUCH_AMOUNT4, Varbits.RUNE_POUCH_AMOUNT5,
-                Varbits.RUNE_POUCH_AMOUNT6 };
-
-        for (int i = 0; i < runeVarbits.length; i++) {
-            int runeVar = client.getVarbitValue(runeVarbits[i]);
-            int amt = client.getVarbitValue(amtVarbits[i]);
-            if (runeVar <= 0 || amt <= 0 || runeVar >= RUNE_POUCH_ITEM_IDS.length)
-                continue;
-            int itemId = RUNE_POUCH_ITEM_IDS[runeVar];
-            if (itemId <= 0)
-                continue;
-            map.merge(itemId, amt, (a, b) -> a + b);
-        }
-        return map;
-    }
-
-    private void checkForConsumption(Map<Integer, Integer> currentCombined, boolean inMokhaArena,
-            long lastArenaExitTime) {
+    // Diffs currentCombined against lastCombinedSnapshot, then makes it the last snapshot.
+    private void checkForConsumption(boolean inMokhaArena, long lastArenaExitTime) {
         if (!inMokhaArena) {
             log.error(
                     "[Mokha] CRITICAL: checkForConsumption called outside arena! inMokhaArena={}, Snapshot size={}, Time since exit: {}ms",
@@ -411,25 +297,15 @@ class SupplyTrackingService {
             return;
         }
 
+        // Collect raw per-item decreases and increases.
+        decreases.clear();
+        increases.clear();
         if (!lastCombinedSnapshot.isEmpty()) {
-            // Collect raw per-item decreases and increases.
-            Map<Integer, Integer> decreases = new HashMap<>();
-            Map<Integer, Integer> increases = new HashMap<>();
-
-            for (Map.Entry<Integer, Integer> entry : lastCombinedSnapshot.entrySet()) {
-                int itemId = entry.getKey();
-                int prev = entry.getValue();
-                int curr = currentCombined.getOrDefault(itemId, 0);
-                if (curr < prev)
-                    decreases.put(itemId, prev - curr);
-            }
-            for (Map.Entry<Integer, Integer> entry : currentCombined.entrySet()) {
-                int itemId = entry.getKey();
-                int curr = entry.getValue();
-                int prev = lastCombinedSnapshot.getOrDefault(itemId, 0);
-                if (curr > prev)
-                    increases.put(itemId, curr - prev);
-            }
+            ItemQuantityTable.diff(lastCombinedSnapshot, currentCombined, decreases, increases);
+        }
+
+        // Nothing went down (e.g. gear switches, loot pickups): no dose bookkeeping needed.
+        if (!decreases.isEmpty()) {
 
             // For dose-based items (e.g. "Prayer potion(3)"), compute net dose change
             // per base name across all dose variants. This prevents potion combining —
@@ -439,54 +315,57 @@ class SupplyTrackingService {
             // Net doses consumed = doses that disappeared − doses that appeared (same base
             // name).
             // Only positive net values (actual losses) are recorded.
-            Map<String, Integer> doseNetLoss = new HashMap<>(); // baseName → net doses consumed
-            Map<String, Integer> doseRepresentativeId = new HashMap<>(); // baseName → item ID to record under
-            Set<Integer> handledAsDose = new HashSet<>();
-
-            for (Map.Entry<Integer, Integer> entry : decreases.entrySet()) {
-                int itemId = entry.getKey();
-                String name = itemManager.getItemComposition(itemId).getName();
-                Matcher m = DOSE_PATTERN.matcher(name);
-                if (!m.find())
+            // Both tables below are keyed by ItemMetadataCache base ID.
+            doseNetLoss.clear();
+            doseRepresentativeId.clear();
+
+            for (int slot = 0; slot < decreases.slotCount(); slot++) {
+                int itemId = decreases.keyAt(slot);
+                if (itemId == 0)
                     continue;
-                int dose = Integer.parseInt(m.group(1));
-                String baseName = name.substring(0, m.start()).trim();
-                doseNetLoss.merge(baseName, dose * entry.getValue(), (a, b) -> a + b);
-                doseRepresentativeId.putIfAbsent(baseName, itemId);
-                handledAsDose.add(itemId);
+                int dose = itemMetadata.getDose(itemId);
+                if (dose == 0)
+                    continue;
+                int baseId = itemMetadata.getBaseId(itemId);
+                doseNetLoss.add(baseId, dose * decreases.valueAt(slot));
+                if (doseRepresentativeId.get(baseId) == 0) {
+                    doseRepresentativeId.add(baseId, itemId);
+                }
             }
 
             // Subtract doses that appeared in the same base potion (they were not
             // consumed).
-            for (Map.Entry<Integer, Integer> entry : increases.entrySet()) {
-                int itemId = entry.getKey();
-                String name = itemManager.getItemComposition(itemId).getName();
-                Matcher m = DOSE_PATTERN.matcher(name);
-                if (!m.find())
+            for (int slot = 0; slot < increases.slotCount(); slot++) {
+                int itemId = increases.keyAt(slot);
+                if (itemId == 0)
+                    continue;
+                int dose = itemMetadata.getDose(itemId);
+                if (dose == 0)
                     continue;
-                int dose = Integer.parseInt(m.group(1));
-                String baseName = name.substring(0, m.start()).trim();
-                if (doseNetLoss.containsKey(baseName)) {
-                    doseNetLoss.merge(baseName, -dose * entry.getValue(), (a, b) -> a + b);
+                int baseId = itemMetadata.getBaseId(itemId);
+                if (doseRepresentativeId.get(baseId) != 0) {
+                    doseNetLoss.add(baseId, -dose * increases.valueAt(slot));
                 }
             }
 
             boolean hasConsumption = false;
 
             // Record net dose losses for dose-based items.
-            for (Map.Entry<String, Integer> entry : doseNetLoss.entrySet()) {
-                int netDoses = entry.getValue();
-                if (netDoses > 0) {
-                    int repId = doseRepresentativeId.get(entry.getKey());
-                    totalSuppliesConsumed.merge(repId, netDoses, (a, b) -> a + b);
+            for (int slot = 0; slot < doseNetLoss.slotCount(); slot++) {
+                int baseId = doseNetLoss.keyAt(slot);
+                int netDoses = doseNetLoss.valueAt(slot);
+                if (baseId != 0 && netDoses > 0) {
+                    int repId = doseRepresentativeId.get(baseId);
+                    recordConsumption(repId, netDoses);
                     hasConsumption = true;
                 }
             }
 
             // Record raw decreases for non-dose items (runes, arrows, food, etc.).
-            for (Map.Entry<Integer, Integer> entry : decreases.entrySet()) {
-                if (!handledAsDose.contains(entry.getKey())) {
-                    totalSuppliesConsumed.merge(entry.getKey(), entry.getValue(), (a, b) -> a + b);
+            for (int slot = 0; slot < decreases.slotCount(); slot++) {
+                int itemId = decreases.keyAt(slot);
+                if (itemId != 0 && itemMetadata.getDose(itemId) == 0) {
+                    recordConsumption(itemId, decreases.valueAt(slot));
                     hasConsumption = true;
                 }
             }
@@ -496,7 +375,11 @@ class SupplyTrackingService {
             }
         }
 
-        lastCombinedSnapshot.clear();
-        lastCombinedSnapshot.putAll(currentCombined);
+        lastCombinedSnapshot.swap(currentCombined);
+    }
+
+    private void recordConsumption(int itemId, int quantity) {
+        totalSuppliesConsumed.merge(itemId, quantity, (a, b) -> a + b);
+        supplyLedger.record(client.getTickCount(), currentWave.getAsInt(), itemId, quantity);
     }
 }
@@ -1,11 +1,51 @@
 package com.camjewell;
 
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Loot value calculations. Also keeps the historical claimed, unclaimed and supply totals
+ * up to date incrementally: callers report each aggregate they add to, change or remove,
+ * and only a price refresh or a value setting change walks every aggregate again.
+ * Historical loot is also totalled at the prices it had when dropped, next to its value at
+ * current prices.
+ */
 class ValueCalculationService {
     private static final int ULTRA_VALUABLE_THRESHOLD = 20_000_000;
 
+    /** Running sum of the contributions of a set of aggregates. */
+    private static final class TrackedTotal {
+        private final Map<ItemAggregate, Long> contributions = new IdentityHashMap<>();
+        private long total;
+
+        void update(ItemAggregate item, long contribution) {
+            Long previous = contributions.put(item, contribution);
+            total += contribution - (previous != null ? previous : 0L);
+        }
+
+        void remove(ItemAggregate item) {
+            Long previous = contributions.remove(item);
+            if (previous != null) {
+                total -= previous;
+            }
+        }
+
+        void clear() {
+            contributions.clear();
+            total = 0;
+        }
+    }
+
+    private final TrackedTotal historicalClaimed = new TrackedTotal();
+    private final TrackedTotal historicalUnclaimed = new TrackedTotal();
+    private final TrackedTotal historicalClaimedAtDrop = new TrackedTotal();
+    private final TrackedTotal historicalUnclaimedAtDrop = new TrackedTotal();
+    private final TrackedTotal historicalSupplies = new TrackedTotal();
+    // Settings the tracked totals were computed with.
+    private boolean trackedIgnoreSpiritSeeds;
+    private boolean trackedExcludeUltra;
+
     long calculateUnadjustedCurrentRunLootValue(Map<Integer, List<LootItem>> lootByWave) {
         long total = 0;
         for (List<LootItem> items : lootByWave.values()) {
@@ -48,57 +88,151 @@ class ValueCalculationService {
         return config.ignoreSpiritSeedsValue() && itemName.equals("Spirit seed");
     }
 
-    void applyIgnoreSettingsToHistoricalItems(
-            Map<Integer, Map<String, ItemAggregate>> historicalItems,
+    /**
+     * Recomputes all tracked historical totals from scratch, applying the current ignore
+     * settings to every aggregate. Needed after loading data, refreshing prices or changing
+     * a value setting.
+     */
+    void rebuildHistoricalTotals(
+            Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave,
+            Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave,
+            Map<String, ItemAggregate> historicalSuppliesUsed,
             MokhaLootTrackerConfig config) {
-        for (Map<String, ItemAggregate> waveItems : historicalItems.values()) {
+        trackedIgnoreSpiritSeeds = config.ignoreSpiritSeedsValue();
+        trackedExcludeUltra = config.excludeUltraValuableItems();
+
+        historicalClaimed.clear();
+        historicalClaimedAtDrop.clear();
+        for (Map<String, ItemAggregate> waveItems : historicalClaimedItemsByWave.values()) {
             for (ItemAggregate item : waveItems.values()) {
-                if (item.name.equals("Spirit seed")) {
-                    item.totalValue = config.ignoreSpiritSeedsValue() ? 0 : 140000L * item.totalQuantity;
-                }
+                claimedItemChanged(item);
             }
         }
-    }
 
-    long recalculateHistoricalTotalClaimed(
-            Map<Integer, Map<String, ItemAggregate>> historicalClaimedItemsByWave,
-            MokhaLootTrackerConfig config) {
-        long total = 0;
-        boolean excludeUltra = config.excludeUltraValuableItems();
-
-        for (Map<String, ItemAggregate> waveItems : historicalClaimedItemsByWave.values()) {
+        historicalUnclaimed.clear();
+        historicalUnclaimedAtDrop.clear();
+        for (Map<String, ItemAggregate> waveItems : historicalUnclaimedItemsByWave.values()) {
             for (ItemAggregate item : waveItems.values()) {
-                if (excludeUltra && item.pricePerItem > ULTRA_VALUABLE_THRESHOLD) {
-                    continue;
-                }
-                total += item.totalValue;
+                unclaimedItemChanged(item);
             }
         }
 
-        return total;
+        historicalSupplies.clear();
+        for (ItemAggregate item : historicalSuppliesUsed.values()) {
+            supplyChanged(item);
+        }
+    }
+
+    /** Whether value settings changed since the tracked totals were last rebuilt. */
+    boolean historicalTotalsNeedRebuild(MokhaLootTrackerConfig config) {
+        return trackedIgnoreSpiritSeeds != config.ignoreSpiritSeedsValue()
+                || trackedExcludeUltra != config.excludeUltraValuableItems();
+    }
+
+    void claimedItemChanged(ItemAggregate item) {
+        applyIgnoreSettings(item);
+        historicalClaimed.update(item, countedLootValue(item));
+        historicalClaimedAtDrop.update(item, countedValueAtDrop(item));
+    }
+
+    void unclaimedItemChanged(ItemAggregate item) {
+        applyIgnoreSettings(item);
+        historicalUnclaimed.update(item, countedLootValue(item));
+        historicalUnclaimedAtDrop.update(item, countedValueAtDrop(item));
+    }
+
+    void supplyChanged(ItemAggregate item) {
+        historicalSupplies.update(item, item.totalValue);
+    }
+
+    void claimedItemRemoved(ItemAggregate item) {
+        historicalClaimed.remove(item);
+        historicalClaimedAtDrop.remove(item);
+    }
+
+    void unclaimedItemRemoved(ItemAggregate item) {
+        historicalUnclaimed.remove(item);
+        historicalUnclaimedAtDrop.remove(item);
+    }
+
+    void supplyRemoved(ItemAggregate item) {
+        historicalSupplies.remove(item);
+    }
+
+    void clearHistoricalClaimed() {
+        historicalClaimed.clear();
+        historicalClaimedAtDrop.clear();
+    }
+
+    void clearHistoricalUnclaimed() {
+        historicalUnclaimed.clear();
+        historicalUnclaimedAtDrop.clear();
+    }
+
+    void clearHistoricalSupplies() {
+        historicalSupplies.clear();
+    }
+
+    /** Claimed total with ignore settings applied and, if configured, ultra valuables excluded. */
+    long getHistoricalTotalClaimed() {
+        return historicalClaimed.total;
+    }
+
+    long getHistoricalSupplyCost() {
+        return historicalSupplies.total;
+    }
+
+    /**
+     * Historical claimed loot with each drop at the price it had when received, with the
+     * same ignore and ultra valuable settings as {@link #getHistoricalTotalClaimed()}.
+     */
+    long getHistoricalClaimedValueAtDrop() {
+        return historicalClaimedAtDrop.total;
+    }
+
+    /** Like {@link #getHistoricalClaimedValueAtDrop()} for unclaimed loot. */
+    long getHistoricalUnclaimedValueAtDrop() {
+        return historicalUnclaimedAtDrop.total;
+    }
+
+    private void applyIgnoreSettings(ItemAggregate item) {
+        if (item.name.equals("Spirit seed")) {
+            item.totalValue = trackedIgnoreSpiritSeeds ? 0 : 140000L * item.totalQuantity;
+        }
+    }
+
+    private long countedLootValue(ItemAggregate item) {
+        if (trackedExcludeUltra && item.pricePerItem > ULTRA_VALUABLE_THRESHOLD) {
+            return 0;
+        }
+        return item.totalValue;
+    }
+
+    private long countedValueAtDrop(ItemAggregate item) {
+        if (item.priceTimeline == null || isExcludedFromValueAtDrop(item)) {
+            return countedLootValue(item);
+        }
+        return item.priceTimeline.getValueAtDrop();
+    }
+
+    // Ignored and ultra valuable items count as they do at current prices; spirit seeds
+    // are valued at a fixed price anyway.
+    private boolean isExcludedFromValueAtDrop(ItemAggregate item) {
+        return item.name.equals("Spirit seed")
+                || (trackedExcludeUltra && item.pricePerItem > ULTRA_VALUABLE_THRESHOLD);
     }
 
     long calculateTotalUnclaimed(
-            Map<Integer, Map<String, ItemAggregate>> historicalUnclaimedItemsByWave,
             Map<Integer, Long> historicalUnclaimedByWave,
             MokhaLootTrackerConfig config) {
-        long totalUnclaimed = 0;
-
         if (config.excludeUltraValuableItems()) {
-            for (Map<String, ItemAggregate> waveItems : historicalUnclaimedItemsByWave
-                    .values()) {
-                for (ItemAggregate item : waveItems.values()) {
-                    if (item.pricePerItem <= ULTRA_VALUABLE_THRESHOLD) {
-                        totalUnclaimed += item.totalValue;
-                    }
-                }
-            }
-        } else {
-            for (Long waveValue : historicalUnclaimedByWave.values()) {
-                totalUnclaimed += waveValue;
-            }
+            return historicalUnclaimed.total;
         }
 
+        long totalUnclaimed = 0;
+        for (Long waveValue : historicalUnclaimedByWave.values()) {
+            totalUnclaimed += waveValue;
+        }
         return totalUnclaimed;
     }
 
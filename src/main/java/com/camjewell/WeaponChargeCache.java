@@ -0,0 +1,223 @@
+package com.camjewell;
+
+import org.slf4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import net.runelite.api.Client;
+import net.runelite.client.config.ConfigManager;
+
+/**
+ * Weapon ammo and charges as last reported by the ammo varps and the tictac7x charges
+ * config. Values are only re-read when a varp or config change event names them, so
+ * reading the current ammo never parses config strings, and an unchanged
+ * {@link #getVersion()} means nothing has changed since the last read.
+ */
+final class WeaponChargeCache {
+    static final String CONFIG_GROUP = "tictac7x-charges";
+
+    private static final int BUFF_BAR_WEAPON = 3160;
+    private static final int BUFF_BAR_AMMO_TYPE = 3158;
+    private static final int BUFF_BAR_AMMO_AMOUNT = 3159;
+    private static final int DIZANAS_QUIVER_TEMP_AMMO = 4142;
+    private static final int DIZANAS_QUIVER_TEMP_AMMO_AMOUNT = 4141;
+
+    private static final TrackedWeapon[] WEAPONS = TrackedWeapon.values();
+
+    private static final class BlowpipeStorageEntry {
+        int itemId;
+        int quantity;
+    }
+
+    private final ConfigManager configManager;
+    private final Gson gson;
+    private final Logger log;
+
+    // Indexed by TrackedWeapon ordinal: blowpipe storage for BLOWPIPE_JSON weapons,
+    // charge count for INTEGER weapons.
+    private final ItemQuantityTable[] blowpipeStorage = new ItemQuantityTable[WEAPONS.length];
+    private final int[] integerCharges = new int[WEAPONS.length];
+
+    private int equippedWeaponId;
+    private int ammoType;
+    private int ammoCount;
+    private int quiverAmmoId;
+    private int quiverAmmoCount;
+    private int version;
+
+    WeaponChargeCache(ConfigManager configManager, Gson gson, Logger log) {
+        this.configManager = configManager;
+        this.gson = gson;
+        this.log = log;
+        for (TrackedWeapon weapon : WEAPONS) {
+            if (weapon.configFormat == TrackedWeapon.ConfigFormat.BLOWPIPE_JSON) {
+                blowpipeStorage[weapon.ordinal()] = new ItemQuantityTable();
+            }
+        }
+    }
+
+    /** Changes whenever any cached value changes. */
+    int getVersion() {
+        return version;
+    }
+
+    /** Re-reads every varp and config value, e.g. when a run starts. */
+    void reloadAll(Client client) {
+        equippedWeaponId = client.getVarpValue(BUFF_BAR_WEAPON);
+        ammoType = client.getVarpValue(BUFF_BAR_AMMO_TYPE);
+        ammoCount = client.getVarpValue(BUFF_BAR_AMMO_AMOUNT);
+        quiverAmmoId = client.getVarpValue(DIZANAS_QUIVER_TEMP_AMMO);
+        quiverAmmoCount = client.getVarpValue(DIZANAS_QUIVER_TEMP_AMMO_AMOUNT);
+        for (TrackedWeapon weapon : WEAPONS) {
+            loadWeapon(weapon);
+        }
+        version++;
+    }
+
+    void onVarpChanged(int varpId, int value) {
+        switch (varpId) {
+            case BUFF_BAR_WEAPON:
+                equippedWeaponId = value;
+                break;
+            case BUFF_BAR_AMMO_TYPE:
+                ammoType = value;
+                break;
+            case BUFF_BAR_AMMO_AMOUNT:
+                ammoCount = value;
+                break;
+            case DIZANAS_QUIVER_TEMP_AMMO:
+                quiverAmmoId = value;
+                break;
+            case DIZANAS_QUIVER_TEMP_AMMO_AMOUNT:
+                quiverAmmoCount = value;
+                break;
+            default:
+                return;
+        }
+        version++;
+    }
+
+    /** Re-reads the config value of the weapon stored under {@code key}, if any. */
+    void onConfigChanged(String key) {
+        TrackedWeapon weapon = TrackedWeapon.fromConfigKey(key);
+        if (weapon != null) {
+            reloadWeapon(weapon);
+        }
+    }
+
+    void reloadWeapon(TrackedWeapon weapon) {
+        loadWeapon(weapon);
+        version++;
+    }
+
+    /** Adds the charges of a single weapon, keyed by dart/scale or canonical item ID. */
+    void readWeaponCharges(TrackedWeapon weapon, ItemQuantityTable target) {
+        if (weapon.configFormat == TrackedWeapon.ConfigFormat.BLOWPIPE_JSON) {
+            addAll(target, blowpipeStorage[weapon.ordinal()]);
+        } else if (integerCharges[weapon.ordinal()] > 0) {
+            target.add(weapon.itemIds[0], integerCharges[weapon.ordinal()]);
+        }
+    }
+
+    // Always accurate — updated by the server every tick without player
+    // interaction.
+    void readLiveWeaponAmmo(ItemQuantityTable target) {
+        if (ammoType > 0 && ammoCount > 0) {
+            target.add(ammoType, ammoCount);
+        }
+        if (quiverAmmoId > 0 && quiverAmmoCount > 0) {
+            target.add(quiverAmmoId, quiverAmmoCount);
+        }
+    }
+
+    // Reads live ammo first (BUFF_BAR varps, updated every tick).
+    // If no live ammo, uses BLOWPIPE_JSON weapon storage (equipped one preferred).
+    // INTEGER-format weapon charges are always appended.
+    void readWeaponAmmo(ItemQuantityTable target) {
+        target.clear();
+        readLiveWeaponAmmo(target);
+        if (target.isEmpty()) {
+            readBlowpipeAmmo(target);
+        }
+        for (TrackedWeapon weapon : WEAPONS) {
+            if (weapon.configFormat == TrackedWeapon.ConfigFormat.INTEGER) {
+                readWeaponCharges(weapon, target);
+            }
+        }
+    }
+
+    private void readBlowpipeAmmo(ItemQuantityTable target) {
+        // Find which BLOWPIPE_JSON weapon is currently equipped (if any)
+        TrackedWeapon preferredBlowpipe = null;
+        for (TrackedWeapon w : WEAPONS) {
+            if (w.configFormat != TrackedWeapon.ConfigFormat.BLOWPIPE_JSON)
+                continue;
+            for (int id : w.itemIds) {
+                if (id == equippedWeaponId) {
+                    preferredBlowpipe = w;
+                    break;
+                }
+            }
+            if (preferredBlowpipe != null)
+                break;
+        }
+
+        // Try equipped blowpipe first, then all others in declaration order
+        if (preferredBlowpipe != null && !blowpipeStorage[preferredBlowpipe.ordinal()].isEmpty()) {
+            addAll(target, blowpipeStorage[preferredBlowpipe.ordinal()]);
+            return;
+        }
+        for (TrackedWeapon w : WEAPONS) {
+            if (w.configFormat != TrackedWeapon.ConfigFormat.BLOWPIPE_JSON || w == preferredBlowpipe)
+                continue;
+            if (!blowpipeStorage[w.ordinal()].isEmpty()) {
+                addAll(target, blowpipeStorage[w.ordinal()]);
+                return;
+            }
+        }
+    }
+
+    private void loadWeapon(TrackedWeapon weapon) {
+        String value = configManager.getConfiguration(CONFIG_GROUP, weapon.tictacConfigKey);
+        if (weapon.configFormat == TrackedWeapon.ConfigFormat.BLOWPIPE_JSON) {
+            ItemQuantityTable storage = blowpipeStorage[weapon.ordinal()];
+            storage.clear();
+            if (value == null || value.isEmpty())
+                return;
+            log.debug("[Mokha] {} storage raw config: {}", weapon.displayName, value);
+            try {
+                BlowpipeStorageEntry[] entries = gson.fromJson(value, BlowpipeStorageEntry[].class);
+                if (entries != null) {
+                    for (BlowpipeStorageEntry entry : entries) {
+                        if (entry != null && entry.itemId > 0 && entry.quantity > 0) {
+                            storage.add(entry.itemId, entry.quantity);
+                        }
+                    }
+                }
+            } catch (JsonParseException ex) {
+                storage.clear();
+            }
+        } else {
+            integerCharges[weapon.ordinal()] = 0;
+            if (weapon.itemIds[0] <= 0 || value == null || value.isEmpty())
+                return;
+            try {
+                int charges = Integer.parseInt(value.trim());
+                if (charges > 0) {
+                    integerCharges[weapon.ordinal()] = charges;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    private static void addAll(ItemQuantityTable target, ItemQuantityTable source) {
+        for (int slot = 0; slot < source.slotCount(); slot++) {
+            int itemId = source.keyAt(slot);
+            if (itemId != 0) {
+                target.add(itemId, source.valueAt(slot));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.camjewell;
+
+import java.util.Arrays;
+
+/**
+ * Compares a full scoreboard scan with a parse that reads only the cached cells, on a tree
+ * padded with decorative widgets the way the real interface is. Run by hand:
+ * {@code main([filler widgets], [iterations])}.
+ */
+public class DomScoreboardParserBenchmark {
+    public static void main(String[] args) {
+        int filler = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        DomScoreboardParserTest.Scoreboard board = new DomScoreboardParserTest.Scoreboard(0x02F0_0001,
+                120, 96, 80, 71, 60, 52, 44, 31, 1_250);
+        DomScoreboardParserTest.FakeWidget[] decoration = new DomScoreboardParserTest.FakeWidget[filler];
+        for (int i = 0; i < filler; i++) {
+            decoration[i] = new DomScoreboardParserTest.FakeWidget(1_000 + i, i % 3 == 0 ? "" : "Tier " + i);
+        }
+        board.root.children = decoration;
+
+        long fullNanos = median(iterations, () -> new DomScoreboardParser().parse(board.root.widget()).size());
+        DomScoreboardParser cached = new DomScoreboardParser();
+        cached.parse(board.root.widget());
+        long cachedNanos = median(iterations, () -> cached.parse(board.root.widget()).size());
+
+        System.out.printf("%d filler widgets: full scan %.1f us, cached cells %.1f us (%.1fx faster), cache used: %b%n",
+                filler, fullNanos / 1_000.0, cachedNanos / 1_000.0, (double) fullNanos / cachedNanos,
+                cached.hasCachedCells());
+    }
+
+    private interface Parse {
+        int run();
+    }
+
+    private static long median(int iterations, Parse parse) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += parse.run();
+        }
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink += parse.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (sink == 0) {
+            throw new IllegalStateException("Nothing was parsed");
+        }
+        Arrays.sort(nanos);
+        return nanos[iterations / 2];
+    }
+}
@@ -0,0 +1,308 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.runelite.api.widgets.Widget;
+
+public class DomScoreboardParserTest {
+    private static final int ROOT_ID = 0x02F0_0001;
+
+    @Test
+    public void parsesLevelAndCountCells() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 1_234, 0, 3, 5, 2, 1, 40);
+        DomScoreboardParser parser = new DomScoreboardParser();
+
+        assertEquals(board.expected(), parser.parse(board.root.widget()));
+        assertTrue(parser.hasCachedCells());
+    }
+
+    @Test
+    public void multiDigitCountIsNotReadAsAWave() {
+        // "57" once matched the compact "wave count" format as wave 5 with 7 completions.
+        Scoreboard board = new Scoreboard(ROOT_ID, 1, 1, 1, 1, 2, 1, 1, 1, 57);
+
+        Map<Integer, Long> parsed = new DomScoreboardParser().parse(board.root.widget());
+
+        assertEquals(Long.valueOf(2), parsed.get(5));
+        assertEquals(Long.valueOf(57), parsed.get(9));
+    }
+
+    @Test
+    public void secondParseReadsOnlyTheCachedCells() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5, 4, 3, 2, 1, 1, 0);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+        int headerReads = board.header.textReads;
+
+        board.setCount(3, 6);
+        board.setCount(9, 2_500);
+
+        assertEquals(board.expected(), parser.parse(board.root.widget()));
+        assertEquals("header is only read by a full scan", headerReads, board.header.textReads);
+    }
+
+    @Test
+    public void addedRowFallsBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+        int headerReads = board.header.textReads;
+
+        board.addRow(4, 9);
+
+        assertEquals(board.expected(), parser.parse(board.root.widget()));
+        assertTrue(board.header.textReads > headerReads);
+        assertEquals(Long.valueOf(9), parser.parse(board.root.widget()).get(4));
+    }
+
+    @Test
+    public void removedRowFallsBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5, 4);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+
+        board.removeLastRow();
+
+        Map<Integer, Long> parsed = parser.parse(board.root.widget());
+        assertEquals(board.expected(), parsed);
+        assertFalse(parsed.containsKey(4));
+    }
+
+    @Test
+    public void hiddenRowFallsBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+
+        board.rows[1].hidden = true;
+
+        Map<Integer, Long> parsed = parser.parse(board.root.widget());
+        assertFalse(parsed.containsKey(2));
+        assertEquals(Long.valueOf(12), parsed.get(1));
+        assertEquals(Long.valueOf(5), parsed.get(3));
+    }
+
+    @Test
+    public void missingCellFallsBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+
+        board.rows[2].staticChildren = new FakeWidget[] { board.rows[2].staticChildren[0], null };
+
+        Map<Integer, Long> parsed = parser.parse(board.root.widget());
+        assertFalse(parsed.containsKey(3));
+        assertEquals(Long.valueOf(7), parsed.get(2));
+    }
+
+    @Test
+    public void reorderedRowsFallBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+        int headerReads = board.header.textReads;
+
+        // Same shape, but the cell that held "Level 1" now says "Level 2".
+        FakeWidget first = board.rows[0];
+        board.rows[0] = board.rows[1];
+        board.rows[1] = first;
+        board.root.staticChildren = board.rowWidgets();
+
+        assertEquals(board.expected(), parser.parse(board.root.widget()));
+        assertTrue(board.header.textReads > headerReads);
+    }
+
+    @Test
+    public void unreadableCountFallsBackToFullScan() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+
+        board.rows[2].staticChildren[1].text = "-";
+
+        Map<Integer, Long> parsed = parser.parse(board.root.widget());
+        assertFalse(parsed.containsKey(3));
+        assertEquals(Long.valueOf(7), parsed.get(2));
+    }
+
+    @Test
+    public void differentRootFallsBackToFullScan() {
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(new Scoreboard(ROOT_ID, 12, 7, 5).root.widget());
+
+        Scoreboard other = new Scoreboard(ROOT_ID + 1, 1, 2, 3);
+        int headerReads = other.header.textReads;
+
+        assertEquals(other.expected(), parser.parse(other.root.widget()));
+        assertTrue(other.header.textReads > headerReads);
+    }
+
+    @Test
+    public void combinedLinesAreCachedAndReread() {
+        FakeWidget lines = new FakeWidget(2, "Wave 1: 30\nWave 2: 14\n<col=ffffff>Wave 12: 3</col>");
+        FakeWidget root = new FakeWidget(ROOT_ID, null);
+        root.children = new FakeWidget[] { lines };
+        DomScoreboardParser parser = new DomScoreboardParser();
+
+        assertEquals(Map.of(1, 30L, 2, 14L, 9, 3L), parser.parse(root.widget()));
+
+        lines.text = "Wave 1: 31\nWave 2: 14\n<col=ffffff>Wave 12: 3</col>";
+        int reads = lines.textReads;
+        assertEquals(Map.of(1, 31L, 2, 14L, 9, 3L), parser.parse(root.widget()));
+        assertEquals(3, lines.textReads - reads);
+    }
+
+    @Test
+    public void unrecognisedTreeReturnsEmptyAndForgetsCells() {
+        Scoreboard board = new Scoreboard(ROOT_ID, 12, 7, 5);
+        DomScoreboardParser parser = new DomScoreboardParser();
+        parser.parse(board.root.widget());
+
+        FakeWidget other = new FakeWidget(ROOT_ID, "Collection log");
+
+        assertTrue(parser.parse(other.widget()).isEmpty());
+        assertFalse(parser.hasCachedCells());
+    }
+
+    @Test
+    public void normalizesWaveKeys() {
+        assertEquals(1, DomScoreboardParser.normalizeWaveKey(0));
+        assertEquals(4, DomScoreboardParser.normalizeWaveKey(4));
+        assertEquals(9, DomScoreboardParser.normalizeWaveKey(12));
+    }
+
+    /**
+     * A scoreboard laid out like the Dom one: a header, then one row per wave holding a
+     * "Level N" cell and a count cell.
+     */
+    static final class Scoreboard {
+        final FakeWidget root;
+        final FakeWidget header;
+        FakeWidget[] rows;
+
+        Scoreboard(int rootId, long... counts) {
+            root = new FakeWidget(rootId, null);
+            header = new FakeWidget(1, "<col=ff981f>Personal completions</col>");
+            rows = new FakeWidget[0];
+            for (int i = 0; i < counts.length; i++) {
+                addRow(i + 1, counts[i]);
+            }
+        }
+
+        void addRow(int wave, long count) {
+            FakeWidget row = new FakeWidget(10 + wave, null);
+            String level = wave >= 9 ? "Level 9+" : "Level " + wave;
+            row.staticChildren = new FakeWidget[] {
+                    new FakeWidget(100 + wave, level),
+                    new FakeWidget(200 + wave, String.format("%,d", count)) };
+            rows = Arrays.copyOf(rows, rows.length + 1);
+            rows[rows.length - 1] = row;
+            root.staticChildren = rowWidgets();
+        }
+
+        void removeLastRow() {
+            rows = Arrays.copyOf(rows, rows.length - 1);
+            root.staticChildren = rowWidgets();
+        }
+
+        void setCount(int wave, long count) {
+            for (FakeWidget row : rows) {
+                if (row.staticChildren[0].text.equals(wave >= 9 ? "Level 9+" : "Level " + wave)) {
+                    row.staticChildren[1].text = String.format("%,d", count);
+                }
+            }
+        }
+
+        FakeWidget[] rowWidgets() {
+            FakeWidget[] widgets = new FakeWidget[rows.length + 1];
+            widgets[0] = header;
+            System.arraycopy(rows, 0, widgets, 1, rows.length);
+            return widgets;
+        }
+
+        Map<Integer, Long> expected() {
+            Map<Integer, Long> expected = new HashMap<>();
+            for (FakeWidget row : rows) {
+                FakeWidget level = row.staticChildren[0];
+                FakeWidget count = row.staticChildren[1];
+                if (row.hidden || level == null || count == null || level.hidden || count.hidden) {
+                    continue;
+                }
+                int wave = level.text.endsWith("+") ? 9 : Integer.parseInt(level.text.substring(6));
+                expected.put(wave, Long.parseLong(count.text.replace(",", "")));
+            }
+            return expected;
+        }
+    }
+
+    /** Mutable widget state behind a {@link Widget} proxy; counts reads of its text. */
+    static final class FakeWidget {
+        final int id;
+        String text;
+        boolean hidden;
+        FakeWidget[] children;
+        FakeWidget[] staticChildren;
+        int textReads;
+        private Widget widget;
+
+        FakeWidget(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        Widget widget() {
+            if (widget == null) {
+                widget = newProxy();
+            }
+            return widget;
+        }
+
+        private Widget newProxy() {
+            return (Widget) Proxy.newProxyInstance(Widget.class.getClassLoader(), new Class<?>[] { Widget.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getId":
+                                return id;
+                            case "getText":
+                                textReads++;
+                                return text;
+                            case "isHidden":
+                                return hidden;
+                            case "getChildren":
+                                return widgets(children);
+                            case "getStaticChildren":
+                                return widgets(staticChildren);
+                            case "getDynamicChildren":
+                            case "getNestedChildren":
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private static Widget[] widgets(FakeWidget[] fakes) {
+            if (fakes == null) {
+                return null;
+            }
+            Widget[] widgets = new Widget[fakes.length];
+            for (int i = 0; i < fakes.length; i++) {
+                widgets[i] = fakes[i] != null ? fakes[i].widget() : null;
+            }
+            return widgets;
+        }
+    }
+}
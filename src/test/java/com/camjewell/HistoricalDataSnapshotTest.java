@@ -0,0 +1,90 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HistoricalDataSnapshotTest {
+    @Test
+    public void changedWaveIsCopiedAndTheRestShared() {
+        HistoricalData live = liveData();
+        HistoricalData previous = live.snapshot(null);
+
+        live.historicalClaimedItemsByWave.get(2).get("Demon tear").add(5, 1_300);
+        HistoricalData snapshot = live.snapshotChanged(previous, Set.of(2), Set.of(), false);
+
+        assertEquals(15, snapshot.historicalClaimedItemsByWave.get(2).get("Demon tear").totalQuantity);
+        assertEquals(10, previous.historicalClaimedItemsByWave.get(2).get("Demon tear").totalQuantity);
+        assertSame(previous.historicalClaimedItemsByWave.get(3), snapshot.historicalClaimedItemsByWave.get(3));
+        assertSame(previous.historicalUnclaimedItemsByWave, snapshot.historicalUnclaimedItemsByWave);
+        assertSame(previous.historicalSuppliesUsed, snapshot.historicalSuppliesUsed);
+    }
+
+    @Test
+    public void unmarkedChangesAreNotLookedAt() {
+        HistoricalData live = liveData();
+        HistoricalData previous = live.snapshot(null);
+
+        // Only marked waves are read; this is why every mutation site must mark its wave.
+        live.historicalClaimedItemsByWave.get(3).get("Avernic treads").add(1, 0);
+        HistoricalData snapshot = live.snapshotChanged(previous, Set.of(), Set.of(), false);
+
+        assertSame(previous.historicalClaimedItemsByWave, snapshot.historicalClaimedItemsByWave);
+    }
+
+    @Test
+    public void newAndEmptiedWavesFollowTheMarks() {
+        HistoricalData live = liveData();
+        HistoricalData previous = live.snapshot(null);
+
+        live.historicalUnclaimedItemsByWave.put(7, new HashMap<>(Map.of("Sun-kissed bones",
+                new ItemAggregate("Sun-kissed bones", 3, 0))));
+        live.historicalClaimedItemsByWave.remove(3);
+        HistoricalData snapshot = live.snapshotChanged(previous, Set.of(3), Set.of(7), false);
+
+        assertFalse(snapshot.historicalClaimedItemsByWave.containsKey(3));
+        assertEquals(3, snapshot.historicalUnclaimedItemsByWave.get(7).get("Sun-kissed bones").totalQuantity);
+        assertNotSame(live.historicalUnclaimedItemsByWave.get(7).get("Sun-kissed bones"),
+                snapshot.historicalUnclaimedItemsByWave.get(7).get("Sun-kissed bones"));
+    }
+
+    @Test
+    public void changedSuppliesAndCountersAreCopied() {
+        HistoricalData live = liveData();
+        HistoricalData previous = live.snapshot(null);
+
+        live.historicalSuppliesUsed.get("Prayer potion").add(4, 2_000);
+        live.historicalClaimedByWave.put(2, 99L);
+        live.historicalClaims = 8;
+        HistoricalData snapshot = live.snapshotChanged(previous, Set.of(), Set.of(), true);
+
+        assertEquals(16, snapshot.historicalSuppliesUsed.get("Prayer potion").totalQuantity);
+        assertEquals(Long.valueOf(99), snapshot.historicalClaimedByWave.get(2));
+        assertEquals(8, snapshot.historicalClaims);
+    }
+
+    private static HistoricalData liveData() {
+        HistoricalData data = new HistoricalData();
+        data.historicalClaimedItemsByWave = new HashMap<>();
+        data.historicalClaimedItemsByWave.put(2, new HashMap<>(Map.of("Demon tear",
+                new ItemAggregate("Demon tear", 10, 1_200))));
+        data.historicalClaimedItemsByWave.put(3, new HashMap<>(Map.of("Avernic treads",
+                new ItemAggregate("Avernic treads", 1, 30_000_000))));
+        data.historicalUnclaimedItemsByWave = new HashMap<>();
+        data.historicalSuppliesUsed = new HashMap<>(Map.of("Prayer potion",
+                new ItemAggregate("Prayer potion", 12, 2_000)));
+        data.historicalClaimedByWave = new HashMap<>(Map.of(2, 12_000L));
+        data.historicalCompletedRunsByWave = new HashMap<>();
+        data.collectionLogClaimedUniqueCounts = new HashMap<>();
+        data.historicalUnclaimedByWave = new HashMap<>();
+        data.historicalClaims = 7;
+        return data;
+    }
+}
@@ -0,0 +1,112 @@
+package com.camjewell;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.gson.Gson;
+
+/**
+ * Compares load time and file size of the binary snapshot format with the JSON format it
+ * replaced, on a generated history far larger than any real player's. Run by hand:
+ * {@code main([items per wave], [iterations])}.
+ */
+public class HistoricalSnapshotCodecBenchmark {
+    private static final int WAVES = 30;
+
+    public static void main(String[] args) throws IOException {
+        int itemsPerWave = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        // The JSON format predates price timelines, so compare without them first.
+        run("without timelines", generate(itemsPerWave, false), iterations);
+        run("with timelines", generate(itemsPerWave, true), iterations);
+    }
+
+    private static void run(String label, HistoricalData data, int iterations) throws IOException {
+        Gson gson = new Gson();
+        byte[] json = gson.toJson(data).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer binary = HistoricalSnapshotCodec.encode(data);
+        int binarySize = binary.remaining();
+
+        long[] jsonNanos = new long[iterations];
+        long[] binaryNanos = new long[iterations];
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            HistoricalData fromJson = gson.fromJson(new String(json, StandardCharsets.UTF_8), HistoricalData.class);
+            jsonNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            HistoricalData fromBinary = HistoricalSnapshotCodec.decode(binary.duplicate());
+            binaryNanos[i] = System.nanoTime() - start;
+
+            // Keeps the decoded results live so neither load can be optimized away.
+            checksum += fromJson.historicalClaims + fromBinary.historicalClaims;
+        }
+
+        System.out.printf("%s: JSON %,d bytes, median load %.2f ms; binary %,d bytes, median load %.2f ms"
+                + " (%.1fx smaller, %.1fx faster) [%d]%n",
+                label, json.length, medianMillis(jsonNanos), binarySize, medianMillis(binaryNanos),
+                (double) json.length / binarySize, medianMillis(jsonNanos) / medianMillis(binaryNanos), checksum);
+    }
+
+    private static HistoricalData generate(int itemsPerWave, boolean withTimelines) {
+        Random random = new Random(1);
+        HistoricalData data = new HistoricalData();
+        data.historicalClaimedItemsByWave = new HashMap<>();
+        data.historicalUnclaimedItemsByWave = new HashMap<>();
+        data.historicalClaimedByWave = new HashMap<>();
+        data.historicalCompletedRunsByWave = new HashMap<>();
+        data.historicalUnclaimedByWave = new HashMap<>();
+        data.collectionLogClaimedUniqueCounts = new HashMap<>();
+        data.historicalSuppliesUsed = new HashMap<>();
+        data.historicalClaims = 5_000;
+        data.historicalDeaths = 800;
+
+        for (int wave = 1; wave <= WAVES; wave++) {
+            data.historicalClaimedItemsByWave.put(wave, generateItems(random, itemsPerWave, withTimelines));
+            data.historicalUnclaimedItemsByWave.put(wave, generateItems(random, itemsPerWave / 4, withTimelines));
+            data.historicalClaimedByWave.put(wave, random.nextLong() & 0xFFFFFFFFFL);
+            data.historicalCompletedRunsByWave.put(wave, (long) random.nextInt(5_000));
+            data.historicalUnclaimedByWave.put(wave, random.nextLong() & 0xFFFFFFFFL);
+        }
+        for (int i = 0; i < 200; i++) {
+            ItemAggregate supply = new ItemAggregate("Supply " + i, random.nextInt(100_000), random.nextInt(20_000));
+            supply.maxDosesForDisplay = 4;
+            data.historicalSuppliesUsed.put(supply.name, supply);
+            data.collectionLogClaimedUniqueCounts.put("Unique " + i, (long) random.nextInt(10));
+        }
+        return data;
+    }
+
+    private static Map<String, ItemAggregate> generateItems(Random random, int count, boolean withTimelines) {
+        Map<String, ItemAggregate> items = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = "Item " + i;
+            ItemAggregate aggregate = new ItemAggregate(name, random.nextInt(50_000), random.nextInt(5_000_000),
+                    random.nextInt(100_000));
+            aggregate.itemId = 20_000 + i;
+            if (withTimelines) {
+                aggregate.priceTimeline = new PriceTimeline();
+                int day = 19_000;
+                for (int row = 0; row < 12; row++) {
+                    day += 1 + random.nextInt(30);
+                    aggregate.priceTimeline.recordDrop(day, random.nextInt(100), random.nextInt(5_000_000));
+                }
+            }
+            items.put(name, aggregate);
+        }
+        return items;
+    }
+
+    private static double medianMillis(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
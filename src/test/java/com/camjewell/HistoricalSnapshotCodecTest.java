@@ -0,0 +1,235 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.Test;
+
+public class HistoricalSnapshotCodecTest {
+    private static final int MAGIC = 0x4D4B4853;
+
+    @Test
+    public void roundTripKeepsEveryField() throws IOException {
+        HistoricalData data = new HistoricalData();
+        data.journalSequence = 42;
+        data.historicalTotalClaimed = 12_345_678_901L;
+        data.historicalClaims = 17;
+        data.historicalDeaths = 3;
+
+        ItemAggregate tear = new ItemAggregate("Demon tear", 250, 1_200, 6);
+        tear.itemId = 31105;
+        tear.priceTimeline = new PriceTimeline();
+        tear.priceTimeline.recordDrop(PriceTimeline.UNKNOWN_DAY, 100, 1_000);
+        tear.priceTimeline.recordDrop(20_000, 150, 1_200);
+        tear.priceTimeline.recordPrice(20_010, 1_250);
+        data.historicalClaimedItemsByWave = new HashMap<>();
+        data.historicalClaimedItemsByWave.put(3, new HashMap<>(Map.of("Demon tear", tear)));
+        data.historicalClaimedItemsByWave.put(-1, new HashMap<>());
+        data.historicalUnclaimedItemsByWave = null;
+
+        ItemAggregate prayer = new ItemAggregate("Prayer potion", 12, 9_000L, "12 doses");
+        prayer.maxDosesForDisplay = 4;
+        data.historicalSuppliesUsed = new HashMap<>();
+        data.historicalSuppliesUsed.put("Prayer potion", prayer);
+        data.historicalSuppliesUsed.put("Missing", null);
+
+        data.historicalClaimedByWave = new HashMap<>(Map.of(3, 300_000L, 9, -5L));
+        data.historicalCompletedRunsByWave = new HashMap<>(Map.of(9, 4L));
+        data.historicalUnclaimedByWave = new HashMap<>();
+        data.collectionLogClaimedUniqueCounts = new HashMap<>(Map.of("Avernic treads", 1L));
+
+        HistoricalData decoded = HistoricalSnapshotCodec.decode(HistoricalSnapshotCodec.encode(data));
+
+        assertEquals(42, decoded.journalSequence);
+        assertEquals(12_345_678_901L, decoded.historicalTotalClaimed);
+        assertEquals(17, decoded.historicalClaims);
+        assertEquals(3, decoded.historicalDeaths);
+        assertNull(decoded.historicalUnclaimedItemsByWave);
+        assertEquals(0, decoded.historicalClaimedItemsByWave.get(-1).size());
+
+        ItemAggregate decodedTear = decoded.historicalClaimedItemsByWave.get(3).get("Demon tear");
+        assertEquals("Demon tear", decodedTear.name);
+        assertEquals(31105, decodedTear.itemId);
+        assertEquals(250, decodedTear.totalQuantity);
+        assertEquals(1_200, decodedTear.pricePerItem);
+        assertEquals(6, decodedTear.haPricePerItem);
+        assertEquals(tear.totalValue, decodedTear.totalValue);
+        assertEquals(tear.totalHaValue, decodedTear.totalHaValue);
+        assertEquals(tear.priceTimeline.size(), decodedTear.priceTimeline.size());
+        for (int row = 0; row < tear.priceTimeline.size(); row++) {
+            assertEquals(tear.priceTimeline.dayAt(row), decodedTear.priceTimeline.dayAt(row));
+            assertEquals(tear.priceTimeline.quantityAt(row), decodedTear.priceTimeline.quantityAt(row));
+            assertEquals(tear.priceTimeline.priceAt(row), decodedTear.priceTimeline.priceAt(row));
+        }
+
+        ItemAggregate decodedPrayer = decoded.historicalSuppliesUsed.get("Prayer potion");
+        assertEquals("12 doses", decodedPrayer.tooltipText);
+        assertEquals(4, decodedPrayer.maxDosesForDisplay);
+        assertEquals(9_000L, decodedPrayer.totalValue);
+        assertNull(decodedPrayer.priceTimeline);
+        assertEquals(true, decoded.historicalSuppliesUsed.containsKey("Missing"));
+        assertNull(decoded.historicalSuppliesUsed.get("Missing"));
+
+        assertEquals(data.historicalClaimedByWave, decoded.historicalClaimedByWave);
+        assertEquals(data.historicalCompletedRunsByWave, decoded.historicalCompletedRunsByWave);
+        assertEquals(data.historicalUnclaimedByWave, decoded.historicalUnclaimedByWave);
+        assertEquals(data.collectionLogClaimedUniqueCounts, decoded.collectionLogClaimedUniqueCounts);
+    }
+
+    @Test
+    public void decodesVersion1WithoutItemIdsOrTimelines() throws IOException {
+        HistoricalData decoded = HistoricalSnapshotCodec.decode(legacySnapshot(1));
+
+        ItemAggregate aggregate = decoded.historicalClaimedItemsByWave.get(2).get("Demon tear");
+        assertNotNull(aggregate);
+        assertEquals(0, aggregate.itemId);
+        assertNull(aggregate.priceTimeline);
+        assertEquals(5, aggregate.totalQuantity);
+        assertEquals(6_000, aggregate.totalValue);
+        assertEquals(7, decoded.journalSequence);
+        assertEquals(2, decoded.historicalClaims);
+    }
+
+    @Test
+    public void decodesVersion2WithItemIdsButNoTimelines() throws IOException {
+        HistoricalData decoded = HistoricalSnapshotCodec.decode(legacySnapshot(2));
+
+        ItemAggregate aggregate = decoded.historicalClaimedItemsByWave.get(2).get("Demon tear");
+        assertEquals(31105, aggregate.itemId);
+        assertNull(aggregate.priceTimeline);
+        assertEquals(1_200, aggregate.pricePerItem);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsChecksumMismatch() throws IOException {
+        byte[] bytes = toBytes(HistoricalSnapshotCodec.encode(sampleData()));
+        bytes[bytes.length / 2] ^= 0x01;
+        HistoricalSnapshotCodec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = toBytes(HistoricalSnapshotCodec.encode(sampleData()));
+        HistoricalSnapshotCodec.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedBodyWithValidChecksum() throws IOException {
+        // A torn write whose checksum happens to match must still fail cleanly.
+        byte[] bytes = toBytes(HistoricalSnapshotCodec.encode(sampleData()));
+        byte[] body = Arrays.copyOf(bytes, bytes.length / 2);
+        HistoricalSnapshotCodec.decode(ByteBuffer.wrap(withChecksum(body)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNearlyEmptyFile() throws IOException {
+        HistoricalSnapshotCodec.decode(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNewerVersion() throws IOException {
+        LegacyWriter out = new LegacyWriter();
+        out.writeInt(MAGIC);
+        out.writeVarLong(99);
+        HistoricalSnapshotCodec.decode(ByteBuffer.wrap(withChecksum(out.toByteArray())));
+    }
+
+    private static HistoricalData sampleData() {
+        HistoricalData data = new HistoricalData();
+        ItemAggregate tear = new ItemAggregate("Demon tear", 5, 1_200, 6);
+        tear.itemId = 31105;
+        data.historicalClaimedItemsByWave = new HashMap<>(Map.of(2, new HashMap<>(Map.of("Demon tear", tear))));
+        data.historicalSuppliesUsed = new HashMap<>();
+        return data;
+    }
+
+    /**
+     * A snapshot as the given older format version wrote it: one claimed wave holding one
+     * aggregate, every other map absent.
+     */
+    private static ByteBuffer legacySnapshot(int version) {
+        List<String> strings = List.of("Demon tear");
+        LegacyWriter out = new LegacyWriter();
+        out.writeInt(MAGIC);
+        out.writeVarLong(version);
+        out.writeVarLong(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        out.writeVarLong(7); // journal sequence
+        out.writeSignedVarLong(6_000); // total claimed
+        out.writeSignedVarLong(2); // claims
+        out.writeSignedVarLong(0); // deaths
+
+        // Claimed items by wave: one wave, one item.
+        out.writeVarLong(2);
+        out.writeSignedVarLong(2);
+        out.writeVarLong(2);
+        out.writeVarLong(1); // key
+        out.writeVarLong(1); // present
+        out.writeVarLong(1); // name
+        out.writeSignedVarLong(5);
+        out.writeSignedVarLong(1_200);
+        out.writeSignedVarLong(6);
+        out.writeSignedVarLong(6_000);
+        out.writeSignedVarLong(30);
+        out.writeVarLong(0); // no tooltip
+        out.writeSignedVarLong(0);
+        if (version >= 2) {
+            out.writeVarLong(31105);
+        }
+
+        out.writeVarLong(0); // unclaimed items by wave
+        out.writeVarLong(0); // claimed by wave
+        out.writeVarLong(0); // completed runs by wave
+        out.writeVarLong(0); // unclaimed by wave
+        out.writeVarLong(0); // collection log counts
+        out.writeVarLong(0); // supplies
+        return ByteBuffer.wrap(withChecksum(out.toByteArray()));
+    }
+
+    private static byte[] withChecksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return ByteBuffer.allocate(body.length + Integer.BYTES).put(body).putInt((int) crc.getValue()).array();
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static final class LegacyWriter extends ByteArrayOutputStream {
+        void writeInt(int value) {
+            byte[] bytes = ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.runelite.api.ItemComposition;
+
+public class ItemMetadataCacheTest {
+    private static final int PRAYER_4 = 2434;
+    private static final int PRAYER_3 = 139;
+    private static final int PRAYER_2 = 141;
+    private static final int PRAYER_1 = 143;
+    private static final int RESTORE_4 = 3024;
+    private static final int SHARK = 385;
+
+    @Test
+    public void doseVariantsShareABaseId() {
+        FakeItems items = new FakeItems();
+        ItemMetadataCache cache = items.cache();
+
+        int baseId = cache.getBaseId(PRAYER_4);
+        assertTrue(baseId > 0);
+        assertEquals(baseId, cache.getBaseId(PRAYER_1));
+        assertEquals(baseId, cache.getBaseId(PRAYER_3));
+        assertEquals(baseId, cache.getBaseId(PRAYER_2));
+        assertNotEquals(baseId, cache.getBaseId(RESTORE_4));
+        assertNotEquals(baseId, cache.getBaseId(SHARK));
+
+        // Looking the same items up again, after others, hands out the same IDs.
+        for (int itemId = 20_000; itemId < 20_100; itemId++) {
+            cache.getBaseId(itemId);
+        }
+        assertEquals(baseId, cache.getBaseId(PRAYER_2));
+        assertEquals("Prayer potion", cache.getBaseName(PRAYER_2));
+        assertEquals(2, cache.getDose(PRAYER_2));
+        assertEquals(0, cache.getDose(SHARK));
+    }
+
+    @Test
+    public void pricePerDoseDividesByTheDoseInTheName() {
+        FakeItems items = new FakeItems();
+        items.prices.put(PRAYER_3, 9_000);
+        items.prices.put(SHARK, 800);
+        ItemMetadataCache cache = items.cache();
+
+        assertEquals(3_000, cache.getPricePerDose(PRAYER_3));
+        assertEquals(800, cache.getPricePerDose(SHARK));
+    }
+
+    @Test
+    public void compositionIsReadOnce() {
+        FakeItems items = new FakeItems();
+        ItemMetadataCache cache = items.cache();
+
+        cache.getName(SHARK);
+        cache.getHaPrice(SHARK);
+        cache.getDose(SHARK);
+
+        assertEquals(1, items.compositionReads);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void priceThatWasNotLoadedIsReadAgain() {
+        FakeItems items = new FakeItems();
+        items.prices.put(SHARK, 0);
+        ItemMetadataCache cache = items.cache();
+
+        assertEquals(0, cache.getPrice(SHARK));
+        items.prices.put(SHARK, -1);
+        assertEquals(-1, cache.getPrice(SHARK));
+        items.prices.put(SHARK, 800);
+        assertEquals(800, cache.getPrice(SHARK));
+        assertEquals(3, items.priceReads);
+
+        // A positive price is kept until prices are invalidated.
+        items.prices.put(SHARK, 900);
+        assertEquals(800, cache.getPrice(SHARK));
+        assertEquals(3, items.priceReads);
+        cache.invalidatePrices();
+        assertEquals(900, cache.getPrice(SHARK));
+        assertEquals(4, items.priceReads);
+    }
+
+    @Test
+    public void startsOverWhenFull() {
+        FakeItems items = new FakeItems();
+        ItemMetadataCache cache = items.cache();
+        int firstBaseId = cache.getBaseId(PRAYER_4);
+        for (int itemId = 1; cache.size() < ItemMetadataCache.MAX_ENTRIES; itemId++) {
+            cache.getName(50_000 + itemId);
+        }
+        assertEquals(ItemMetadataCache.MAX_ENTRIES, cache.size());
+        int readsWhenFull = items.compositionReads;
+
+        cache.getName(SHARK);
+
+        assertEquals(1, cache.size());
+        assertEquals(readsWhenFull + 1, items.compositionReads);
+        // Items held before the reset are read again, and get a base ID never used before.
+        int baseIdAfterReset = cache.getBaseId(PRAYER_4);
+        assertEquals(readsWhenFull + 2, items.compositionReads);
+        assertNotEquals(firstBaseId, baseIdAfterReset);
+        assertEquals(baseIdAfterReset, cache.getBaseId(PRAYER_1));
+        assertEquals(3, cache.size());
+    }
+
+    /** Item compositions and GE prices by ID, counting how often each is read. */
+    private static final class FakeItems {
+        final Map<Integer, String> names = new HashMap<>();
+        final Map<Integer, Integer> prices = new HashMap<>();
+        int compositionReads;
+        int priceReads;
+
+        FakeItems() {
+            names.put(PRAYER_4, "Prayer potion(4)");
+            names.put(PRAYER_3, "Prayer potion(3)");
+            names.put(PRAYER_2, "Prayer potion(2)");
+            names.put(PRAYER_1, "Prayer potion(1)");
+            names.put(RESTORE_4, "Super restore(4)");
+            names.put(SHARK, "Shark");
+        }
+
+        ItemMetadataCache cache() {
+            return new ItemMetadataCache(this::composition, itemId -> {
+                priceReads++;
+                return prices.getOrDefault(itemId, 100);
+            });
+        }
+
+        private ItemComposition composition(int itemId) {
+            compositionReads++;
+            String name = names.getOrDefault(itemId, "Item " + itemId);
+            return (ItemComposition) Proxy.newProxyInstance(ItemComposition.class.getClassLoader(),
+                    new Class<?>[] { ItemComposition.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getName":
+                                return name;
+                            case "getId":
+                                return itemId;
+                            case "getHaPrice":
+                                return 60;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
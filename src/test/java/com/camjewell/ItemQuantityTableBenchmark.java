@@ -0,0 +1,53 @@
+package com.camjewell;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated per simulated tick of inventory snapshot diffing, the way
+ * {@link SupplyTrackingService} builds, diffs and swaps its tables. Expected to be 0 once
+ * the tables have grown. Run by hand: {@code main([ticks])}.
+ */
+public class ItemQuantityTableBenchmark {
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        ItemQuantityTable previous = new ItemQuantityTable();
+        ItemQuantityTable current = new ItemQuantityTable();
+        ItemQuantityTable decreases = new ItemQuantityTable();
+        ItemQuantityTable increases = new ItemQuantityTable();
+        long checksum = 0;
+
+        // Warm up so the tables reach their steady size and the loop is compiled.
+        checksum += simulate(previous, current, decreases, increases, 100_000);
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        checksum += simulate(previous, current, decreases, increases, ticks);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%,d ticks: %.3f bytes allocated per tick, %.0f ns per tick [%d]%n", ticks,
+                (double) allocated / ticks, (double) elapsed / ticks, checksum);
+    }
+
+    private static long simulate(ItemQuantityTable previous, ItemQuantityTable current,
+            ItemQuantityTable decreases, ItemQuantityTable increases, int ticks) {
+        long checksum = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            // Inventory, equipment and rune pouch: 53 stacks, one of them used up each tick.
+            current.clear();
+            for (int itemId = 1; itemId <= 53; itemId++) {
+                current.add(itemId * 7, itemId == 20 ? 1 + (tick & 1023) : itemId);
+            }
+            decreases.clear();
+            increases.clear();
+            ItemQuantityTable.diff(previous, current, decreases, increases);
+            previous.swap(current);
+            checksum += decreases.size() + increases.size();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,135 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ItemQuantityTableTest {
+    @Test
+    public void addSumsQuantitiesPerItem() {
+        ItemQuantityTable table = new ItemQuantityTable();
+        table.add(2434, 3);
+        table.add(2434, 2);
+        table.add(385, 10);
+
+        assertEquals(5, table.get(2434));
+        assertEquals(10, table.get(385));
+        assertEquals(0, table.get(139));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void clearEmptiesWithoutShrinking() {
+        ItemQuantityTable table = new ItemQuantityTable();
+        for (int itemId = 1; itemId <= 200; itemId++) {
+            table.add(itemId, itemId);
+        }
+        int slots = table.slotCount();
+
+        table.clear();
+
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.get(100));
+        assertEquals(slots, table.slotCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroItemId() {
+        // 0 marks a free slot.
+        new ItemQuantityTable().add(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeItemId() {
+        new ItemQuantityTable().add(-1, 1);
+    }
+
+    @Test
+    public void getOfZeroIsAbsent() {
+        ItemQuantityTable table = new ItemQuantityTable();
+        table.add(1, 4);
+        assertEquals(0, table.get(0));
+    }
+
+    @Test
+    public void growingKeepsEveryEntry() {
+        ItemQuantityTable table = new ItemQuantityTable();
+        // Clustered IDs, like the dose variants of a potion family.
+        for (int itemId = 3000; itemId < 4000; itemId++) {
+            table.add(itemId, itemId * 2);
+        }
+        for (int itemId = 3000; itemId < 4000; itemId++) {
+            assertEquals(itemId * 2, table.get(itemId));
+        }
+        assertEquals(1000, table.size());
+        assertEquals(1000, table.toMap().size());
+    }
+
+    @Test
+    public void diffSplitsDecreasesAndIncreases() {
+        ItemQuantityTable previous = new ItemQuantityTable();
+        previous.add(2434, 4);
+        previous.add(385, 10);
+        ItemQuantityTable current = new ItemQuantityTable();
+        current.add(2434, 1);
+        current.add(385, 10);
+        current.add(139, 2);
+        ItemQuantityTable decreases = new ItemQuantityTable();
+        ItemQuantityTable increases = new ItemQuantityTable();
+
+        ItemQuantityTable.diff(previous, current, decreases, increases);
+
+        assertEquals(Map.of(2434, 3), decreases.toMap());
+        assertEquals(Map.of(139, 2), increases.toMap());
+        assertTrue(ItemQuantityTable.hasDecrease(previous, current));
+        assertFalse(ItemQuantityTable.hasDecrease(current, current));
+    }
+
+    @Test
+    public void swapExchangesContents() {
+        ItemQuantityTable first = new ItemQuantityTable();
+        first.add(1, 1);
+        ItemQuantityTable second = new ItemQuantityTable();
+        second.add(2, 2);
+        second.add(3, 3);
+
+        first.swap(second);
+
+        assertEquals(Map.of(2, 2, 3, 3), first.toMap());
+        assertEquals(Map.of(1, 1), second.toMap());
+    }
+
+    @Test
+    public void steadyStateDiffingStopsGrowing() {
+        ItemQuantityTable previous = new ItemQuantityTable();
+        ItemQuantityTable current = new ItemQuantityTable();
+        ItemQuantityTable decreases = new ItemQuantityTable();
+        ItemQuantityTable increases = new ItemQuantityTable();
+        int[] slotCounts = null;
+
+        for (int tick = 0; tick < 1_000; tick++) {
+            // The same inventory with one item used up a little each tick.
+            current.clear();
+            for (int itemId = 1; itemId <= 28 + 14 + 11; itemId++) {
+                current.add(itemId, itemId == 7 ? 1_000 - tick : 1);
+            }
+            decreases.clear();
+            increases.clear();
+            ItemQuantityTable.diff(previous, current, decreases, increases);
+            previous.swap(current);
+
+            int[] counts = { previous.slotCount(), current.slotCount(), decreases.slotCount(),
+                    increases.slotCount() };
+            if (tick == 2) {
+                slotCounts = counts;
+            } else if (tick > 2) {
+                assertArrayEquals(slotCounts, counts);
+            }
+        }
+    }
+}
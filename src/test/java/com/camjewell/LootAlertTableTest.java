@@ -0,0 +1,106 @@
+package com.camjewell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LootAlertTableTest {
+    private static final Logger log = LoggerFactory.getLogger(LootAlertTableTest.class);
+    private static final int CANNONBALL = 2;
+    private static final int CANNONBALL_NOTED = 3;
+    private static final int DEMON_TEAR = 31105;
+    private static final IntUnaryOperator PRICES = itemId -> itemId == DEMON_TEAR ? 1_200 : 5;
+
+    @Test
+    public void windowQuantitySumsNotedAndUnnotedStacks() {
+        LootAlertTable table = compile("Steel cannonball, 300");
+
+        List<String> messages = new ArrayList<>();
+        table.onLoot(CANNONBALL, "Steel cannonball", 200, 200, PRICES, messages);
+        table.onLoot(CANNONBALL_NOTED, "Steel cannonball", 150, 150, PRICES, messages);
+        table.finishLoot(messages);
+
+        assertEquals(List.of("[Mokha Tracker] Loot alert: Steel cannonball x350 (>= 300)"), messages);
+    }
+
+    @Test
+    public void windowAlertIsCheckedPerEvent() {
+        LootAlertTable table = compile("Steel cannonball, 300");
+
+        List<String> messages = new ArrayList<>();
+        table.onLoot(CANNONBALL, "Steel cannonball", 200, 200, PRICES, messages);
+        table.finishLoot(messages);
+        assertTrue(messages.isEmpty());
+
+        // Nothing carries over from the previous event.
+        table.onLoot(CANNONBALL, "Steel cannonball", 250, 50, PRICES, messages);
+        table.finishLoot(messages);
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void zeroQuantityStacksAreNotAlertedTwice() {
+        LootAlertTable table = compile("Steel cannonball, 1");
+
+        List<String> messages = new ArrayList<>();
+        table.onLoot(CANNONBALL, "Steel cannonball", 0, 0, PRICES, messages);
+        table.onLoot(CANNONBALL_NOTED, "Steel cannonball", 0, 0, PRICES, messages);
+        table.onLoot(CANNONBALL, "Steel cannonball", 5, 5, PRICES, messages);
+        table.finishLoot(messages);
+
+        assertEquals(List.of("[Mokha Tracker] Loot alert: Steel cannonball x5 (>= 1)"), messages);
+    }
+
+    @Test
+    public void runAlertFiresOncePerRun() {
+        LootAlertTable table = compile("Demon tear, 100, run");
+
+        List<String> messages = new ArrayList<>();
+        table.onLoot(DEMON_TEAR, "Demon tear", 60, 60, PRICES, messages);
+        table.onLoot(DEMON_TEAR, "Demon tear", 110, 50, PRICES, messages);
+        table.onLoot(DEMON_TEAR, "Demon tear", 200, 90, PRICES, messages);
+        assertEquals(List.of("[Mokha Tracker] Loot alert: Demon tear x110 this run (>= 100)"), messages);
+
+        table.resetRun();
+        messages.clear();
+        table.onLoot(DEMON_TEAR, "Demon tear", 40, 40, PRICES, messages);
+        assertTrue(messages.isEmpty());
+        table.onLoot(DEMON_TEAR, "Demon tear", 100, 60, PRICES, messages);
+        assertEquals(List.of("[Mokha Tracker] Loot alert: Demon tear x100 this run (>= 100)"), messages);
+    }
+
+    @Test
+    public void duplicateLinesAlertAtTheLowestThreshold() {
+        LootAlertTable table = compile("steel cannonball, 500\nSteel cannonball, 200\nSTEEL CANNONBALL, 300\n"
+                + "value, 90000\nvalue, 50000");
+
+        List<String> messages = new ArrayList<>();
+        table.onLoot(CANNONBALL, "Steel cannonball", 250, 250, PRICES, messages);
+        table.onLoot(DEMON_TEAR, "Demon tear", 50, 50, PRICES, messages);
+        table.finishLoot(messages);
+
+        assertEquals(List.of(
+                "[Mokha Tracker] Loot alert: Demon tear x50 worth 60,000 gp (>= 50,000 gp)",
+                "[Mokha Tracker] Loot alert: steel cannonball x250 (>= 200)"), messages);
+    }
+
+    @Test
+    public void invalidLinesAreSkipped() {
+        LootAlertTable table = compile("# comment\nSteel cannonball\nSteel cannonball, lots\nSteel cannonball, 0\n"
+                + "Steel cannonball, 5, daily");
+
+        assertTrue(table.isEmpty());
+    }
+
+    // Only the unnoted ID resolves by name, as with the item ID dictionary.
+    private static LootAlertTable compile(String raw) {
+        return LootAlertTable.compile(raw, name -> name.equalsIgnoreCase("Steel cannonball") ? CANNONBALL : -1, log);
+    }
+}